@@ -2,13 +2,22 @@ package com.xmdev.sfs;
 
 import com.badlogic.gdx.Game;
 import com.badlogic.gdx.Gdx;
+import com.badlogic.gdx.graphics.g2d.Batch;
 import com.badlogic.gdx.graphics.g2d.SpriteBatch;
+import com.badlogic.gdx.graphics.g2d.TextureAtlas;
+import com.badlogic.gdx.graphics.g2d.TextureRegion;
 import com.badlogic.gdx.graphics.glutils.ShapeRenderer;
+import com.badlogic.gdx.math.RandomXS128;
 import com.badlogic.gdx.utils.Json;
 import com.badlogic.gdx.utils.JsonReader;
 import com.badlogic.gdx.utils.JsonValue;
 import com.xmdev.sfs.objects.Fighter;
+import com.xmdev.sfs.net.NetplayConfig;
 import com.xmdev.sfs.objects.FighterChoice;
+import com.xmdev.sfs.rendering.EffectsQuality;
+import com.xmdev.sfs.rendering.ProfilerRenderCounters;
+import com.xmdev.sfs.rendering.RenderStats;
+import com.xmdev.sfs.rendering.StaticLayers;
 import com.xmdev.sfs.resources.Assets;
 import com.xmdev.sfs.resources.AudioManager;
 import com.xmdev.sfs.resources.SettingsManager;
@@ -16,16 +25,34 @@ import com.xmdev.sfs.screens.GameScreen;
 import com.xmdev.sfs.screens.LoadingScreen;
 import com.xmdev.sfs.screens.MainMenuScreen;
 import com.xmdev.sfs.screens.SettingsScreen;
+import com.xmdev.sfs.simulation.AsyncOpponentAi;
+import com.xmdev.sfs.simulation.DifficultyProfiles;
+import com.xmdev.sfs.simulation.FixedTimestep;
+import com.xmdev.sfs.simulation.LookaheadOpponentAi;
+import com.xmdev.sfs.simulation.PolicyTable;
 
 import java.util.ArrayList;
+import java.util.Locale;
 
 public class SFS extends Game {
-	public SpriteBatch batch;
+	public Batch batch;
 	public ShapeRenderer shapeRenderer;
+
+	// the showing screen's backgrounds and other parts that never change, drawn from a sprite cache
+	public StaticLayers staticLayers;
+
+	// a white pixel from the gameplay atlas, stretched and tinted to draw rectangles through the batch
+	public TextureRegion whitePixel;
 	public Assets assets;
 	public AudioManager audioManager;
 	public SettingsManager settingsManager;
 
+	// random source for menu choices and match seeds
+	public final RandomXS128 random = new RandomXS128();
+
+	// netplay match settings, or null to play against the AI
+	public final NetplayConfig netplayConfig;
+
 	// screens
 	public GameScreen gameScreen;
 	public MainMenuScreen mainMenuScreen;
@@ -35,22 +62,123 @@ public class SFS extends Game {
 	// fighters
 	public Fighter player, opponent;
 	public final ArrayList<FighterChoice> fighterChoiceList = new ArrayList<>();
+
+	// AI and hit strength settings of every difficulty
+	public DifficultyProfiles difficultyProfiles;
+
+	// per-frame render call counts and phase times of the game screen; the counts are only taken (with the GL
+	// profiler) and logged when render stats are enabled
+	public RenderStats renderStats;
+
+	// how much of the game screen's effects are shown, cut back while frames take too long
+	public EffectsQuality effectsQuality;
+	private int frameRate;
+	private boolean renderStatsEnabled;
+	private boolean simulationThreadEnabled;
+	private int tickRate = FixedTimestep.DEFAULT_TICK_RATE;
+	private int maxTicksPerFrame = FixedTimestep.DEFAULT_MAX_TICKS_PER_FRAME;
+	private boolean aiThreadEnabled;
+	private boolean policyAiEnabled;
+	private int aiTimeBudget = LookaheadOpponentAi.DEFAULT_TIME_BUDGET;
+	private int aiWorkBudget = LookaheadOpponentAi.DEFAULT_WORK_BUDGET;
+	private ProfilerRenderCounters renderCounters;
+	private int framesSinceRenderStatsLog;
+
+	public SFS() {
+		this(null);
+	}
+
+	public SFS(NetplayConfig netplayConfig) {
+		this.netplayConfig = netplayConfig;
+	}
+
+	public void setFrameRate(int frameRate) {
+		// must be called before the game is created; the most frames per second the launcher lets the game draw,
+		// which the effects quality budgets frames by when the display is at least as fast
+		this.frameRate = frameRate;
+	}
+
+	public void setRenderStatsEnabled(boolean enabled) {
+		// must be called before the game is created
+		renderStatsEnabled = enabled;
+	}
+
+	public void setSimulationThreadEnabled(boolean enabled) {
+		// must be called before the game is created
+		simulationThreadEnabled = enabled;
+	}
+
+	public void setTickRate(int tickRate) {
+		// must be called before the game is created; both players of a netplay match need the same tick rate
+		this.tickRate = tickRate;
+	}
+
+	public void setMaxTicksPerFrame(int maxTicksPerFrame) {
+		// must be called before the game is created
+		this.maxTicksPerFrame = maxTicksPerFrame;
+	}
+
+	public void setAiThreadEnabled(boolean enabled) {
+		// must be called before the game is created; matches against the worker thread AI aren't saved as replays
+		aiThreadEnabled = enabled;
+	}
+
+	public void setPolicyAiEnabled(boolean enabled) {
+		// must be called before the game is created; the opponent plays from the shipped policy table instead of
+		// searching ahead, which takes the place of the worker thread AI
+		policyAiEnabled = enabled;
+	}
+
+	public void setAiWorkBudget(int rolloutsPerTick) {
+		// must be called before the game is created; how many rollouts the opponent may search every tick
+		aiWorkBudget = rolloutsPerTick;
+	}
+
+	public void setAiTimeBudget(int microseconds) {
+		// must be called before the game is created; only the worker thread AI is timed
+		aiTimeBudget = microseconds;
+	}
 	
 	@Override
 	public void create () {
 		batch = new SpriteBatch();
 		shapeRenderer = new ShapeRenderer();
+		staticLayers = new StaticLayers();
 		assets = new Assets();
+		if (renderStatsEnabled) {
+			renderCounters = new ProfilerRenderCounters(Gdx.graphics);
+		}
+		renderStats = new RenderStats(renderCounters);
+		effectsQuality = new EffectsQuality(getTargetFrameRate());
 
 		// initialize the loading screen and switch to it
 		loadingScreen = new LoadingScreen(this);
 		setScreen(loadingScreen);
 	}
 
+	private int getTargetFrameRate() {
+		// frames come no faster than the display refreshes (with vsync) or the launcher's frame rate cap, whichever
+		// is lower; 0 if neither is known
+		int refreshRate = Gdx.graphics.getDisplayMode().refreshRate;
+		if (frameRate > 0 && (refreshRate <= 0 || frameRate < refreshRate)) {
+			return frameRate;
+		}
+		return refreshRate;
+	}
+
 	public void assetsLoaded() {
-		// initialize the settings manager and load all the settings
+		// load the difficulty profiles, falling back to the built-in ones if the file is missing
+		difficultyProfiles = DifficultyProfiles.loadOrDefault(Gdx.files.internal(DifficultyProfiles.FILE));
+
+		// initialize the settings manager and load all the settings, keeping the difficulty setting to one
+		// the profiles have
 		settingsManager = new SettingsManager();
 		settingsManager.loadSettings();
+		settingsManager.setDifficultySetting(difficultyProfiles.clamp(settingsManager.getDifficultySetting()));
+
+		// take the middle pixel of the white square, so filtering never reaches the atlas padding around it
+		TextureAtlas gameplayAtlas = assets.manager.get(Assets.GAMEPLAY_ATLAS);
+		whitePixel = new TextureRegion(gameplayAtlas.findRegion("White"), 1, 1, 1, 1);
 
 		// initialize audio manager
 		audioManager = new AudioManager(assets.manager);
@@ -82,6 +210,15 @@ public class SFS extends Game {
 
 		// initialize game screen
 		gameScreen = new GameScreen(this);
+		gameScreen.setTickRate(tickRate);
+		gameScreen.setMaxTicksPerFrame(maxTicksPerFrame);
+		gameScreen.setAiWorkBudget(aiWorkBudget);
+		gameScreen.setAiTimeBudget(aiTimeBudget);
+		gameScreen.setAiOnWorkerThread(aiThreadEnabled);
+		if (policyAiEnabled) {
+			gameScreen.setOpponentPolicy(assets.manager.get(Assets.POLICY_TABLE, PolicyTable.class));
+		}
+		gameScreen.setSimulationOnWorkerThread(simulationThreadEnabled);
 
 		// initialize settings screen
 		settingsScreen = new SettingsScreen(this);
@@ -103,12 +240,35 @@ public class SFS extends Game {
 	@Override
 	public void render () {
 		super.render();
+
+		// log the render stats every time the window has filled up with new frames
+		if (renderStatsEnabled && ++framesSinceRenderStatsLog >= RenderStats.DEFAULT_WINDOW_SIZE) {
+			framesSinceRenderStatsLog = 0;
+			if (renderStats.getFrameCount() > 0) {
+				Gdx.app.log("RenderStats", renderStats.getSummary() + System.lineSeparator()
+						+ "  effects quality   " + effectsQuality.getLevelName());
+			}
+
+			// and how the worker thread AI is keeping up, if it's running
+			AsyncOpponentAi asyncOpponentAi = gameScreen.getAsyncOpponentAi();
+			if (asyncOpponentAi != null) {
+				Gdx.app.log("AsyncOpponentAi", String.format(Locale.ROOT,
+						"%d decisions applied, %d dropped, %d ticks unseen, turnaround %.3f / %.3f ms (avg / max)",
+						asyncOpponentAi.getAppliedDecisions(), asyncOpponentAi.getDroppedDecisions(),
+						asyncOpponentAi.getDroppedTicks(), asyncOpponentAi.getAverageTurnaroundTime() / 1e6,
+						asyncOpponentAi.getMaxTurnaroundTime() / 1e6));
+			}
+		}
 	}
 	
 	@Override
 	public void dispose () {
 		batch.dispose();
 		shapeRenderer.dispose();
+		staticLayers.dispose();
 		assets.dispose();
+		if (renderCounters != null) {
+			renderCounters.dispose();
+		}
 	}
 }
@@ -0,0 +1,79 @@
+package com.xmdev.sfs.net;
+
+import com.xmdev.sfs.simulation.DifficultyProfiles;
+
+public class NetplayConfig {
+    // which fighter the local player controls (the other one is controlled by the remote player)
+    public enum Slot {
+        PLAYER, OPPONENT
+    }
+
+    // connection
+    public Slot localSlot = Slot.PLAYER;
+    public int localPort;
+    public String remoteHost = "127.0.0.1";
+    public int remotePort;
+
+    // both peers need the same seed and difficulty to run the same match
+    public long seed;
+    public int difficulty = DifficultyProfiles.MEDIUM;
+
+    // artificial delay and loss added to outgoing packets, for testing over loopback
+    public int simulatedLatencyMillis;
+    public float simulatedLossChance;
+
+    public static final String USAGE =
+            "Usage: --netplay <1|2> <local port> <remote host>:<remote port> [latency ms] [loss percent]";
+
+    public static NetplayConfig fromArgs(String[] args) {
+        // returns null if the arguments don't ask for a netplay match; the netplay arguments run up to the next
+        // option, so other options can come before or after them
+        int start = -1;
+        for (int i = 0; i < args.length; i++) {
+            if (args[i].equals("--netplay")) {
+                start = i + 1;
+                break;
+            }
+        }
+        if (start < 0) {
+            return null;
+        }
+        int end = start;
+        while (end < args.length && !args[end].startsWith("--")) {
+            end++;
+        }
+        int count = end - start;
+        if (count < 3 || count > 5) {
+            throw new IllegalArgumentException(USAGE);
+        }
+
+        NetplayConfig config = new NetplayConfig();
+        try {
+            config.localSlot = args[start].equals("2") ? Slot.OPPONENT : Slot.PLAYER;
+            config.localPort = Integer.parseInt(args[start + 1]);
+            String remote = args[start + 2];
+            int separator = remote.lastIndexOf(':');
+            if (separator < 0) {
+                config.remotePort = Integer.parseInt(remote);
+            } else {
+                config.remoteHost = remote.substring(0, separator);
+                config.remotePort = Integer.parseInt(remote.substring(separator + 1));
+            }
+            if (count > 3) {
+                config.simulatedLatencyMillis = Integer.parseInt(args[start + 3]);
+            }
+            if (count > 4) {
+                config.simulatedLossChance = Float.parseFloat(args[start + 4]) / 100f;
+            }
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException(USAGE, e);
+        }
+
+        // derive the seed from the pair of ports so both peers agree on it without a handshake
+        int lowPort = Math.min(config.localPort, config.remotePort);
+        int highPort = Math.max(config.localPort, config.remotePort);
+        config.seed = ((long) lowPort << 16) | highPort;
+
+        return config;
+    }
+}
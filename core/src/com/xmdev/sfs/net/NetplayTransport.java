@@ -0,0 +1,204 @@
+package com.xmdev.sfs.net;
+
+import com.badlogic.gdx.math.RandomXS128;
+import com.badlogic.gdx.utils.GdxRuntimeException;
+import com.badlogic.gdx.utils.TimeUtils;
+import com.xmdev.sfs.simulation.StateChecksum;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.channels.DatagramChannel;
+
+public class NetplayTransport {
+    // packet layout: session id, ack tick, last checksum tick, the checksums of the ticks up to it, first tick,
+    // input count, then one short per input
+    static final int CHECKSUMS_PER_PACKET = 8;
+    private static final int HEADER_SIZE = 4 + 4 + 4 + CHECKSUMS_PER_PACKET * 4 + 4 + 2;
+    static final int MAX_INPUTS_PER_PACKET = 64;
+    private static final int MAX_PACKET_SIZE = HEADER_SIZE + MAX_INPUTS_PER_PACKET * 2;
+
+    // room for the packets held back by the simulated latency
+    private static final int DELAY_QUEUE_SIZE = 256;
+
+    // channel
+    private final DatagramChannel channel;
+    private final InetSocketAddress remoteAddress;
+    private final int sessionId;
+    private final ByteBuffer sendBuffer = ByteBuffer.allocate(MAX_PACKET_SIZE);
+    private final ByteBuffer receiveBuffer = ByteBuffer.allocate(MAX_PACKET_SIZE);
+
+    // the last tick the remote player has confirmed receiving from us
+    private int remoteAck = -1;
+
+    // latency and loss shim
+    private final long simulatedLatencyNanos;
+    private final float simulatedLossChance;
+    private final RandomXS128 lossRandom = new RandomXS128();
+    private final ByteBuffer[] delayedPackets = new ByteBuffer[DELAY_QUEUE_SIZE];
+    private final long[] delayedSendTimes = new long[DELAY_QUEUE_SIZE];
+    private int delayedHead, delayedCount;
+
+    // stats
+    private int packetsSent, packetsReceived, packetsDropped;
+
+    public NetplayTransport(NetplayConfig config, int sessionId) {
+        this.sessionId = sessionId;
+        remoteAddress = new InetSocketAddress(config.remoteHost, config.remotePort);
+        simulatedLatencyNanos = config.simulatedLatencyMillis * 1000000L;
+        simulatedLossChance = config.simulatedLossChance;
+
+        if (simulatedLatencyNanos > 0) {
+            for (int i = 0; i < DELAY_QUEUE_SIZE; i++) {
+                delayedPackets[i] = ByteBuffer.allocate(MAX_PACKET_SIZE);
+            }
+        }
+
+        // open a non-blocking channel on the local port; it's left unconnected so a peer that isn't up yet
+        // doesn't make reads fail
+        try {
+            channel = DatagramChannel.open();
+            channel.configureBlocking(false);
+            channel.bind(new InetSocketAddress(config.localPort));
+        } catch (IOException e) {
+            throw new GdxRuntimeException("Couldn't open netplay channel on port " + config.localPort, e);
+        }
+    }
+
+    public int getRemoteAck() {
+        return remoteAck;
+    }
+
+    public int getPacketsSent() {
+        return packetsSent;
+    }
+
+    public int getPacketsReceived() {
+        return packetsReceived;
+    }
+
+    public int getPacketsDropped() {
+        return packetsDropped;
+    }
+
+    void sendInputs(int[] inputs, int lastTick, int ack, StateChecksum checksums, int checksumTick) {
+        // send every input the remote player hasn't confirmed yet, so a lost packet is covered by the next one
+        int firstTick = Math.max(remoteAck + 1, lastTick - MAX_INPUTS_PER_PACKET + 1);
+        int count = lastTick - firstTick + 1;
+        if (count < 0) {
+            count = 0;
+        }
+
+        sendBuffer.clear();
+        sendBuffer.putInt(sessionId);
+        sendBuffer.putInt(ack);
+        sendBuffer.putInt(checksumTick);
+        for (int tick = checksumTick - CHECKSUMS_PER_PACKET + 1; tick <= checksumTick; tick++) {
+            sendBuffer.putInt(checksums.contains(tick) ? checksums.get(tick) : 0);
+        }
+        sendBuffer.putInt(firstTick);
+        sendBuffer.putShort((short) count);
+        for (int tick = firstTick; tick <= lastTick; tick++) {
+            sendBuffer.putShort((short) inputs[tick & (inputs.length - 1)]);
+        }
+        sendBuffer.flip();
+
+        // the shim drops some packets and holds the rest back for the simulated latency
+        if (simulatedLossChance > 0f && lossRandom.nextFloat() < simulatedLossChance) {
+            packetsDropped++;
+            return;
+        }
+        if (simulatedLatencyNanos > 0) {
+            delay(sendBuffer);
+        } else {
+            send(sendBuffer);
+        }
+    }
+
+    void receive(RollbackSession session) {
+        // send any delayed packets that are due, then read everything that has arrived
+        flushDelayedPackets();
+
+        try {
+            while (true) {
+                receiveBuffer.clear();
+                if (channel.receive(receiveBuffer) == null) {
+                    break;
+                }
+                receiveBuffer.flip();
+
+                // ignore anything that isn't a whole packet from the same session
+                if (receiveBuffer.remaining() < HEADER_SIZE || receiveBuffer.getInt() != sessionId) {
+                    continue;
+                }
+                int ack = receiveBuffer.getInt();
+                int checksumTick = receiveBuffer.getInt();
+                int checksumsPosition = receiveBuffer.position();
+                receiveBuffer.position(checksumsPosition + CHECKSUMS_PER_PACKET * 4);
+                int firstTick = receiveBuffer.getInt();
+                int count = receiveBuffer.getShort();
+                if (count < 0 || count > MAX_INPUTS_PER_PACKET || receiveBuffer.remaining() < count * 2) {
+                    continue;
+                }
+
+                packetsReceived++;
+                if (ack > remoteAck) {
+                    remoteAck = ack;
+                }
+                for (int i = 0; i < count; i++) {
+                    session.onRemoteInput(firstTick + i, receiveBuffer.getShort() & 0xFFFF);
+                }
+                for (int i = 0; i < CHECKSUMS_PER_PACKET; i++) {
+                    int tick = checksumTick - CHECKSUMS_PER_PACKET + 1 + i;
+                    if (tick >= 0) {
+                        session.onRemoteChecksum(tick, receiveBuffer.getInt(checksumsPosition + i * 4));
+                    }
+                }
+            }
+        } catch (IOException e) {
+            throw new GdxRuntimeException("Couldn't receive netplay packet", e);
+        }
+    }
+
+    private void delay(ByteBuffer packet) {
+        if (delayedCount == DELAY_QUEUE_SIZE) {
+            // the queue is full, which only happens with absurd latencies, so treat it as a lost packet
+            packetsDropped++;
+            return;
+        }
+
+        int index = (delayedHead + delayedCount) % DELAY_QUEUE_SIZE;
+        delayedPackets[index].clear();
+        delayedPackets[index].put(packet);
+        delayedPackets[index].flip();
+        delayedSendTimes[index] = TimeUtils.nanoTime() + simulatedLatencyNanos;
+        delayedCount++;
+    }
+
+    private void flushDelayedPackets() {
+        long now = TimeUtils.nanoTime();
+        while (delayedCount > 0 && delayedSendTimes[delayedHead] <= now) {
+            send(delayedPackets[delayedHead]);
+            delayedHead = (delayedHead + 1) % DELAY_QUEUE_SIZE;
+            delayedCount--;
+        }
+    }
+
+    private void send(ByteBuffer packet) {
+        try {
+            channel.send(packet, remoteAddress);
+            packetsSent++;
+        } catch (IOException e) {
+            // a failed send is just another lost packet, the inputs will be sent again with the next one
+            packetsDropped++;
+        }
+    }
+
+    public void close() {
+        try {
+            channel.close();
+        } catch (IOException e) {
+            // nothing left to do with the channel
+        }
+    }
+}
@@ -0,0 +1,282 @@
+package com.xmdev.sfs.net;
+
+import com.xmdev.sfs.objects.Fighter;
+import com.xmdev.sfs.simulation.MatchListener;
+import com.xmdev.sfs.simulation.MatchSimulation;
+import com.xmdev.sfs.simulation.MatchSnapshot;
+import com.xmdev.sfs.simulation.StateChecksum;
+
+public class RollbackSession {
+    // how many ticks of inputs and snapshots are kept (a power of two, so ticks can be masked into it)
+    private static final int BUFFER_SIZE = 128;
+
+    // how far the local player can run ahead of the last confirmed remote input before waiting for it
+    public static final int MAX_PREDICTION_TICKS = 12;
+
+    // match
+    private final MatchSimulation match;
+    private final NetplayTransport transport;
+    private final boolean localIsPlayer;
+    private final float tickTime;
+
+    // inputs and snapshots by tick
+    private final int[] localInputs = new int[BUFFER_SIZE];
+    private final int[] remoteInputs = new int[BUFFER_SIZE];
+    private final int[] usedRemoteInputs = new int[BUFFER_SIZE];
+    private final MatchSnapshot[] snapshots = new MatchSnapshot[BUFFER_SIZE];
+
+    // the events the listener has been told about for each tick, in any timeline, so resimulating a tick only
+    // reports the ones it hasn't heard about yet; effects of events the corrected timeline no longer has are left
+    // to finish (a sound that has been played can't be taken back)
+    private static final int PLAYER_HIT = 1;
+    private static final int PLAYER_BLOCKED = 1 << 1;
+    private static final int OPPONENT_HIT = 1 << 2;
+    private static final int OPPONENT_BLOCKED = 1 << 3;
+    private static final int ROUND_WON = 1 << 4;
+    private static final int ROUND_LOST = 1 << 5;
+    private final int[] reportedEvents = new int[BUFFER_SIZE];
+    private final MatchListener listener;
+    private int eventTickIndex;
+
+    // checksums of the state after each tick, compared with the remote player's to find the first tick the two
+    // matches went apart on
+    private final StateChecksum checksums = new StateChecksum(BUFFER_SIZE);
+    private final StateChecksum remoteChecksums = new StateChecksum(BUFFER_SIZE);
+    private int lastRemoteChecksumTick = -1;
+    private int lastComparedTick = -1;
+    private int desyncTick = -1;
+
+    // the next tick to simulate, the last tick every remote input is known up to, and the earliest tick that
+    // was simulated with a wrong prediction (-1 if none)
+    private int currentTick;
+    private int lastConfirmedRemoteTick = -1;
+    private int lastConfirmedRemoteInput;
+    private int rollbackTick = -1;
+
+    // stats
+    private int rollbacks, resimulatedTicks, stalledTicks;
+
+    public RollbackSession(MatchSimulation match, NetplayConfig config, float tickTime) {
+        this.match = match;
+        this.tickTime = tickTime;
+        localIsPlayer = config.localSlot == NetplayConfig.Slot.PLAYER;
+
+        for (int i = 0; i < BUFFER_SIZE; i++) {
+            snapshots[i] = new MatchSnapshot();
+        }
+
+        // the match's events go through the session, which passes them on to the listener once per tick
+        listener = match.getListener();
+        match.setListener(new MatchListener() {
+            @Override
+            public void onFighterHit(Fighter fighter, boolean blocked) {
+                if (fighter == match.getPlayer()) {
+                    report(blocked ? PLAYER_BLOCKED : PLAYER_HIT, fighter, blocked);
+                } else {
+                    report(blocked ? OPPONENT_BLOCKED : OPPONENT_HIT, fighter, blocked);
+                }
+            }
+
+            @Override
+            public void onRoundWon() {
+                report(ROUND_WON, null, false);
+            }
+
+            @Override
+            public void onRoundLost() {
+                report(ROUND_LOST, null, false);
+            }
+        });
+
+        // packets only count if they come from a peer running the same match
+        int sessionId = (int) (match.getSeed() ^ (match.getSeed() >>> 32));
+        sessionId = 31 * sessionId + match.getDifficulty();
+        sessionId = 31 * sessionId + Float.floatToIntBits(tickTime);
+        transport = new NetplayTransport(config, sessionId);
+    }
+
+    public NetplayTransport getTransport() {
+        return transport;
+    }
+
+    public int getCurrentTick() {
+        return currentTick;
+    }
+
+    public int getLastConfirmedRemoteTick() {
+        return lastConfirmedRemoteTick;
+    }
+
+    public boolean isWaitingForRemote() {
+        // nothing has been heard from the remote player yet
+        return lastConfirmedRemoteTick < 0;
+    }
+
+    public int getDesyncTick() {
+        // the first tick after which the two peers' matches differed, or -1 if they haven't
+        return desyncTick;
+    }
+
+    public int getRollbacks() {
+        return rollbacks;
+    }
+
+    public int getResimulatedTicks() {
+        return resimulatedTicks;
+    }
+
+    public int getStalledTicks() {
+        return stalledTicks;
+    }
+
+    public boolean isMatchOverConfirmed() {
+        // only trust the end of the match once it no longer depends on any predicted input
+        return match.isMatchOver() && lastConfirmedRemoteTick >= currentTick - 1;
+    }
+
+    public boolean advance(int localInput) {
+        // read the remote player's inputs, rolling back if any of them weren't what was predicted
+        transport.receive(this);
+        if (rollbackTick >= 0) {
+            resimulate();
+        }
+        checkRemoteChecksum();
+
+        // if the remote player has fallen too far behind, wait for them instead of predicting even further
+        if (currentTick - lastConfirmedRemoteTick > MAX_PREDICTION_TICKS) {
+            stalledTicks++;
+            sendInputs(currentTick - 1);
+            return false;
+        }
+
+        // record the local input, send it (along with the unconfirmed ones before it) and simulate the tick
+        localInputs[currentTick & (BUFFER_SIZE - 1)] = localInput;
+        sendInputs(currentTick);
+        simulateTick(currentTick);
+        currentTick++;
+        return true;
+    }
+
+    public void poll() {
+        // keep exchanging inputs without simulating, e.g. after the match is over, so the remote player
+        // still gets any inputs it lost
+        transport.receive(this);
+        if (rollbackTick >= 0) {
+            resimulate();
+        }
+        checkRemoteChecksum();
+        sendInputs(currentTick - 1);
+    }
+
+    private int getLastFinalTick() {
+        // the last tick that was simulated without any predicted input
+        return Math.min(lastConfirmedRemoteTick, currentTick - 1);
+    }
+
+    private void sendInputs(int lastTick) {
+        // send the local inputs along with the checksums of the last ticks that won't change any more
+        transport.sendInputs(localInputs, lastTick, lastConfirmedRemoteTick, checksums, getLastFinalTick());
+    }
+
+    void onRemoteInput(int tick, int input) {
+        // only accept the next tick in order, anything else is a duplicate or will be sent again
+        if (tick != lastConfirmedRemoteTick + 1) {
+            return;
+        }
+
+        int index = tick & (BUFFER_SIZE - 1);
+        remoteInputs[index] = input;
+        lastConfirmedRemoteTick = tick;
+        lastConfirmedRemoteInput = input;
+
+        // if the tick has already been simulated with a different input, it needs to be simulated again
+        if (tick < currentTick && usedRemoteInputs[index] != input && rollbackTick < 0) {
+            rollbackTick = tick;
+        }
+    }
+
+    void onRemoteChecksum(int tick, int checksum) {
+        // keep the checksum, it's compared once the local side has simulated that tick for good
+        remoteChecksums.record(tick, checksum);
+        if (tick > lastRemoteChecksumTick) {
+            lastRemoteChecksumTick = tick;
+        }
+    }
+
+    private void checkRemoteChecksum() {
+        // compare every tick both sides have final checksums for since the last check
+        if (desyncTick >= 0) return;
+        int lastTick = Math.min(getLastFinalTick(), lastRemoteChecksumTick);
+        if (lastTick > lastComparedTick) {
+            desyncTick = StateChecksum.findFirstDivergence(checksums, remoteChecksums, lastComparedTick + 1, lastTick);
+            lastComparedTick = lastTick;
+        }
+    }
+
+    private void resimulate() {
+        // go back to the state before the first mispredicted tick and simulate up to the current tick again; the
+        // listener only hears about the events that weren't in the timeline it has been told about
+        rollbacks++;
+        resimulatedTicks += currentTick - rollbackTick;
+
+        MatchSnapshot snapshot = snapshots[rollbackTick & (BUFFER_SIZE - 1)];
+        snapshot.rewind();
+        match.restoreState(snapshot);
+
+        for (int tick = rollbackTick; tick < currentTick; tick++) {
+            simulateTick(tick);
+        }
+
+        rollbackTick = -1;
+    }
+
+    private void report(int event, Fighter fighter, boolean blocked) {
+        // pass an event of the tick being simulated on to the listener, unless it has already been told about it
+        if ((reportedEvents[eventTickIndex] & event) != 0) return;
+        reportedEvents[eventTickIndex] |= event;
+        if (listener == null) return;
+
+        if (event == ROUND_WON) {
+            listener.onRoundWon();
+        } else if (event == ROUND_LOST) {
+            listener.onRoundLost();
+        } else {
+            listener.onFighterHit(fighter, blocked);
+        }
+    }
+
+    private void simulateTick(int tick) {
+        int index = tick & (BUFFER_SIZE - 1);
+
+        // a tick simulated for the first time hasn't reported anything yet
+        if (tick >= currentTick) {
+            reportedEvents[index] = 0;
+        }
+        eventTickIndex = index;
+
+        // save the state before the tick, so it can be rolled back to
+        MatchSnapshot snapshot = snapshots[index];
+        snapshot.rewind();
+        match.saveState(snapshot);
+
+        // use the remote input if it's known, otherwise predict the remote player keeps holding the same keys
+        int remoteInput = tick <= lastConfirmedRemoteTick ? remoteInputs[index] : lastConfirmedRemoteInput;
+        usedRemoteInputs[index] = remoteInput;
+
+        if (localIsPlayer) {
+            match.setPlayerInput(localInputs[index]);
+            match.setOpponentInput(remoteInput);
+        } else {
+            match.setPlayerInput(remoteInput);
+            match.setOpponentInput(localInputs[index]);
+        }
+        match.update(tickTime);
+        checksums.record(tick, match.checksum());
+    }
+
+    public void close() {
+        // give the match its listener back, for whatever is played next
+        match.setListener(listener);
+        transport.close();
+    }
+}
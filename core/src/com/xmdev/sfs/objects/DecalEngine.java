@@ -0,0 +1,242 @@
+package com.xmdev.sfs.objects;
+
+import com.badlogic.gdx.graphics.Color;
+import com.badlogic.gdx.graphics.g2d.Batch;
+import com.badlogic.gdx.graphics.g2d.TextureRegion;
+import com.xmdev.sfs.rendering.Renderable;
+import com.xmdev.sfs.resources.GlobalVariables;
+import com.xmdev.sfs.simulation.MatchSnapshot;
+
+public class DecalEngine implements Renderable {
+    // decals that share one set of regions, kept in parallel arrays used as a ring in the order they were spawned,
+    // so updating and drawing them only touches the ones that are showing, they're drawn oldest first, and the
+    // oldest is always at the head to be removed; a decal either plays through the regions once (animated) or
+    // shows the region it was spawned with while it fades out (fading)
+    private final TextureRegion[] regions;
+    private final float[] regionWidths;
+    private final float[] regionHeights;
+    private final float frameDuration;
+    private float fadeTime;
+    private float lifetime;
+
+    // how many regions an animated decal moves on every frame duration (more than 1 skips frames, so the animation
+    // finishes sooner)
+    private int frameStep = 1;
+
+    // the decals, from the oldest at head to the newest count - 1 slots after it (wrapping around), and the most
+    // that can be live at once (up to the capacity)
+    private final int capacity;
+    private int limit;
+    private final float[] x;
+    private final float[] y;
+    private final float[] age;
+    private final float[] alpha;
+    private final int[] region;
+    private int head;
+    private int count;
+
+    public DecalEngine(TextureRegion[] regions, int capacity, float frameDuration, float fadeTime) {
+        // a frame duration above 0 makes the decals animated, otherwise they fade out over the fade time
+        this.regions = regions;
+        this.capacity = capacity;
+        this.frameDuration = frameDuration;
+        this.fadeTime = fadeTime;
+        limit = capacity;
+        updateLifetime();
+
+        // the drawn size of every region, worked out once
+        regionWidths = new float[regions.length];
+        regionHeights = new float[regions.length];
+        for (int i = 0; i < regions.length; i++) {
+            regionWidths[i] = regions[i].getRegionWidth() * GlobalVariables.WORLD_SCALE;
+            regionHeights[i] = regions[i].getRegionHeight() * GlobalVariables.WORLD_SCALE;
+        }
+
+        x = new float[capacity];
+        y = new float[capacity];
+        age = new float[capacity];
+        alpha = new float[capacity];
+        region = new int[capacity];
+    }
+
+    public DecalEngine(DecalEngine other) {
+        // an engine for the same kind of decals, e.g. to copy the other one's decals into
+        this(other.regions, other.capacity, other.frameDuration, other.fadeTime);
+    }
+
+    public void copyFrom(DecalEngine other) {
+        // copy the live decals and the settings they're updated with from an engine made for the same decals
+        fadeTime = other.fadeTime;
+        lifetime = other.lifetime;
+        frameStep = other.frameStep;
+        limit = other.limit;
+        head = other.head;
+        count = other.count;
+
+        // only the slots in use, which are one run or two if they wrap around
+        int firstRun = Math.min(count, capacity - head);
+        copyRun(other, head, firstRun);
+        copyRun(other, 0, count - firstRun);
+    }
+
+    private void copyRun(DecalEngine other, int start, int length) {
+        System.arraycopy(other.x, start, x, start, length);
+        System.arraycopy(other.y, start, y, start, length);
+        System.arraycopy(other.age, start, age, start, length);
+        System.arraycopy(other.alpha, start, alpha, start, length);
+        System.arraycopy(other.region, start, region, start, length);
+    }
+
+    public int getStateFloats() {
+        // the room saving the decals takes in a snapshot, with every decal live
+        return capacity * 4;
+    }
+
+    public int getStateInts() {
+        return 2 + capacity;
+    }
+
+    public void saveState(MatchSnapshot snapshot) {
+        // write the ring's head and count, and the live decals in their slots
+        snapshot.writeInt(head);
+        snapshot.writeInt(count);
+        for (int i = 0; i < count; i++) {
+            int index = slot(i);
+            snapshot.writeFloat(x[index]);
+            snapshot.writeFloat(y[index]);
+            snapshot.writeFloat(age[index]);
+            snapshot.writeFloat(alpha[index]);
+            snapshot.writeInt(region[index]);
+        }
+    }
+
+    public void restoreState(MatchSnapshot snapshot) {
+        // read everything back in the same order it was written, keeping to the limit if it has been lowered since
+        head = snapshot.readInt();
+        count = snapshot.readInt();
+        for (int i = 0; i < count; i++) {
+            int index = slot(i);
+            x[index] = snapshot.readFloat();
+            y[index] = snapshot.readFloat();
+            age[index] = snapshot.readFloat();
+            alpha[index] = snapshot.readFloat();
+            region[index] = snapshot.readInt();
+        }
+        if (count > limit) {
+            removeOldest(count - limit);
+        }
+    }
+
+    public void spawn(float positionX, float positionY, int regionIndex) {
+        // add a decal after the newest, removing the oldest one if they're all in use; animated decals always
+        // start at the first region
+        if (count == limit) {
+            removeOldest(1);
+        }
+        int index = slot(count++);
+        x[index] = positionX;
+        y[index] = positionY;
+        age[index] = 0f;
+        alpha[index] = 1f;
+        region[index] = frameDuration > 0f ? 0 : regionIndex;
+    }
+
+    private int slot(int i) {
+        // the slot of the i-th oldest decal
+        int index = head + i;
+        return index < capacity ? index : index - capacity;
+    }
+
+    private void removeOldest(int removed) {
+        head = slot(removed);
+        count -= removed;
+    }
+
+    private void updateLifetime() {
+        // an animated decal lasts until it has stepped past its last region
+        if (frameDuration > 0f) {
+            lifetime = frameDuration * ((regions.length + frameStep - 1) / frameStep);
+        } else {
+            lifetime = fadeTime;
+        }
+    }
+
+    public void setLimit(int limit) {
+        // lower (or raise) the most decals that can be live, removing the oldest ones if there are too many
+        this.limit = Math.min(Math.max(limit, 1), capacity);
+        if (count > this.limit) {
+            removeOldest(count - this.limit);
+        }
+    }
+
+    public void setFadeTime(float fadeTime) {
+        // for fading decals, and also applies to the live ones, which are removed if they're already older
+        this.fadeTime = fadeTime;
+        updateLifetime();
+    }
+
+    public void setFrameStep(int frameStep) {
+        // for animated decals, and also applies to the live ones
+        this.frameStep = Math.max(frameStep, 1);
+        updateLifetime();
+    }
+
+    public void clear() {
+        head = count = 0;
+    }
+
+    public void update(float deltaTime) {
+        // every decal ages by the same time and they all last as long, so the ones that have finished are the
+        // oldest ones, at the head
+        int finished = 0;
+        while (finished < count && age[slot(finished)] + deltaTime >= lifetime) {
+            finished++;
+        }
+        removeOldest(finished);
+
+        for (int i = 0; i < count; i++) {
+            int index = slot(i);
+            float newAge = age[index] + deltaTime;
+            age[index] = newAge;
+            if (frameDuration > 0f) {
+                region[index] = (int) (newAge / frameDuration) * frameStep;
+            } else {
+                alpha[index] = 1f - newAge / fadeTime;
+            }
+        }
+    }
+
+    @Override
+    public void render(Batch batch, float interpolation) {
+        // decals don't move, so there's nothing to interpolate
+        if (count == 0) return;
+
+        // oldest first, so newer decals are drawn over older ones
+        for (int i = 0; i < count; i++) {
+            int index = slot(i);
+
+            // only fading decals change the batch's color
+            if (frameDuration <= 0f) {
+                batch.setColor(1f, 1f, 1f, alpha[index]);
+            }
+            int r = region[index];
+            batch.draw(regions[r], x[index], y[index], regionWidths[r], regionHeights[r]);
+        }
+
+        // reset the batch's color to fully opaque
+        batch.setColor(Color.WHITE);
+    }
+
+    public int getCount() {
+        // how many decals are live
+        return count;
+    }
+
+    public int getCapacity() {
+        return capacity;
+    }
+
+    public int getLimit() {
+        return limit;
+    }
+}
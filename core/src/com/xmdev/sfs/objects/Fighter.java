@@ -1,19 +1,32 @@
 package com.xmdev.sfs.objects;
 
-import com.badlogic.gdx.assets.AssetManager;
 import com.badlogic.gdx.graphics.Color;
-import com.badlogic.gdx.graphics.Texture;
-import com.badlogic.gdx.graphics.g2d.Animation;
-import com.badlogic.gdx.graphics.g2d.SpriteBatch;
+import com.badlogic.gdx.graphics.g2d.Batch;
+import com.badlogic.gdx.graphics.g2d.TextureAtlas;
 import com.badlogic.gdx.graphics.g2d.TextureRegion;
 import com.badlogic.gdx.math.Vector2;
 import com.xmdev.sfs.SFS;
+import com.xmdev.sfs.rendering.Renderable;
 import com.xmdev.sfs.resources.Assets;
 import com.xmdev.sfs.resources.GlobalVariables;
-
-public class Fighter {
-    // number of frame rows and columns in each animation sprite sheet
-    private static final int FRAME_ROWS = 2, FRAME_COLS = 3;
+import com.xmdev.sfs.simulation.FighterCommands;
+import com.xmdev.sfs.simulation.FighterView;
+import com.xmdev.sfs.simulation.MatchSnapshot;
+import com.xmdev.sfs.simulation.StateChecksum;
+
+public class Fighter implements FighterView, FighterCommands, Renderable {
+    // number of frames in each animation
+    private static final int FRAME_COUNT = 6;
+
+    // how long each animation frame is shown
+    private static final float BLOCK_FRAME_DURATION = 0.05f;
+    private static final float HURT_FRAME_DURATION = 0.03f;
+    private static final float IDLE_FRAME_DURATION = 0.1f;
+    private static final float KICK_FRAME_DURATION = 0.05f;
+    private static final float LOSE_FRAME_DURATION = 0.05f;
+    private static final float PUNCH_FRAME_DURATION = 0.05f;
+    private static final float WALK_FRAME_DURATION = 0.08f;
+    private static final float WIN_FRAME_DURATION = 0.05f;
 
     // how fast a fighter can move
     public static final float MOVEMENT_SPEED = 10f;
@@ -48,39 +61,113 @@ public class Fighter {
         WIN
     }
 
+    private static final State[] STATES = State.values();
+
+    // each state's animation timing, worked out once and indexed by the state's ordinal: how long a frame is shown
+    // (and its inverse, to find the frame by multiplying), whether the animation loops, the state time a
+    // non-looping animation has finished at, and the state times an attack can hit between (exclusive)
+    private static final float[] FRAME_DURATIONS = new float[STATES.length];
+    private static final float[] INVERSE_FRAME_DURATIONS = new float[STATES.length];
+    private static final boolean[] LOOPING = new boolean[STATES.length];
+    private static final float[] DURATIONS = new float[STATES.length];
+    private static final float[] ACTIVE_HIT_STARTS = new float[STATES.length];
+    private static final float[] ACTIVE_HIT_ENDS = new float[STATES.length];
+
+    static {
+        setAnimationTiming(State.BLOCK, BLOCK_FRAME_DURATION, true, false);
+        setAnimationTiming(State.HURT, HURT_FRAME_DURATION, false, false);
+        setAnimationTiming(State.IDLE, IDLE_FRAME_DURATION, true, false);
+        setAnimationTiming(State.KICK, KICK_FRAME_DURATION, false, true);
+        setAnimationTiming(State.LOSE, LOSE_FRAME_DURATION, false, false);
+        setAnimationTiming(State.PUNCH, PUNCH_FRAME_DURATION, false, true);
+        setAnimationTiming(State.WALK, WALK_FRAME_DURATION, true, false);
+        setAnimationTiming(State.WIN, WIN_FRAME_DURATION, true, false);
+    }
+
     private State state;
     private float stateTime;
     private State renderState;
     private float renderStateTime;
     private final Vector2 position = new Vector2();
+    private final Vector2 previousPosition = new Vector2();
     private final Vector2 movementDirection = new Vector2();
     private float life;
     private int facing;
     private boolean madeContact;
 
-    // animations
-    private Animation<TextureRegion> blockAnimation;
-    private Animation<TextureRegion> hurtAnimation;
-    private Animation<TextureRegion> idleAnimation;
-    private Animation<TextureRegion> kickAnimation;
-    private Animation<TextureRegion> loseAnimation;
-    private Animation<TextureRegion> punchAnimation;
-    private Animation<TextureRegion> walkAnimation;
-    private Animation<TextureRegion> winAnimation;
+    // every state's animation frames, indexed by the state's ordinal
+    private TextureRegion[][] frames;
+    private static final String[] ANIMATION_NAMES = {"Block", "Hurt", "Idle", "Kick", "Lose", "Punch", "Walk", "Win"};
 
-    public Fighter(SFS game, String name, Color color) {
+    public Fighter(String name, Color color) {
+        // create a fighter without animations, so it can be simulated without a graphics context
         this.name = name;
         this.color = color;
+    }
+
+    public Fighter(SFS game, String name, Color color) {
+        this(name, color);
+
+        // initialize animations from the frames in the gameplay atlas, which are named after their animation and
+        // numbered in order (Idle_0 to Idle_5)
+        TextureAtlas atlas = game.assets.manager.get(Assets.GAMEPLAY_ATLAS);
+        frames = new TextureRegion[STATES.length][];
+        for (int i = 0; i < STATES.length; i++) {
+            frames[i] = atlas.findRegions(ANIMATION_NAMES[i]).toArray(TextureRegion.class);
+        }
+    }
+
+    public void copyAppearance(Fighter other) {
+        // look like the other fighter, sharing its animation frames, e.g. for a copy of it to be drawn
+        name = other.name;
+        color = other.color;
+        frames = other.frames;
+    }
+
+    private static void setAnimationTiming(State state, float frameDuration, boolean looping, boolean attack) {
+        int index = state.ordinal();
+        FRAME_DURATIONS[index] = frameDuration;
+        INVERSE_FRAME_DURATIONS[index] = 1f / frameDuration;
+        LOOPING[index] = looping;
+        DURATIONS[index] = getFinishTime(frameDuration);
+
+        // an attack can hit from a third of its first frame until two thirds of the way through it, and other
+        // states never can
+        if (attack) {
+            ACTIVE_HIT_STARTS[index] = frameDuration * 0.33f;
+            ACTIVE_HIT_ENDS[index] = frameDuration * FRAME_COUNT * 0.66f;
+        } else {
+            ACTIVE_HIT_STARTS[index] = Float.POSITIVE_INFINITY;
+            ACTIVE_HIT_ENDS[index] = 0f;
+        }
+    }
+
+    private static float getFinishTime(float frameDuration) {
+        // the first state time a non-looping animation counts as finished at, i.e. when the frame number (the
+        // state time divided by the frame duration) passes the last frame; it's found by stepping a float at a
+        // time from the nearest product, so comparing against it is exactly the same as dividing, and replays
+        // and rollback stay in step with matches played before
+        float time = frameDuration * FRAME_COUNT;
+        while ((int) (time / frameDuration) > FRAME_COUNT - 1) {
+            time = Math.nextDown(time);
+        }
+        while ((int) (time / frameDuration) <= FRAME_COUNT - 1) {
+            time = Math.nextUp(time);
+        }
+        return time;
+    }
 
-        // initialize animations
-        initializeBlockAnimation(game.assets.manager);
-        initializeHurtAnimation(game.assets.manager);
-        initializeIdleAnimation(game.assets.manager);
-        initializeKickAnimation(game.assets.manager);
-        initializeLoseAnimation(game.assets.manager);
-        initializePunchAnimation(game.assets.manager);
-        initializeWalkAnimation(game.assets.manager);
-        initializeWinAnimation(game.assets.manager);
+    public static float getFrameDuration(State state) {
+        return FRAME_DURATIONS[state.ordinal()];
+    }
+
+    public static float getAnimationDuration(State state) {
+        // how long the state's animation takes to play through once
+        return DURATIONS[state.ordinal()];
+    }
+
+    public static boolean isAnimationLooping(State state) {
+        return LOOPING[state.ordinal()];
     }
 
     public String getName() {
@@ -103,6 +190,22 @@ public class Fighter {
         return position;
     }
 
+    @Override
+    public float getPositionX() {
+        return position.x;
+    }
+
+    @Override
+    public float getPositionY() {
+        return position.y;
+    }
+
+    @Override
+    public State getState() {
+        return state;
+    }
+
+    @Override
     public float getLife() {
         return life;
     }
@@ -111,45 +214,31 @@ public class Fighter {
         state = renderState = State.IDLE;
         stateTime = renderStateTime = 0f;
         position.set(positionX, positionY);
+        previousPosition.set(position);
         movementDirection.set(0, 0);
         life = MAX_LIFE;
         madeContact = false;
     }
 
-    public void render(SpriteBatch batch) {
-        // get the current animation frame
-        TextureRegion currentFrame;
-        switch (renderState) {
-            case BLOCK:
-                currentFrame = blockAnimation.getKeyFrame(renderStateTime, true);
-                break;
-            case HURT:
-                currentFrame = hurtAnimation.getKeyFrame(renderStateTime, false);
-                break;
-            case IDLE:
-                currentFrame = idleAnimation.getKeyFrame(renderStateTime, true);
-                break;
-            case KICK:
-                currentFrame = kickAnimation.getKeyFrame(renderStateTime, false);
-                break;
-            case LOSE:
-                currentFrame = loseAnimation.getKeyFrame(renderStateTime, false);
-                break;
-            case PUNCH:
-                currentFrame = punchAnimation.getKeyFrame(renderStateTime, false);
-                break;
-            case WALK:
-                currentFrame = walkAnimation.getKeyFrame(renderStateTime, true);
-                break;
-            default:
-                currentFrame = winAnimation.getKeyFrame(renderStateTime, true);
+    @Override
+    public void render(Batch batch, float alpha) {
+        // look up the current animation frame, looping or holding the last frame once it's played through
+        int stateIndex = renderState.ordinal();
+        int frameIndex = (int) (renderStateTime * INVERSE_FRAME_DURATIONS[stateIndex]);
+        if (LOOPING[stateIndex]) {
+            frameIndex %= FRAME_COUNT;
+        } else if (frameIndex > FRAME_COUNT - 1) {
+            frameIndex = FRAME_COUNT - 1;
         }
+        TextureRegion currentFrame = frames[stateIndex][frameIndex];
 
-        // draw the current animation frame
+        // draw the current animation frame between the previous and current position, based on how far
+        // the frame is between simulation ticks
         batch.setColor(color);
         batch.draw(
                 currentFrame,
-                position.x, position.y,
+                previousPosition.x + (position.x - previousPosition.x) * alpha,
+                previousPosition.y + (position.y - previousPosition.y) * alpha,
                 currentFrame.getRegionWidth() * 0.5f * GlobalVariables.WORLD_SCALE, 0,
                 currentFrame.getRegionWidth() * GlobalVariables.WORLD_SCALE,
                 currentFrame.getRegionHeight() * GlobalVariables.WORLD_SCALE,
@@ -159,6 +248,9 @@ public class Fighter {
     }
 
     public void update(float deltaTime) {
+        // remember where the fighter was at the end of the last update, for interpolated rendering
+        previousPosition.set(position);
+
         // increment the state time by delta time
         stateTime += deltaTime;
 
@@ -173,9 +265,7 @@ public class Fighter {
             // if the fighter is walking, move in the direction of the movement direction
             position.x += movementDirection.x * MOVEMENT_SPEED * deltaTime;
             position.y += movementDirection.y * MOVEMENT_SPEED * deltaTime;
-        } else if ((state == State.PUNCH && punchAnimation.isAnimationFinished(stateTime)) ||
-                (state == State.KICK && kickAnimation.isAnimationFinished(stateTime)) ||
-                (state == State.HURT && hurtAnimation.isAnimationFinished(stateTime))) {
+        } else if ((state == State.PUNCH || state == State.KICK || state == State.HURT) && isAnimationFinished()) {
             // if animation has finished and movement direction is set, start walking otherwise, go back to idle
             if (movementDirection.x != 0 || movementDirection.y != 0) {
                 changeState(State.WALK);
@@ -185,6 +275,11 @@ public class Fighter {
         }
     }
 
+    private boolean isAnimationFinished() {
+        // a non-looping animation has finished once the state time has passed its last frame
+        return stateTime >= DURATIONS[state.ordinal()];
+    }
+
     public void faceLeft() {
         facing = -1;
     }
@@ -301,18 +396,12 @@ public class Fighter {
 
     public boolean isAttackActive() {
         // the attack is active if the fighter has not made contact and attack animation not started
-        // or almost finished
-        if (hasMadeContact()) {
-            return false;
-        } else if (state == State.PUNCH) {
-            return stateTime > punchAnimation.getFrameDuration() * 0.33f &&
-                    stateTime < punchAnimation.getAnimationDuration() * 0.66f;
-        } else if (state == State.KICK) {
-            return stateTime > kickAnimation.getFrameDuration() * 0.33f &&
-                    stateTime < kickAnimation.getAnimationDuration() * 0.66f;
-        } else {
+        // or almost finished (never for states that aren't attacks)
+        if (hasMadeContact() || state == null) {
             return false;
         }
+        int stateIndex = state.ordinal();
+        return stateTime > ACTIVE_HIT_STARTS[stateIndex] && stateTime < ACTIVE_HIT_ENDS[stateIndex];
     }
 
     public void getHit(float damage) {
@@ -342,70 +431,48 @@ public class Fighter {
         changeState(State.WIN);
     }
 
-    private void initializeBlockAnimation(AssetManager assetManager) {
-        Texture spriteSheet = assetManager.get(Assets.BLOCK_SPRITE_SHEET);
-        TextureRegion[] frames = getAnimationFrames(spriteSheet);
-        blockAnimation = new Animation<>(0.05f, frames);
-    }
-
-    private void initializeHurtAnimation(AssetManager assetManager) {
-        Texture spriteSheet = assetManager.get(Assets.HURT_SPRITE_SHEET);
-        TextureRegion[] frames = getAnimationFrames(spriteSheet);
-        hurtAnimation = new Animation<>(0.03f, frames);
-    }
-
-    private void initializeIdleAnimation(AssetManager assetManager) {
-        Texture spriteSheet = assetManager.get(Assets.IDLE_SPRITE_SHEET);
-        TextureRegion[] frames = getAnimationFrames(spriteSheet);
-        idleAnimation = new Animation<>(0.1f, frames);
-    }
-
-    private void initializeKickAnimation(AssetManager assetManager) {
-        Texture spriteSheet = assetManager.get(Assets.KICK_SPRITE_SHEET);
-        TextureRegion[] frames = getAnimationFrames(spriteSheet);
-        kickAnimation = new Animation<>(0.05f, frames);
-    }
-
-    private void initializeLoseAnimation(AssetManager assetManager) {
-        Texture spriteSheet = assetManager.get(Assets.LOSE_SPRITE_SHEET);
-        TextureRegion[] frames = getAnimationFrames(spriteSheet);
-        loseAnimation = new Animation<>(0.05f, frames);
-    }
-
-    private void initializePunchAnimation(AssetManager assetManager) {
-        Texture spriteSheet = assetManager.get(Assets.PUNCH_SPRITE_SHEET);
-        TextureRegion[] frames = getAnimationFrames(spriteSheet);
-        punchAnimation = new Animation<>(0.05f, frames);
-    }
-
-    private void initializeWalkAnimation(AssetManager assetManager) {
-        Texture spriteSheet = assetManager.get(Assets.WALK_SPRITE_SHEET);
-        TextureRegion[] frames = getAnimationFrames(spriteSheet);
-        walkAnimation = new Animation<>(0.08f, frames);
-    }
-
-    private void initializeWinAnimation(AssetManager assetManager) {
-        Texture spriteSheet = assetManager.get(Assets.WIN_SPRITE_SHEET);
-        TextureRegion[] frames = getAnimationFrames(spriteSheet);
-        winAnimation = new Animation<>(0.05f, frames);
-    }
-
-    private TextureRegion[] getAnimationFrames(Texture spriteSheet) {
-        TextureRegion[][] tmp = TextureRegion.split(
-                spriteSheet,
-                spriteSheet.getWidth() / FRAME_COLS,
-                spriteSheet.getHeight() / FRAME_ROWS
-        );
-
-        TextureRegion[] frames = new TextureRegion[FRAME_ROWS * FRAME_COLS];
-        int index = 0;
-
-        for (int i = 0; i < FRAME_ROWS; i++) {
-            for (int j = 0; j < FRAME_COLS; j++) {
-                frames[index++] = tmp[i][j];
-            }
-        }
-
-        return frames;
+    public void saveState(MatchSnapshot snapshot) {
+        // write everything that changes during a match into the snapshot
+        snapshot.writeInt(state == null ? -1 : state.ordinal());
+        snapshot.writeFloat(stateTime);
+        snapshot.writeInt(renderState == null ? -1 : renderState.ordinal());
+        snapshot.writeFloat(renderStateTime);
+        snapshot.writeFloat(position.x);
+        snapshot.writeFloat(position.y);
+        snapshot.writeFloat(previousPosition.x);
+        snapshot.writeFloat(previousPosition.y);
+        snapshot.writeFloat(movementDirection.x);
+        snapshot.writeFloat(movementDirection.y);
+        snapshot.writeFloat(life);
+        snapshot.writeInt(facing);
+        snapshot.writeBoolean(madeContact);
+    }
+
+    public int checksum(int hash) {
+        // mix the state that decides the outcome of the match into the hash
+        hash = StateChecksum.mix(hash, state == null ? -1 : state.ordinal());
+        hash = StateChecksum.mix(hash, stateTime);
+        hash = StateChecksum.mix(hash, position.x);
+        hash = StateChecksum.mix(hash, position.y);
+        return StateChecksum.mix(hash, life);
+    }
+
+    public void restoreState(MatchSnapshot snapshot) {
+        // read everything back in the same order it was written
+        int stateIndex = snapshot.readInt();
+        state = stateIndex < 0 ? null : STATES[stateIndex];
+        stateTime = snapshot.readFloat();
+        int renderStateIndex = snapshot.readInt();
+        renderState = renderStateIndex < 0 ? null : STATES[renderStateIndex];
+        renderStateTime = snapshot.readFloat();
+        position.x = snapshot.readFloat();
+        position.y = snapshot.readFloat();
+        previousPosition.x = snapshot.readFloat();
+        previousPosition.y = snapshot.readFloat();
+        movementDirection.x = snapshot.readFloat();
+        movementDirection.y = snapshot.readFloat();
+        life = snapshot.readFloat();
+        facing = snapshot.readInt();
+        madeContact = snapshot.readBoolean();
     }
 }
@@ -0,0 +1,308 @@
+package com.xmdev.sfs.rendering;
+
+import com.badlogic.gdx.graphics.Color;
+import com.badlogic.gdx.graphics.GL20;
+import com.badlogic.gdx.graphics.Texture;
+import com.badlogic.gdx.graphics.g2d.Batch;
+import com.badlogic.gdx.graphics.g2d.TextureRegion;
+import com.badlogic.gdx.graphics.glutils.ShaderProgram;
+import com.badlogic.gdx.math.Affine2;
+import com.badlogic.gdx.math.Matrix4;
+
+public class CountingBatch implements Batch, RenderCounters {
+    // a batch that draws nothing and needs no GL context, but flushes exactly when a SpriteBatch of the same size
+    // would and counts what it would have sent to the GPU, so rendering can be measured under the headless backend
+    private static final int DEFAULT_SIZE = 1000; // sprites, the same as SpriteBatch
+    private static final int VERTEX_SIZE = 5; // floats per vertex (position, color and texture coordinates)
+    private static final int SPRITE_SIZE = 4 * VERTEX_SIZE;
+    private static final int INDICES_PER_SPRITE = 6;
+
+    private final int size;
+    private int pendingFloats;
+    private Texture lastTexture;
+    private boolean drawing;
+
+    private final Color color = new Color(1, 1, 1, 1);
+    private float colorPacked = Color.WHITE_FLOAT_BITS;
+    private boolean blendingDisabled;
+    private int blendSrcFunc = GL20.GL_SRC_ALPHA;
+    private int blendDstFunc = GL20.GL_ONE_MINUS_SRC_ALPHA;
+    private int blendSrcFuncAlpha = GL20.GL_SRC_ALPHA;
+    private int blendDstFuncAlpha = GL20.GL_ONE_MINUS_SRC_ALPHA;
+    private final Matrix4 projectionMatrix = new Matrix4();
+    private final Matrix4 transformMatrix = new Matrix4();
+    private ShaderProgram shader;
+
+    // running totals
+    private int renderCalls;
+    private int textureSwitches;
+    private int shaderSwitches;
+    private int vertices;
+
+    public CountingBatch() {
+        this(DEFAULT_SIZE);
+    }
+
+    public CountingBatch(int size) {
+        this.size = size;
+    }
+
+    @Override
+    public int getRenderCalls() {
+        return renderCalls;
+    }
+
+    @Override
+    public int getTextureSwitches() {
+        return textureSwitches;
+    }
+
+    @Override
+    public int getShaderSwitches() {
+        return shaderSwitches;
+    }
+
+    @Override
+    public int getVertices() {
+        return vertices;
+    }
+
+    @Override
+    public void begin() {
+        if (drawing) throw new IllegalStateException("CountingBatch.end must be called before begin.");
+        // a SpriteBatch binds its shader on every begin
+        shaderSwitches++;
+        drawing = true;
+    }
+
+    @Override
+    public void end() {
+        if (!drawing) throw new IllegalStateException("CountingBatch.begin must be called before end.");
+        flush();
+        lastTexture = null;
+        drawing = false;
+    }
+
+    @Override
+    public void flush() {
+        if (pendingFloats == 0) return;
+        renderCalls++;
+        vertices += pendingFloats / SPRITE_SIZE * INDICES_PER_SPRITE;
+        pendingFloats = 0;
+    }
+
+    private void add(Texture texture, int floats) {
+        // flush on a texture switch, or when the batch is full, the same as a SpriteBatch
+        if (!drawing) throw new IllegalStateException("CountingBatch.begin must be called before draw.");
+        if (texture != lastTexture) {
+            flush();
+            lastTexture = texture;
+            textureSwitches++;
+        }
+        while (floats > 0) {
+            int room = size * SPRITE_SIZE - pendingFloats;
+            if (room == 0) {
+                flush();
+                continue;
+            }
+            int copied = Math.min(room, floats);
+            pendingFloats += copied;
+            floats -= copied;
+        }
+    }
+
+    @Override
+    public void draw(Texture texture, float x, float y, float originX, float originY, float width, float height,
+                     float scaleX, float scaleY, float rotation, int srcX, int srcY, int srcWidth, int srcHeight,
+                     boolean flipX, boolean flipY) {
+        add(texture, SPRITE_SIZE);
+    }
+
+    @Override
+    public void draw(Texture texture, float x, float y, float width, float height, int srcX, int srcY,
+                     int srcWidth, int srcHeight, boolean flipX, boolean flipY) {
+        add(texture, SPRITE_SIZE);
+    }
+
+    @Override
+    public void draw(Texture texture, float x, float y, int srcX, int srcY, int srcWidth, int srcHeight) {
+        add(texture, SPRITE_SIZE);
+    }
+
+    @Override
+    public void draw(Texture texture, float x, float y, float width, float height, float u, float v, float u2,
+                     float v2) {
+        add(texture, SPRITE_SIZE);
+    }
+
+    @Override
+    public void draw(Texture texture, float x, float y) {
+        add(texture, SPRITE_SIZE);
+    }
+
+    @Override
+    public void draw(Texture texture, float x, float y, float width, float height) {
+        add(texture, SPRITE_SIZE);
+    }
+
+    @Override
+    public void draw(Texture texture, float[] spriteVertices, int offset, int count) {
+        add(texture, count);
+    }
+
+    @Override
+    public void draw(TextureRegion region, float x, float y) {
+        add(region.getTexture(), SPRITE_SIZE);
+    }
+
+    @Override
+    public void draw(TextureRegion region, float x, float y, float width, float height) {
+        add(region.getTexture(), SPRITE_SIZE);
+    }
+
+    @Override
+    public void draw(TextureRegion region, float x, float y, float originX, float originY, float width,
+                     float height, float scaleX, float scaleY, float rotation) {
+        add(region.getTexture(), SPRITE_SIZE);
+    }
+
+    @Override
+    public void draw(TextureRegion region, float x, float y, float originX, float originY, float width,
+                     float height, float scaleX, float scaleY, float rotation, boolean clockwise) {
+        add(region.getTexture(), SPRITE_SIZE);
+    }
+
+    @Override
+    public void draw(TextureRegion region, float width, float height, Affine2 transform) {
+        add(region.getTexture(), SPRITE_SIZE);
+    }
+
+    @Override
+    public void setColor(Color tint) {
+        color.set(tint);
+        colorPacked = tint.toFloatBits();
+    }
+
+    @Override
+    public void setColor(float r, float g, float b, float a) {
+        color.set(r, g, b, a);
+        colorPacked = color.toFloatBits();
+    }
+
+    @Override
+    public Color getColor() {
+        return color;
+    }
+
+    @Override
+    public void setPackedColor(float packedColor) {
+        Color.abgr8888ToColor(color, packedColor);
+        colorPacked = packedColor;
+    }
+
+    @Override
+    public float getPackedColor() {
+        return colorPacked;
+    }
+
+    @Override
+    public void disableBlending() {
+        if (blendingDisabled) return;
+        flush();
+        blendingDisabled = true;
+    }
+
+    @Override
+    public void enableBlending() {
+        if (!blendingDisabled) return;
+        flush();
+        blendingDisabled = false;
+    }
+
+    @Override
+    public void setBlendFunction(int srcFunc, int dstFunc) {
+        setBlendFunctionSeparate(srcFunc, dstFunc, srcFunc, dstFunc);
+    }
+
+    @Override
+    public void setBlendFunctionSeparate(int srcFuncColor, int dstFuncColor, int srcFuncAlpha, int dstFuncAlpha) {
+        if (blendSrcFunc == srcFuncColor && blendDstFunc == dstFuncColor
+                && blendSrcFuncAlpha == srcFuncAlpha && blendDstFuncAlpha == dstFuncAlpha) return;
+        flush();
+        blendSrcFunc = srcFuncColor;
+        blendDstFunc = dstFuncColor;
+        blendSrcFuncAlpha = srcFuncAlpha;
+        blendDstFuncAlpha = dstFuncAlpha;
+    }
+
+    @Override
+    public int getBlendSrcFunc() {
+        return blendSrcFunc;
+    }
+
+    @Override
+    public int getBlendDstFunc() {
+        return blendDstFunc;
+    }
+
+    @Override
+    public int getBlendSrcFuncAlpha() {
+        return blendSrcFuncAlpha;
+    }
+
+    @Override
+    public int getBlendDstFuncAlpha() {
+        return blendDstFuncAlpha;
+    }
+
+    @Override
+    public Matrix4 getProjectionMatrix() {
+        return projectionMatrix;
+    }
+
+    @Override
+    public Matrix4 getTransformMatrix() {
+        return transformMatrix;
+    }
+
+    @Override
+    public void setProjectionMatrix(Matrix4 projection) {
+        if (drawing) flush();
+        projectionMatrix.set(projection);
+    }
+
+    @Override
+    public void setTransformMatrix(Matrix4 transform) {
+        if (drawing) flush();
+        transformMatrix.set(transform);
+    }
+
+    @Override
+    public void setShader(ShaderProgram shader) {
+        if (shader == this.shader) return;
+        if (drawing) {
+            flush();
+            shaderSwitches++;
+        }
+        this.shader = shader;
+    }
+
+    @Override
+    public ShaderProgram getShader() {
+        return shader;
+    }
+
+    @Override
+    public boolean isBlendingEnabled() {
+        return !blendingDisabled;
+    }
+
+    @Override
+    public boolean isDrawing() {
+        return drawing;
+    }
+
+    @Override
+    public void dispose() {
+    }
+}
@@ -0,0 +1,155 @@
+package com.xmdev.sfs.rendering;
+
+public class EffectsQuality {
+    // the quality levels, from every effect in full to the fewest, shortest-lived effects
+    public static final int HIGH = 0;
+    public static final int MEDIUM = 1;
+    public static final int LOW = 2;
+    public static final int LEVEL_COUNT = 3;
+    public static final String[] LEVEL_NAMES = {"HIGH", "MEDIUM", "LOW"};
+
+    // what each level allows: how many blood pools can be showing, how long they take to fade out, and how many
+    // splatter animation frames are stepped each frame duration (skipping the ones in between)
+    private static final int[] MAX_BLOOD_POOLS = {100, 40, 15};
+    private static final float[] BLOOD_POOL_FADE_TIMES = {60f, 20f, 8f};
+    private static final int[] SPLATTER_FRAME_STEPS = {1, 2, 3};
+
+    // the frame rate to keep to when the one the game runs at isn't known, with frames budgeted a share of a second
+    // each and a second of frames averaged over
+    public static final int DEFAULT_FRAME_RATE = 60;
+
+    // effects are cut when the average frame takes this much longer than the budget, and only brought back when
+    // frames have been within this much of the budget for the restore delay, so a level that's only just too slow
+    // isn't gone back to straight away
+    private static final float DEGRADE_RATIO = 1.2f;
+    private static final float RESTORE_RATIO = 1.05f;
+
+    // the restore delay doubles every time effects have to be cut again soon after being brought back, up to the
+    // most it's allowed to be (all in seconds)
+    private static final float MIN_RESTORE_DELAY = 3f;
+    private static final float MAX_RESTORE_DELAY = 60f;
+    private static final float RECENT_RESTORE_TIME = 10f;
+
+    // a single frame counts for at most this many budgets, so a hitch (e.g. the window being dragged) can't drag
+    // the average up on its own
+    private static final float MAX_FRAME_BUDGETS = 4f;
+
+    private final float frameBudget;
+
+    // the last frames' times, in a ring, and their total
+    private final float[] frameTimes;
+    private int nextFrame;
+    private int frameCount;
+    private double totalFrameTime;
+
+    private int level = HIGH;
+    private float headroomTime;
+    private float restoreDelay = MIN_RESTORE_DELAY;
+    private float timeSinceRestore = RECENT_RESTORE_TIME;
+
+    public EffectsQuality() {
+        this(DEFAULT_FRAME_RATE);
+    }
+
+    public EffectsQuality(int frameRate) {
+        // the frame rate the game runs at, e.g. the display's refresh rate; 0 or less if it isn't known
+        this(1f / orDefault(frameRate), orDefault(frameRate));
+    }
+
+    public EffectsQuality(float frameBudget, int windowSize) {
+        this.frameBudget = frameBudget;
+        frameTimes = new float[windowSize];
+    }
+
+    private static int orDefault(int frameRate) {
+        return frameRate > 0 ? frameRate : DEFAULT_FRAME_RATE;
+    }
+
+    public boolean update(float frameTime) {
+        // add a frame's time (from the start of one frame to the next) and return whether the level has changed
+        frameTime = Math.min(frameTime, frameBudget * MAX_FRAME_BUDGETS);
+        timeSinceRestore += frameTime;
+        if (frameCount == frameTimes.length) {
+            totalFrameTime -= frameTimes[nextFrame];
+        } else {
+            frameCount++;
+        }
+        frameTimes[nextFrame] = frameTime;
+        totalFrameTime += frameTime;
+        nextFrame = (nextFrame + 1) % frameTimes.length;
+
+        // only decide from a full window of frames at the current level
+        if (frameCount < frameTimes.length) {
+            return false;
+        }
+
+        float averageFrameTime = (float) (totalFrameTime / frameCount);
+        if (averageFrameTime > frameBudget * DEGRADE_RATIO) {
+            headroomTime = 0f;
+            if (level < LOW) {
+                // cutting effects again soon after they were brought back means they were brought back too soon
+                if (timeSinceRestore < RECENT_RESTORE_TIME) {
+                    restoreDelay = Math.min(restoreDelay * 2f, MAX_RESTORE_DELAY);
+                }
+                setLevel(level + 1);
+                return true;
+            }
+        } else if (averageFrameTime < frameBudget * RESTORE_RATIO) {
+            headroomTime += frameTime;
+            if (level > HIGH && headroomTime >= restoreDelay) {
+                timeSinceRestore = 0f;
+                setLevel(level - 1);
+                return true;
+            }
+        } else {
+            headroomTime = 0f;
+        }
+        return false;
+    }
+
+    public void setLevel(int level) {
+        // e.g. to start at a level, or to hold one for a test; the frames so far were at the old level, so they're
+        // forgotten
+        this.level = Math.min(Math.max(level, HIGH), LOW);
+        nextFrame = frameCount = 0;
+        totalFrameTime = 0.0;
+        headroomTime = 0f;
+    }
+
+    public void reset() {
+        // back to full effects, as if no frames had been seen
+        setLevel(HIGH);
+        restoreDelay = MIN_RESTORE_DELAY;
+        timeSinceRestore = RECENT_RESTORE_TIME;
+    }
+
+    public int getLevel() {
+        return level;
+    }
+
+    public String getLevelName() {
+        return LEVEL_NAMES[level];
+    }
+
+    public float getFrameBudget() {
+        return frameBudget;
+    }
+
+    public float getAverageFrameTime() {
+        return frameCount > 0 ? (float) (totalFrameTime / frameCount) : 0f;
+    }
+
+    public static int getMaxBloodPools(int level) {
+        // what a level allows is looked up by level, so it can be applied on a thread other than the one updating
+        // the level
+        return MAX_BLOOD_POOLS[level];
+    }
+
+    public static float getBloodPoolFadeTime(int level) {
+        return BLOOD_POOL_FADE_TIMES[level];
+    }
+
+    public static int getSplatterFrameStep(int level) {
+        return SPLATTER_FRAME_STEPS[level];
+    }
+}
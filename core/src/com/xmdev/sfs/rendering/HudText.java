@@ -0,0 +1,68 @@
+package com.xmdev.sfs.rendering;
+
+import com.badlogic.gdx.graphics.Color;
+import com.badlogic.gdx.graphics.g2d.Batch;
+import com.badlogic.gdx.graphics.g2d.BitmapFont;
+import com.badlogic.gdx.graphics.g2d.GlyphLayout;
+
+public class HudText {
+    // a line of text that's rebuilt in place every frame but only laid out again when what it says or its color
+    // changes, so drawing it allocates nothing once its buffers have grown to fit
+    private final BitmapFont font;
+    private final int align;
+    private final GlyphLayout layout = new GlyphLayout();
+
+    // the text being built this frame, and the text and color the layout was made from
+    private final StringBuilder text = new StringBuilder(32);
+    private final StringBuilder laidOutText = new StringBuilder(32);
+    private final Color color = new Color();
+    private final Color laidOutColor = new Color();
+    private boolean laidOut;
+
+    public HudText(BitmapFont font, int align) {
+        // the text is aligned to the x position it's drawn at (Align.left, Align.center or Align.right)
+        this.font = font;
+        this.align = align;
+        color.set(font.getColor());
+    }
+
+    public StringBuilder clear() {
+        // clear the text and return it for the caller to append this frame's values to
+        text.setLength(0);
+        return text;
+    }
+
+    public HudText set(CharSequence value) {
+        clear().append(value);
+        return this;
+    }
+
+    public HudText setColor(Color color) {
+        this.color.set(color);
+        return this;
+    }
+
+    public void draw(Batch batch, float x, float y) {
+        layOut();
+        font.draw(batch, layout, x, y);
+    }
+
+    private void layOut() {
+        if (laidOut && color.equals(laidOutColor) && sameText()) {
+            return;
+        }
+        layout.setText(font, text, 0, text.length(), color, 0f, align, false, null);
+        laidOutText.setLength(0);
+        laidOutText.append(text);
+        laidOutColor.set(color);
+        laidOut = true;
+    }
+
+    private boolean sameText() {
+        if (text.length() != laidOutText.length()) return false;
+        for (int i = 0; i < text.length(); i++) {
+            if (text.charAt(i) != laidOutText.charAt(i)) return false;
+        }
+        return true;
+    }
+}
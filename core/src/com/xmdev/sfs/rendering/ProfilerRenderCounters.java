@@ -0,0 +1,40 @@
+package com.xmdev.sfs.rendering;
+
+import com.badlogic.gdx.Graphics;
+import com.badlogic.gdx.graphics.profiling.GLProfiler;
+
+public class ProfilerRenderCounters implements RenderCounters {
+    // counts the GL calls everything makes, including the shape renderer and fonts, in a real GL context; the
+    // profiler wraps every GL call, so it's only enabled while the counters are in use
+    private final GLProfiler profiler;
+
+    public ProfilerRenderCounters(Graphics graphics) {
+        profiler = new GLProfiler(graphics);
+        profiler.enable();
+    }
+
+    @Override
+    public int getRenderCalls() {
+        return profiler.getDrawCalls();
+    }
+
+    @Override
+    public int getTextureSwitches() {
+        // every texture bind, which a batch only does when its texture changes or it flushes
+        return profiler.getTextureBindings();
+    }
+
+    @Override
+    public int getShaderSwitches() {
+        return profiler.getShaderSwitches();
+    }
+
+    @Override
+    public int getVertices() {
+        return (int) profiler.getVertexCount().total;
+    }
+
+    public void dispose() {
+        profiler.disable();
+    }
+}
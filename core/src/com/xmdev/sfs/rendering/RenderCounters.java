@@ -0,0 +1,13 @@
+package com.xmdev.sfs.rendering;
+
+public interface RenderCounters {
+    // running totals, which the render stats take the difference of every frame
+    int getRenderCalls();
+
+    int getTextureSwitches();
+
+    int getShaderSwitches();
+
+    // counted the way GLProfiler counts them, as the indices drawn (6 for every sprite)
+    int getVertices();
+}
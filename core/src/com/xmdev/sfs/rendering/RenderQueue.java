@@ -0,0 +1,149 @@
+package com.xmdev.sfs.rendering;
+
+import com.badlogic.gdx.graphics.g2d.Batch;
+
+public class RenderQueue {
+    // what's submitted this frame, drawn back to front: the higher up the ring something stands, the further away
+    // it is, so it's drawn first; things at the same depth are drawn in the order they were submitted, which lets
+    // an effect be submitted right after what it belongs to
+    private Renderable[] items;
+    private int[] keys;
+    private int[] order;
+    private int count;
+
+    // the radix sort's buffers, and the count it's worth using instead of an insertion sort from
+    private int[] sortedKeys;
+    private int[] sortedOrder;
+    private final int[] digitCounts = new int[RADIX];
+    private static final int RADIX_BITS = 8;
+    private static final int RADIX = 1 << RADIX_BITS;
+    private static final int RADIX_SORT_MIN_COUNT = 64;
+
+    private static final int DEFAULT_CAPACITY = 16;
+
+    public RenderQueue() {
+        this(DEFAULT_CAPACITY);
+    }
+
+    public RenderQueue(int capacity) {
+        items = new Renderable[capacity];
+        keys = new int[capacity];
+        order = new int[capacity];
+        sortedKeys = new int[capacity];
+        sortedOrder = new int[capacity];
+    }
+
+    public void clear() {
+        // let go of last frame's items
+        for (int i = 0; i < count; i++) {
+            items[i] = null;
+        }
+        count = 0;
+    }
+
+    public void submit(Renderable item, float depth) {
+        if (count == items.length) {
+            grow();
+        }
+        items[count] = item;
+        keys[count] = toKey(depth);
+        count++;
+    }
+
+    private static int toKey(float depth) {
+        // an int that sorts the same way as the negated depth, so the furthest away comes first: flipping every
+        // bit but the sign of a negative float makes its bits sort like the float does
+        int bits = Float.floatToIntBits(-depth + 0f);
+        return bits ^ ((bits >> 31) & Integer.MAX_VALUE);
+    }
+
+    private void grow() {
+        // only ever happens while the queue is warming up to the most that's submitted in a frame
+        int capacity = items.length * 2;
+        Renderable[] newItems = new Renderable[capacity];
+        System.arraycopy(items, 0, newItems, 0, count);
+        items = newItems;
+        int[] newKeys = new int[capacity];
+        System.arraycopy(keys, 0, newKeys, 0, count);
+        keys = newKeys;
+        order = new int[capacity];
+        sortedKeys = new int[capacity];
+        sortedOrder = new int[capacity];
+    }
+
+    public void render(Batch batch, float alpha) {
+        // sort the items back to front and draw them, then clear the queue for the next frame
+        sort();
+        for (int i = 0; i < count; i++) {
+            items[order[i]].render(batch, alpha);
+        }
+        clear();
+    }
+
+    private void sort() {
+        // both sorts are stable and put the sorted item indices in order
+        for (int i = 0; i < count; i++) {
+            order[i] = i;
+        }
+        if (count < RADIX_SORT_MIN_COUNT) {
+            insertionSort();
+        } else {
+            radixSort();
+        }
+    }
+
+    private void insertionSort() {
+        // sorts the keys along with the order, which is fine as the keys are only used for sorting
+        for (int i = 1; i < count; i++) {
+            int key = keys[i];
+            int index = order[i];
+            int j = i - 1;
+            while (j >= 0 && keys[j] > key) {
+                keys[j + 1] = keys[j];
+                order[j + 1] = order[j];
+                j--;
+            }
+            keys[j + 1] = key;
+            order[j + 1] = index;
+        }
+    }
+
+    private void radixSort() {
+        // sort by each byte of the keys in turn, lowest first, treating the keys as unsigned by flipping the sign
+        // bit; there's an even number of passes, so the keys and order end up back in their own arrays
+        for (int shift = 0; shift < Integer.SIZE; shift += RADIX_BITS) {
+            for (int digit = 0; digit < RADIX; digit++) {
+                digitCounts[digit] = 0;
+            }
+            for (int i = 0; i < count; i++) {
+                digitCounts[digit(keys[i], shift)]++;
+            }
+            int start = 0;
+            for (int digit = 0; digit < RADIX; digit++) {
+                int digitCount = digitCounts[digit];
+                digitCounts[digit] = start;
+                start += digitCount;
+            }
+            for (int i = 0; i < count; i++) {
+                int position = digitCounts[digit(keys[i], shift)]++;
+                sortedKeys[position] = keys[i];
+                sortedOrder[position] = order[i];
+            }
+
+            int[] swap = keys;
+            keys = sortedKeys;
+            sortedKeys = swap;
+            swap = order;
+            order = sortedOrder;
+            sortedOrder = swap;
+        }
+    }
+
+    private static int digit(int key, int shift) {
+        return ((key ^ Integer.MIN_VALUE) >>> shift) & (RADIX - 1);
+    }
+
+    public int size() {
+        return count;
+    }
+}
@@ -0,0 +1,184 @@
+package com.xmdev.sfs.rendering;
+
+import com.badlogic.gdx.utils.TimeUtils;
+
+import java.util.Arrays;
+import java.util.Locale;
+
+public class RenderStats {
+    // the phases a game screen frame is drawn in
+    public static final int BACKGROUND = 0;
+    public static final int BLOOD_POOLS = 1;
+    public static final int FIGHTERS = 2;
+    public static final int ROPES = 3;
+    public static final int HUD = 4;
+    public static final int OVERLAYS = 5;
+    public static final int PHASE_COUNT = 6;
+    public static final String[] PHASE_NAMES = {"background", "blood pools", "fighters", "ropes", "HUD", "overlays"};
+
+    // what's measured every frame: the counts, the whole frame's time and each phase's time (nanoseconds);
+    // times are how long the CPU took to submit the phase, and a batch flush is timed in the phase that caused
+    // it, even though it draws what earlier phases queued up
+    public static final int RENDER_CALLS = 0;
+    public static final int TEXTURE_SWITCHES = 1;
+    public static final int SHADER_SWITCHES = 2;
+    public static final int VERTICES = 3;
+    public static final int FRAME_TIME = 4;
+    public static final int PHASE_TIME = 5; // the first phase's time, the others follow in phase order
+    public static final int METRIC_COUNT = PHASE_TIME + PHASE_COUNT;
+    private static final String[] COUNT_NAMES = {"render calls", "texture switches", "shader switches", "vertices"};
+
+    // 5 seconds at 60 frames per second
+    public static final int DEFAULT_WINDOW_SIZE = 300;
+
+    // where the counts come from (null to only measure times)
+    private final RenderCounters counters;
+
+    // the last frames' values of every metric, indexed by metric * windowSize + frame, in a ring
+    private final int windowSize;
+    private final long[] samples;
+    private final long[] sorted;
+    private int nextFrame;
+    private int frameCount;
+
+    // the frame being measured
+    private final long[] current = new long[METRIC_COUNT];
+    private int startRenderCalls, startTextureSwitches, startShaderSwitches, startVertices;
+    private long frameStartTime, phaseStartTime;
+    private int phase = -1;
+    private boolean measuring;
+
+    public RenderStats(RenderCounters counters) {
+        this(counters, DEFAULT_WINDOW_SIZE);
+    }
+
+    public RenderStats(RenderCounters counters, int windowSize) {
+        this.counters = counters;
+        this.windowSize = windowSize;
+        samples = new long[METRIC_COUNT * windowSize];
+        sorted = new long[windowSize];
+    }
+
+    public void beginFrame() {
+        Arrays.fill(current, 0L);
+        if (counters != null) {
+            startRenderCalls = counters.getRenderCalls();
+            startTextureSwitches = counters.getTextureSwitches();
+            startShaderSwitches = counters.getShaderSwitches();
+            startVertices = counters.getVertices();
+        }
+        phase = -1;
+        measuring = true;
+        frameStartTime = TimeUtils.nanoTime();
+    }
+
+    public void beginPhase(int phase) {
+        // end the phase before, if there was one, and time this one until the next phase or the end of the frame;
+        // a phase can be begun more than once a frame, and its times are added up
+        if (!measuring) return;
+        long time = TimeUtils.nanoTime();
+        if (this.phase >= 0) {
+            current[PHASE_TIME + this.phase] += time - phaseStartTime;
+        }
+        this.phase = phase;
+        phaseStartTime = time;
+    }
+
+    public void endFrame() {
+        if (!measuring) return;
+        long time = TimeUtils.nanoTime();
+        if (phase >= 0) {
+            current[PHASE_TIME + phase] += time - phaseStartTime;
+        }
+        current[FRAME_TIME] = time - frameStartTime;
+        if (counters != null) {
+            current[RENDER_CALLS] = counters.getRenderCalls() - startRenderCalls;
+            current[TEXTURE_SWITCHES] = counters.getTextureSwitches() - startTextureSwitches;
+            current[SHADER_SWITCHES] = counters.getShaderSwitches() - startShaderSwitches;
+            current[VERTICES] = counters.getVertices() - startVertices;
+        }
+        measuring = false;
+
+        // keep the frame in the window, replacing the oldest one once it's full
+        for (int metric = 0; metric < METRIC_COUNT; metric++) {
+            samples[metric * windowSize + nextFrame] = current[metric];
+        }
+        nextFrame = (nextFrame + 1) % windowSize;
+        frameCount = Math.min(frameCount + 1, windowSize);
+    }
+
+    public void reset() {
+        nextFrame = frameCount = 0;
+        measuring = false;
+    }
+
+    public int getFrameCount() {
+        // how many frames the window holds
+        return frameCount;
+    }
+
+    public long getLast(int metric) {
+        if (frameCount == 0) return 0L;
+        return samples[metric * windowSize + (nextFrame + windowSize - 1) % windowSize];
+    }
+
+    public long getMin(int metric) {
+        if (frameCount == 0) return 0L;
+        long min = Long.MAX_VALUE;
+        for (int i = 0; i < frameCount; i++) {
+            min = Math.min(min, samples[metric * windowSize + i]);
+        }
+        return min;
+    }
+
+    public long getMax(int metric) {
+        long max = 0L;
+        for (int i = 0; i < frameCount; i++) {
+            max = Math.max(max, samples[metric * windowSize + i]);
+        }
+        return max;
+    }
+
+    public double getAverage(int metric) {
+        if (frameCount == 0) return 0.0;
+        long total = 0L;
+        for (int i = 0; i < frameCount; i++) {
+            total += samples[metric * windowSize + i];
+        }
+        return (double) total / frameCount;
+    }
+
+    public long getPercentile(int metric, float percentile) {
+        // the value the given fraction of the frames in the window are at or below (nearest rank)
+        if (frameCount == 0) return 0L;
+        System.arraycopy(samples, metric * windowSize, sorted, 0, frameCount);
+        Arrays.sort(sorted, 0, frameCount);
+        int rank = (int) Math.ceil(percentile * frameCount) - 1;
+        return sorted[Math.min(Math.max(rank, 0), frameCount - 1)];
+    }
+
+    public long getP99(int metric) {
+        return getPercentile(metric, 0.99f);
+    }
+
+    public String getSummary() {
+        // min/avg/p99 of every metric over the window, with times in milliseconds, for logging
+        StringBuilder summary = new StringBuilder(String.format(Locale.ROOT, "%d frames", frameCount));
+        if (counters != null) {
+            for (int metric = RENDER_CALLS; metric <= VERTICES; metric++) {
+                summary.append(String.format(Locale.ROOT, "%n  %-17s %d / %.1f / %d", COUNT_NAMES[metric],
+                        getMin(metric), getAverage(metric), getP99(metric)));
+            }
+        }
+        appendTime(summary, "frame", FRAME_TIME);
+        for (int phase = 0; phase < PHASE_COUNT; phase++) {
+            appendTime(summary, PHASE_NAMES[phase], PHASE_TIME + phase);
+        }
+        return summary.toString();
+    }
+
+    private void appendTime(StringBuilder summary, String name, int metric) {
+        summary.append(String.format(Locale.ROOT, "%n  %-17s %.3f / %.3f / %.3f ms", name,
+                getMin(metric) / 1e6, getAverage(metric) / 1e6, getP99(metric) / 1e6));
+    }
+}
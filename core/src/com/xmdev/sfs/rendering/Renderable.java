@@ -0,0 +1,8 @@
+package com.xmdev.sfs.rendering;
+
+import com.badlogic.gdx.graphics.g2d.Batch;
+
+public interface Renderable {
+    // draw with the batch, alpha being how far the frame is between the last simulation tick and the next one
+    void render(Batch batch, float alpha);
+}
@@ -0,0 +1,62 @@
+package com.xmdev.sfs.rendering;
+
+import com.badlogic.gdx.Gdx;
+import com.badlogic.gdx.graphics.Color;
+import com.badlogic.gdx.graphics.GL20;
+import com.badlogic.gdx.graphics.Texture;
+import com.badlogic.gdx.graphics.g2d.SpriteCache;
+import com.badlogic.gdx.graphics.g2d.TextureRegion;
+import com.badlogic.gdx.math.Matrix4;
+import com.badlogic.gdx.utils.Disposable;
+
+public class StaticLayers implements Disposable {
+    // parts of a screen that never change, put into a sprite cache when they're built and drawn from it every
+    // frame after, so their vertices are only uploaded once; the cache is shared by whichever screen is showing,
+    // which builds its layers again when it's shown and when the window is resized
+    private final SpriteCache cache = new SpriteCache(CAPACITY, false);
+    private static final int CAPACITY = 32;
+
+    public void clear() {
+        // throw away the layers of whichever screen built them last
+        cache.clear();
+    }
+
+    public void beginLayer() {
+        cache.beginCache();
+    }
+
+    public void add(Texture texture, float x, float y, float width, float height) {
+        cache.add(texture, x, y, width, height, 0, 0, texture.getWidth(), texture.getHeight(), false, false);
+    }
+
+    public void add(TextureRegion region, float x, float y, float width, float height) {
+        cache.add(region, x, y, width, height);
+    }
+
+    public void setColor(Color color) {
+        // the color of what's added next
+        cache.setColor(color);
+    }
+
+    public int endLayer() {
+        // the id to draw the layer with
+        cache.setColor(Color.WHITE);
+        return cache.endCache();
+    }
+
+    public void draw(Matrix4 projection, int layer) {
+        // draw a layer on its own, blended the same way the sprite batch blends (which must not be drawing)
+        Gdx.gl.glEnable(GL20.GL_BLEND);
+        Gdx.gl.glBlendFunc(GL20.GL_SRC_ALPHA, GL20.GL_ONE_MINUS_SRC_ALPHA);
+        cache.setProjectionMatrix(projection);
+        cache.begin();
+        cache.draw(layer);
+        cache.end();
+        Gdx.gl.glDisable(GL20.GL_BLEND);
+    }
+
+    @Override
+    public void dispose() {
+        cache.dispose();
+    }
+}
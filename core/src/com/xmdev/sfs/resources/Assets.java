@@ -12,6 +12,7 @@ import com.badlogic.gdx.graphics.g2d.TextureAtlas;
 import com.badlogic.gdx.graphics.g2d.freetype.FreeTypeFontGenerator;
 import com.badlogic.gdx.graphics.g2d.freetype.FreeTypeFontGeneratorLoader;
 import com.badlogic.gdx.graphics.g2d.freetype.FreetypeFontLoader;
+import com.xmdev.sfs.simulation.PolicyTable;
 
 public class Assets {
     // Asset manager
@@ -19,17 +20,10 @@ public class Assets {
 
     // Gameplay assets
     public static final String BACKGROUND_TEXTURE = "textures/Background.png";
-    public static final String FRONT_ROPES_TEXTURE = "textures/FrontRopes.png";
-    public static final String IDLE_SPRITE_SHEET = "sprites/IdleSpriteSheet.png";
-    public static final String WALK_SPRITE_SHEET = "sprites/WalkSpriteSheet.png";
-    public static final String PUNCH_SPRITE_SHEET = "sprites/PunchSpriteSheet.png";
-    public static final String KICK_SPRITE_SHEET = "sprites/KickSpriteSheet.png";
-    public static final String HURT_SPRITE_SHEET = "sprites/HurtSpriteSheet.png";
-    public static final String BLOCK_SPRITE_SHEET = "sprites/BlockSpriteSheet.png";
-    public static final String WIN_SPRITE_SHEET = "sprites/WinSpriteSheet.png";
-    public static final String LOSE_SPRITE_SHEET = "sprites/LoseSpriteSheet.png";
-    public static final String GAMEPLAY_BUTTONS_ATLAS = "textures/GameplayButtons.atlas";
-    public static final String BLOOD_ATLAS = "textures/Blood.atlas";
+    // the fighter animation frames, blood, gameplay buttons and front ropes, packed by desktop:packTextures
+    public static final String GAMEPLAY_ATLAS = "textures/Gameplay.atlas";
+    // the opponent's actions for every state of the fighters, built by the simulator's policy table builder
+    public static final String POLICY_TABLE = PolicyTable.FILE;
 
     // Fonts
     public static final String ROBOTO_REGULAR = "fonts/Roboto-Regular.ttf";
@@ -62,17 +56,10 @@ public class Assets {
         parameter.magFilter = Texture.TextureFilter.Linear;
 
         manager.load(BACKGROUND_TEXTURE, Texture.class, parameter);
-        manager.load(FRONT_ROPES_TEXTURE, Texture.class, parameter);
-        manager.load(IDLE_SPRITE_SHEET, Texture.class, parameter);
-        manager.load(WALK_SPRITE_SHEET, Texture.class, parameter);
-        manager.load(PUNCH_SPRITE_SHEET, Texture.class, parameter);
-        manager.load(KICK_SPRITE_SHEET, Texture.class, parameter);
-        manager.load(HURT_SPRITE_SHEET, Texture.class, parameter);
-        manager.load(BLOCK_SPRITE_SHEET, Texture.class, parameter);
-        manager.load(WIN_SPRITE_SHEET, Texture.class, parameter);
-        manager.load(LOSE_SPRITE_SHEET, Texture.class, parameter);
-        manager.load(GAMEPLAY_BUTTONS_ATLAS, TextureAtlas.class);
-        manager.load(BLOOD_ATLAS, TextureAtlas.class);
+        manager.load(GAMEPLAY_ATLAS, TextureAtlas.class);
+
+        manager.setLoader(PolicyTable.class, new PolicyTableLoader(new InternalFileHandleResolver()));
+        manager.load(POLICY_TABLE, PolicyTable.class);
     }
 
     private void loadFonts() {
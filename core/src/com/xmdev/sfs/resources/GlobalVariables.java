@@ -16,9 +16,4 @@ public class GlobalVariables {
     // colors
     public static final Color GOLD = new Color(0.94f, 0.85f, 0.32f, 1f);
     public static final Color BLUE_BACKGROUND = new Color(0.25f, 0.42f, 0.61f, 1f);
-
-    // game
-    public enum Difficulty {
-        EASY, MEDIUM, HARD
-    }
 }
@@ -0,0 +1,32 @@
+package com.xmdev.sfs.resources;
+
+import com.badlogic.gdx.assets.AssetDescriptor;
+import com.badlogic.gdx.assets.AssetLoaderParameters;
+import com.badlogic.gdx.assets.AssetManager;
+import com.badlogic.gdx.assets.loaders.FileHandleResolver;
+import com.badlogic.gdx.assets.loaders.SynchronousAssetLoader;
+import com.badlogic.gdx.files.FileHandle;
+import com.badlogic.gdx.utils.Array;
+import com.xmdev.sfs.simulation.PolicyTable;
+
+public class PolicyTableLoader extends SynchronousAssetLoader<PolicyTable, PolicyTableLoader.PolicyTableParameter> {
+    // loads the opponent's policy table through the asset manager, along with the rest of the gameplay assets
+
+    public PolicyTableLoader(FileHandleResolver resolver) {
+        super(resolver);
+    }
+
+    @Override
+    public PolicyTable load(AssetManager manager, String fileName, FileHandle file, PolicyTableParameter parameter) {
+        return PolicyTable.load(file);
+    }
+
+    @Override
+    @SuppressWarnings("rawtypes")
+    public Array<AssetDescriptor> getDependencies(String fileName, FileHandle file, PolicyTableParameter parameter) {
+        return null;
+    }
+
+    public static class PolicyTableParameter extends AssetLoaderParameters<PolicyTable> {
+    }
+}
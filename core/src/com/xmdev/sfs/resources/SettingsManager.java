@@ -12,7 +12,7 @@ public class SettingsManager {
     private static final String IS_FULL_SCREEN_ON = "isFullScreenOn";
     private boolean musicSettingOn = true;
     private boolean soundsSettingOn = true;
-    private GlobalVariables.Difficulty difficultySetting = GlobalVariables.Difficulty.EASY;
+    private int difficultySetting = 0;
     private boolean bloodSettingOn = true;
     private boolean fullScreenSettingOn = false;
 
@@ -23,16 +23,7 @@ public class SettingsManager {
         // get all the settings from the preferences
         musicSettingOn = prefs.getBoolean(IS_MUSIC_ON, true);
         soundsSettingOn = prefs.getBoolean(ARE_SOUNDS_ON, true);
-        switch (prefs.getInteger(DIFFICULTY_SETTING)) {
-            case 0:
-                difficultySetting = GlobalVariables.Difficulty.EASY;
-                break;
-            case 1:
-                difficultySetting = GlobalVariables.Difficulty.MEDIUM;
-                break;
-            default:
-                difficultySetting = GlobalVariables.Difficulty.HARD;
-        }
+        difficultySetting = prefs.getInteger(DIFFICULTY_SETTING, 0);
         bloodSettingOn = prefs.getBoolean(IS_BLOOD_ON, true);
         fullScreenSettingOn = prefs.getBoolean(IS_FULL_SCREEN_ON, false);
     }
@@ -61,24 +52,16 @@ public class SettingsManager {
         return soundsSettingOn;
     }
 
-    public void setDifficultySetting(GlobalVariables.Difficulty difficulty) {
+    public void setDifficultySetting(int difficulty) {
         // if the new setting is different update it
         if (difficultySetting != difficulty) {
             difficultySetting = difficulty;
-            int difficultyInt = 0;
-            switch (difficultySetting) {
-                case MEDIUM:
-                    difficultyInt = 1;
-                    break;
-                case HARD:
-                    difficultyInt = 2;
-                    break;
-            }
-            prefs.putInteger(DIFFICULTY_SETTING, difficultyInt).flush();
+            prefs.putInteger(DIFFICULTY_SETTING, difficulty).flush();
         }
     }
 
-    public GlobalVariables.Difficulty getDifficultySetting() {
+    public int getDifficultySetting() {
+        // the index of the difficulty in the difficulty profiles
         return difficultySetting;
     }
 
@@ -5,28 +5,48 @@ import com.badlogic.gdx.Input;
 import com.badlogic.gdx.InputProcessor;
 import com.badlogic.gdx.Screen;
 import com.badlogic.gdx.graphics.Color;
-import com.badlogic.gdx.graphics.GL20;
 import com.badlogic.gdx.graphics.Texture;
 import com.badlogic.gdx.graphics.g2d.BitmapFont;
 import com.badlogic.gdx.graphics.g2d.Sprite;
 import com.badlogic.gdx.graphics.g2d.TextureAtlas;
-import com.badlogic.gdx.graphics.glutils.ShapeRenderer;
-import com.badlogic.gdx.math.MathUtils;
-import com.badlogic.gdx.math.Vector2;
+import com.badlogic.gdx.graphics.g2d.TextureRegion;
+import com.badlogic.gdx.math.RandomXS128;
 import com.badlogic.gdx.math.Vector3;
 import com.badlogic.gdx.utils.Align;
+import com.badlogic.gdx.utils.GdxRuntimeException;
 import com.badlogic.gdx.utils.ScreenUtils;
+import com.badlogic.gdx.utils.TimeUtils;
 import com.badlogic.gdx.utils.viewport.ExtendViewport;
 import com.xmdev.sfs.SFS;
-import com.xmdev.sfs.objects.BloodPool;
-import com.xmdev.sfs.objects.BloodSplatter;
+import com.xmdev.sfs.net.NetplayConfig;
+import com.xmdev.sfs.net.RollbackSession;
+import com.xmdev.sfs.objects.DecalEngine;
 import com.xmdev.sfs.objects.Fighter;
+import com.xmdev.sfs.objects.FighterChoice;
+import com.xmdev.sfs.rendering.EffectsQuality;
+import com.xmdev.sfs.rendering.HudText;
+import com.xmdev.sfs.rendering.RenderQueue;
+import com.xmdev.sfs.rendering.RenderStats;
 import com.xmdev.sfs.resources.Assets;
 import com.xmdev.sfs.resources.GlobalVariables;
-
-import java.util.Locale;
-
-public class GameScreen implements Screen, InputProcessor {
+import com.xmdev.sfs.simulation.AsyncOpponentAi;
+import com.xmdev.sfs.simulation.FixedTimestep;
+import com.xmdev.sfs.simulation.LookaheadOpponentAi;
+import com.xmdev.sfs.simulation.Mailbox;
+import com.xmdev.sfs.simulation.MatchListener;
+import com.xmdev.sfs.simulation.MatchSimulation;
+import com.xmdev.sfs.simulation.MatchSnapshot;
+import com.xmdev.sfs.simulation.PlayerInput;
+import com.xmdev.sfs.simulation.PlayerModel;
+import com.xmdev.sfs.simulation.PolicyTable;
+import com.xmdev.sfs.simulation.PolicyTableOpponentAi;
+import com.xmdev.sfs.simulation.Replay;
+import com.xmdev.sfs.simulation.ReplayPlayer;
+import com.xmdev.sfs.simulation.SimulationThread;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+public class GameScreen implements Screen, InputProcessor, MatchListener {
 
     private final SFS game;
     private final ExtendViewport viewport;
@@ -35,22 +55,62 @@ public class GameScreen implements Screen, InputProcessor {
     private enum GameState {
         RUNNING, PAUSED, GAME_OVER
     }
-    private GameState gameState;
-    private GlobalVariables.Difficulty difficulty = GlobalVariables.Difficulty.EASY;
+    // read on the drawing thread while the match may be running on its own; only the match ends the game while
+    // it's running, everything else changes it with the match stopped
+    private volatile GameState gameState;
+
+    // match
+    private final MatchSimulation match;
+    private final LookaheadOpponentAi opponentAi;
+    private PolicyTableOpponentAi policyOpponentAi;
+    private LookaheadOpponentAi workerOpponentAi;
+    private AsyncOpponentAi asyncOpponentAi;
+    private final FixedTimestep timestep = new FixedTimestep();
+    private int tickRate = FixedTimestep.DEFAULT_TICK_RATE;
+    private int aiTimeBudget = LookaheadOpponentAi.DEFAULT_TIME_BUDGET;
+    private int aiWorkBudget = LookaheadOpponentAi.DEFAULT_WORK_BUDGET;
+
+    // the thread the match runs on, or null to run it on the drawing thread before each frame is drawn
+    private SimulationThread simulationThread;
+
+    // what the match publishes for every frame to be drawn from, through a mailbox of three snapshots: the one
+    // being drawn, the latest complete one, and one being filled in, so the match never waits for drawing
+    private Mailbox<RenderSnapshot> renderSnapshots;
+    private RenderSnapshot renderSnapshot;
+    private final MatchSnapshot renderFighterState = new MatchSnapshot();
+
+    // sounds the match has asked for, played on the drawing thread
+    private final AtomicInteger queuedSounds = new AtomicInteger();
+    private static final int HIT_SOUND = 1;
+    private static final int BLOCK_SOUND = 1 << 1;
+    private static final int CHEER_SOUND = 1 << 2;
+    private static final int BOO_SOUND = 1 << 3;
+
+    // player input: held input is only changed by the input handlers, and tapped input is also cleared by the
+    // match once it's been used
+    private volatile int heldInput;
+    private final AtomicInteger tappedInput = new AtomicInteger();
+
+    // replays
+    private enum PlaybackSpeed {
+        NORMAL, FAST, MAX
+    }
+    private final Replay replay = new Replay();
+
+    // what the opponent has learnt of the player's habits this session, and a copy of it for replays to learn on
+    private final PlayerModel playerModel = new PlayerModel();
+    private final PlayerModel playbackModel = new PlayerModel();
+    private ReplayPlayer replayPlayer;
+    private volatile PlaybackSpeed playbackSpeed = PlaybackSpeed.NORMAL;
+    private static final int FAST_PLAYBACK_SPEED = 8;
+    private static final long MAX_PLAYBACK_FRAME_TIME = 100000000L; // nanoseconds
+    private static final String LAST_REPLAY_FILE = "replays/last.sfsr";
+
+    // netplay
+    private RollbackSession netplaySession;
+    private int netplayMatchNumber;
 
     // rounds
-    private enum RoundState {
-        STARTING, IN_PROGRESS, ENDING
-    }
-    private RoundState roundState;
-    private float roundStateTime;
-    private static final float START_ROUND_DELAY = 2f;
-    private static final float END_ROUND_DELAY = 2f;
-    private int currentRound;
-    private static final int MAX_ROUNDS = 3;
-    private int roundsWon = 0, roundsLost = 0;
-    private static final float MAX_ROUND_TIME = 99.99f;
-    private float roundTimer = MAX_ROUND_TIME;
     private static final float CRITICAL_ROUND_TIME = 10f;
     private static final Color CRITICAL_ROUND_TIME_COLOR = Color.RED;
 
@@ -58,25 +118,26 @@ public class GameScreen implements Screen, InputProcessor {
     private BitmapFont smallFont, mediumFont, largeFont;
     private static final Color DEFAULT_FONT_COLOR = Color.WHITE;
 
+    // text, rebuilt every frame without allocating and only laid out again when it changes
+    private HudText winsText, difficultyText, playerNameText, opponentNameText, roundTimerText, statusText;
+    private HudText startRoundText, gameOverText, pauseText;
+
     // HUD
     private static final Color HEALTH_BAR_COLOR = Color.RED;
     private static final Color HEALTH_BAR_BACKGROUND_COLOR = GlobalVariables.GOLD;
 
+    // overlays
+    private static final Color OVERLAY_COLOR = new Color(0, 0, 0, 0.7f);
+
     // background/ring
     private Texture backgroundTexture;
-    private Texture frontRopesTexture;
-    private static final float RING_MIN_X = 7f;
-    private static final float RING_MAX_X = 60f;
-    private static final float RING_MIN_Y = 4f;
-    private static final float RING_MAX_Y = 22f;
-    private static final float RING_SLOPE = 3.16f;
-
-    // fighters
-    private static final float PLAYER_START_POSITION_X = 16f;
-    private static final float OPPONENT_START_POSITION_X = 51f;
-    private static final float FIGHTER_START_POSITION_Y = 15f;
-    private static final float FIGHTER_CONTACT_DISTANCE_X = 7.5f;
-    private static final float FIGHTER_CONTACT_DISTANCE_Y = 1.5f;
+    private TextureRegion frontRopesRegion;
+    private float frontRopesWidth;
+    private float frontRopesHeight;
+
+    // the background never changes and covers the whole screen, so it's drawn as a static layer before the batch
+    private int backgroundLayer;
+    private boolean staticLayersBuilt;
 
     // buttons
     private Sprite playAgainButtonSprite;
@@ -85,32 +146,28 @@ public class GameScreen implements Screen, InputProcessor {
     private Sprite pauseButtonSprite;
     private static final float PAUSE_BUTTON_MARGIN = 1f;
 
-    // opponent AI
-    private float opponentAiTimer;
-    private boolean opponentAiMakingContactDecision;
-    private static final float OPPONENT_AI_CONTACT_DECISION_DELAY_EASY = 0.1f;
-    private static final float OPPONENT_AI_CONTACT_DECISION_DELAY_MEDIUM = 0.07f;
-    private static final float OPPONENT_AI_CONTACT_DECISION_DELAY_HARD = 0.01f;
-    private static final float OPPONENT_AI_BLOCK_CHANCE = 0.4f;
-    private static final float OPPONENT_AI_ATTACK_CHANCE = 0.8f;
-    private static final float OPPONENT_AI_NON_CONTACT_DECISION_DELAY = 0.5f;
-    private boolean opponentAiPursuingPlayer;
-    private static final float OPPONENT_AI_PURSUE_PLAYER_CHANCE_EASY = 0.2f;
-    private static final float OPPONENT_AI_PURSUE_PLAYER_CHANCE_MEDIUM = 0.5f;
-    private static final float OPPONENT_AI_PURSUE_PLAYER_CHANCE_HARD = 1f;
-
     // blood
     private boolean showingBlood = true;
-    private BloodSplatter[] playerBloodSplatters;
-    private BloodSplatter[] opponentBloodSplatters;
-    private int currentPlayerBloodSplatterIndex;
-    private int currentOpponentBloodSplatterIndex;
+    private DecalEngine playerBloodSplatters;
+    private DecalEngine opponentBloodSplatters;
     private static final int BLOOD_SPLATTER_AMOUNT = 5;
+    private static final float BLOOD_SPLATTER_FRAME_DURATION = 0.03f;
     private static final float BLOOD_SPLATTER_OFFSET_X = 2.8f;
     private static final float BLOOD_SPLATTER_OFFSET_Y = 11f;
-    private BloodPool[] bloodPools;
-    private int currentBloodPoolIndex;
+    private DecalEngine bloodPools;
     private static final int BLOOD_POOL_AMOUNT = 100;
+    private static final int BLOOD_POOL_TEXTURE_AMOUNT = 3;
+    private static final float BLOOD_POOL_FADE_TIME = 60f;
+
+    // blood effects use their own random stream, so showing blood doesn't change the match
+    private final RandomXS128 effectsRandom = new RandomXS128();
+
+    // the effects quality level picked on the drawing thread, and the one the match's blood was last set to
+    private volatile int effectsLevel;
+    private int appliedEffectsLevel;
+
+    // the fighters and their effects, drawn back to front
+    private final RenderQueue renderQueue = new RenderQueue();
 
     public GameScreen(SFS game) {
         this.game = game;
@@ -123,6 +180,17 @@ public class GameScreen implements Screen, InputProcessor {
                 0
         );
 
+        // set up the match simulation
+        match = new MatchSimulation(game.player, game.opponent);
+        match.setListener(this);
+        match.setProfiles(game.difficultyProfiles);
+
+        // the opponent searches ahead on difficulties with lookahead rollouts, and plays like the default AI otherwise
+        // the match thread's AI searches within a work budget, a few rollouts every tick, so recorded matches can be
+        // replayed
+        opponentAi = new LookaheadOpponentAi(match.getRandom(), game.difficultyProfiles);
+        match.setOpponentAi(opponentAi);
+
         // create the game area
         createGameArea();
 
@@ -137,9 +205,13 @@ public class GameScreen implements Screen, InputProcessor {
     }
 
     private void createGameArea() {
-        // get ring textures from asset manager
+        // get the ring's background texture and its front ropes, which are in the gameplay atlas so they're drawn
+        // in the same batch as the fighters
         backgroundTexture = game.assets.manager.get(Assets.BACKGROUND_TEXTURE);
-        frontRopesTexture = game.assets.manager.get(Assets.FRONT_ROPES_TEXTURE);
+        TextureAtlas gameplayAtlas = game.assets.manager.get(Assets.GAMEPLAY_ATLAS);
+        frontRopesRegion = gameplayAtlas.findRegion("FrontRopes");
+        frontRopesWidth = frontRopesRegion.getRegionWidth() * GlobalVariables.WORLD_SCALE;
+        frontRopesHeight = frontRopesRegion.getRegionHeight() * GlobalVariables.WORLD_SCALE;
     }
 
     private void setUpFonts() {
@@ -157,11 +229,21 @@ public class GameScreen implements Screen, InputProcessor {
         largeFont.getData().setScale(GlobalVariables.WORLD_SCALE);
         largeFont.setColor(DEFAULT_FONT_COLOR);
         largeFont.setUseIntegerPositions(false);
+
+        winsText = new HudText(smallFont, Align.left);
+        difficultyText = new HudText(smallFont, Align.right);
+        playerNameText = new HudText(smallFont, Align.left);
+        opponentNameText = new HudText(smallFont, Align.right);
+        roundTimerText = new HudText(mediumFont, Align.left);
+        statusText = new HudText(smallFont, Align.left);
+        startRoundText = new HudText(mediumFont, Align.center);
+        gameOverText = new HudText(largeFont, Align.center);
+        pauseText = new HudText(largeFont, Align.center).set("GAME PAUSED");
     }
 
     private void createButtons() {
-        // get the gameplay button texture atlas from the asset manager
-        TextureAtlas buttonTextureAtlas = game.assets.manager.get(Assets.GAMEPLAY_BUTTONS_ATLAS);
+        // get the gameplay texture atlas, which has the buttons in it, from the asset manager
+        TextureAtlas buttonTextureAtlas = game.assets.manager.get(Assets.GAMEPLAY_ATLAS);
 
         // create the play again button sprite
         playAgainButtonSprite = new Sprite(buttonTextureAtlas.findRegion("PlayAgainButton"));
@@ -193,30 +275,43 @@ public class GameScreen implements Screen, InputProcessor {
     }
 
     private void createBlood() {
-        // initialize the blood splatters
-        playerBloodSplatters = new BloodSplatter[BLOOD_SPLATTER_AMOUNT];
-        opponentBloodSplatters = new BloodSplatter[BLOOD_SPLATTER_AMOUNT];
-
-        // loop through the arrays and initialize the blood splatter objects
-        for (int i = 0; i < BLOOD_SPLATTER_AMOUNT; i++) {
-            playerBloodSplatters[i] = new BloodSplatter(game);
-            opponentBloodSplatters[i] = new BloodSplatter(game);
+        // get the gameplay texture atlas, which has the blood in it, from the asset manager
+        TextureAtlas bloodAtlas = game.assets.manager.get(Assets.GAMEPLAY_ATLAS);
+
+        // each fighter's blood splatters play through the splatter animation once
+        TextureRegion[] splatterFrames = bloodAtlas.findRegions("BloodSplatter").toArray(TextureRegion.class);
+        playerBloodSplatters = new DecalEngine(splatterFrames, BLOOD_SPLATTER_AMOUNT,
+                BLOOD_SPLATTER_FRAME_DURATION, 0f);
+        opponentBloodSplatters = new DecalEngine(splatterFrames, BLOOD_SPLATTER_AMOUNT,
+                BLOOD_SPLATTER_FRAME_DURATION, 0f);
+
+        // the blood pools fade out, each showing one of the blood pool textures picked when it's spilled
+        TextureRegion[] poolTextures = new TextureRegion[BLOOD_POOL_TEXTURE_AMOUNT];
+        for (int i = 0; i < BLOOD_POOL_TEXTURE_AMOUNT; i++) {
+            poolTextures[i] = bloodAtlas.findRegion("BloodPool" + i);
         }
+        bloodPools = new DecalEngine(poolTextures, BLOOD_POOL_AMOUNT, 0f, BLOOD_POOL_FADE_TIME);
 
-        // set the current blood splatter index to the start of the arrays
-        currentPlayerBloodSplatterIndex = 0;
-        currentOpponentBloodSplatterIndex = 0;
+        // show as much blood as the effects quality allows
+        effectsLevel = game.effectsQuality.getLevel();
+        applyEffectsQuality();
 
-        // initialize the blood pools
-        bloodPools = new BloodPool[BLOOD_POOL_AMOUNT];
-
-        // loop through the array and initialize blood pool objects
-        for (int i = 0; i < BLOOD_POOL_AMOUNT; i++) {
-            bloodPools[i] = new BloodPool(game);
-        }
+        // the snapshots the blood is copied into, along with the fighters and the HUD, for drawing
+        renderSnapshots = new Mailbox<>(
+                new RenderSnapshot(playerBloodSplatters, opponentBloodSplatters, bloodPools),
+                new RenderSnapshot(playerBloodSplatters, opponentBloodSplatters, bloodPools),
+                new RenderSnapshot(playerBloodSplatters, opponentBloodSplatters, bloodPools)
+        );
+    }
 
-        // set the current blood pool index to the start of the array
-        currentBloodPoolIndex = 0;
+    private void applyEffectsQuality() {
+        // at full quality, this is every blood pool, with the full fade time, and every splatter frame
+        int level = effectsLevel;
+        bloodPools.setLimit(EffectsQuality.getMaxBloodPools(level));
+        bloodPools.setFadeTime(EffectsQuality.getBloodPoolFadeTime(level));
+        playerBloodSplatters.setFrameStep(EffectsQuality.getSplatterFrameStep(level));
+        opponentBloodSplatters.setFrameStep(EffectsQuality.getSplatterFrameStep(level));
+        appliedEffectsLevel = level;
     }
 
     @Override
@@ -224,8 +319,11 @@ public class GameScreen implements Screen, InputProcessor {
         // process user input
         Gdx.input.setInputProcessor(this);
 
+        // the static layers are shared, so build this screen's before it's drawn
+        staticLayersBuilt = false;
+
         // get the difficulty setting from the settings manager
-        difficulty = game.settingsManager.getDifficultySetting();
+        match.setDifficulty(game.settingsManager.getDifficultySetting());
 
         // get the blood setting from the settings manager
         showingBlood = game.settingsManager.isBloodSettingOn();
@@ -234,16 +332,234 @@ public class GameScreen implements Screen, InputProcessor {
         startGame();
     }
 
+    public void setTickRate(int tickRate) {
+        // set how many times per second the match is simulated, independent of the frame rate
+        stopSimulation();
+        this.tickRate = tickRate;
+        timestep.setTickRate(tickRate);
+        startSimulation();
+    }
+
+    public void setMaxTicksPerFrame(int maxTicksPerFrame) {
+        // set how many ticks a slow frame may catch up on before the game slows down instead
+        stopSimulation();
+        timestep.setMaxTicksPerFrame(maxTicksPerFrame);
+        startSimulation();
+    }
+
+    public void setAiWorkBudget(int rolloutsPerTick) {
+        // set how many rollouts the match thread's AI may run every tick when it searches ahead, so slower machines
+        // keep up; the budget is counted rather than timed, so the matches can still be replayed
+        stopSimulation();
+        aiWorkBudget = rolloutsPerTick;
+        opponentAi.setWorkBudget(rolloutsPerTick);
+        startSimulation();
+    }
+
+    public void setAiTimeBudget(int microseconds) {
+        // set how long the worker thread AI may think about each decision when it searches ahead, so slower
+        // machines keep up; only the worker thread AI is timed
+        stopSimulation();
+        aiTimeBudget = microseconds;
+        if (workerOpponentAi != null) {
+            workerOpponentAi.setTimeBudget(microseconds);
+        }
+        startSimulation();
+    }
+
+    public void setSimulationOnWorkerThread(boolean enabled) {
+        // run the match on a thread of its own, publishing a snapshot to draw from every tick, so the match and
+        // drawing overlap and the ticks keep time however long a frame takes to draw
+        stopSimulation();
+        if (enabled) {
+            simulationThread = new SimulationThread(new SimulationThread.Steppable() {
+                @Override
+                public boolean step(float elapsedTime) {
+                    return stepSimulation(elapsedTime);
+                }
+            }, "Simulation");
+            startSimulation();
+        } else {
+            simulationThread = null;
+        }
+    }
+
+    private void startSimulation() {
+        // start the match thread (if there is one) when the game is running
+        if (simulationThread != null && gameState == GameState.RUNNING) {
+            timestep.reset();
+            simulationThread.start();
+        }
+    }
+
+    private void stopSimulation() {
+        // stop the match thread (if there is one), so the match can be changed from the drawing thread
+        if (simulationThread != null) {
+            simulationThread.stop();
+        }
+    }
+
+    public void setAiOnWorkerThread(boolean enabled) {
+        // run the opponent's decisions on a worker thread, so a slow decision doesn't hold up the frame; the
+        // decisions then depend on timing, so these matches can't be replayed exactly and aren't saved
+        stopSimulation();
+        if (asyncOpponentAi != null) {
+            asyncOpponentAi.dispose();
+            asyncOpponentAi = null;
+            workerOpponentAi = null;
+        }
+
+        if (enabled) {
+            // the worker's AI gets its own random stream, nothing on it is shared with the match thread
+            workerOpponentAi = new LookaheadOpponentAi(new RandomXS128(), game.difficultyProfiles);
+            workerOpponentAi.setBudgetMode(LookaheadOpponentAi.BudgetMode.TIME);
+            workerOpponentAi.setTimeBudget(aiTimeBudget);
+            asyncOpponentAi = new AsyncOpponentAi(workerOpponentAi);
+            match.setOpponentAi(asyncOpponentAi);
+        } else {
+            match.setOpponentAi(policyOpponentAi != null ? policyOpponentAi : opponentAi);
+        }
+        startSimulation();
+    }
+
+    public void setOpponentPolicy(PolicyTable table) {
+        // have the opponent look its actions up in the offline-built policy table, a single lookup per decision,
+        // instead of searching ahead (null to search again); lookups don't depend on timing, so they're made on
+        // the match thread and take the worker thread AI's place
+        if (table != null) {
+            policyOpponentAi = new PolicyTableOpponentAi(table, match.getRandom(), game.difficultyProfiles);
+            policyOpponentAi.setPlayerModel(match.getPlayerModel());
+        } else {
+            policyOpponentAi = null;
+        }
+        if (policyOpponentAi != null || asyncOpponentAi == null) {
+            setAiOnWorkerThread(false);
+        }
+    }
+
+    private void setPlayerModel(PlayerModel model) {
+        // the match feeds the model the player's input and the opponent plays on it; the worker thread AI doesn't
+        // get it, since the match thread writes to it while the worker would be reading it
+        match.setPlayerModel(model);
+        opponentAi.setPlayerModel(model);
+        if (policyOpponentAi != null) {
+            policyOpponentAi.setPlayerModel(model);
+        }
+    }
+
+    public AsyncOpponentAi getAsyncOpponentAi() {
+        // the worker thread AI and its metrics, or null if the AI runs on the match thread
+        return asyncOpponentAi;
+    }
+
+    public void playReplay(Replay replay) {
+        // play back the given replay the next time the game starts
+        stopSimulation();
+        replayPlayer = new ReplayPlayer(replay);
+        playbackSpeed = PlaybackSpeed.NORMAL;
+    }
+
+    private void stopReplay() {
+        // if a replay was playing, go back to the player's own difficulty setting
+        stopSimulation();
+        if (replayPlayer != null) {
+            replayPlayer = null;
+            match.setDifficulty(game.settingsManager.getDifficultySetting());
+        }
+    }
+
     private void startGame() {
+        stopSimulation();
         gameState = GameState.RUNNING;
-        roundsWon = roundsLost = 0;
+        timestep.reset();
+        heldInput = PlayerInput.NONE;
+        tappedInput.set(PlayerInput.NONE);
+        queuedSounds.set(0);
+        stopNetplay();
+
+        if (game.netplayConfig != null && replayPlayer == null) {
+            // play against the remote player instead of the AI
+            startNetplay(game.netplayConfig);
+        } else if (replayPlayer != null) {
+            // restart the replay and set up the match the same way as the recorded one
+            Replay playback = replayPlayer.getReplay();
+            replayPlayer = new ReplayPlayer(playback);
+            timestep.setTickRate(playback.getTickRate());
+            match.setDifficulty(playback.getDifficulty());
+            setFighterChoice(game.player, playback.getPlayerChoiceIndex());
+            setFighterChoice(game.opponent, playback.getOpponentChoiceIndex());
+            if (playback.isOpponentPolicy() != (policyOpponentAi != null)) {
+                Gdx.app.error("GameScreen", "The replay was recorded against another opponent AI");
+            }
+
+            // the opponent searches the way it did in the recorded match
+            opponentAi.setBudgetMode(playback.getAiBudgetMode());
+            opponentAi.setWorkBudget(playback.getAiWorkBudget());
+
+            // the opponent starts out knowing what it knew in the recorded match, without the replay teaching
+            // the player's own model anything
+            if (playback.getPlayerModel() != null) {
+                playbackModel.copyFrom(playback.getPlayerModel());
+                setPlayerModel(playbackModel);
+            } else {
+                setPlayerModel(null);
+            }
+            match.startMatch(playback.getSeed());
+        } else {
+            // start the match with a new seed, and start recording it
+            timestep.setTickRate(tickRate);
+            setPlayerModel(playerModel);
+            opponentAi.setBudgetMode(LookaheadOpponentAi.BudgetMode.WORK);
+            opponentAi.setWorkBudget(aiWorkBudget);
+            match.startMatch(game.random.nextLong());
+            replay.begin(
+                    match.getSeed(), match.getDifficulty(), tickRate,
+                    getFighterChoiceIndex(game.player), getFighterChoiceIndex(game.opponent), playerModel,
+                    policyOpponentAi != null
+            );
+            replay.setAiBudget(LookaheadOpponentAi.BudgetMode.WORK, aiWorkBudget);
+        }
+
+        // seed the effects from the match seed as well
+        effectsRandom.setSeed(match.getSeed());
+
+        // publish the start of the match to draw, then start the match thread (if there is one)
+        publishRenderSnapshot();
+        startSimulation();
+    }
+
+    private void startNetplay(NetplayConfig config) {
+        // both peers start the same match, so every rematch moves on to the next seed on both sides
+        timestep.setTickRate(tickRate);
+        match.setOpponentAiEnabled(false);
+        setPlayerModel(null);
+        match.setDifficulty(config.difficulty);
+        match.startMatch(config.seed + netplayMatchNumber++);
+        netplaySession = new RollbackSession(match, config, timestep.getTickTime());
+    }
+
+    private void stopNetplay() {
+        stopSimulation();
+        if (netplaySession != null) {
+            netplaySession.close();
+            netplaySession = null;
+        }
+    }
 
-        // start the first round
-        currentRound = 1;
-        startRound();
+    private boolean hasLocalPlayerWon() {
+        // in a netplay match the local player may be controlling the opponent
+        boolean playerWon = match.getRoundsWon() > match.getRoundsLost();
+        if (game.netplayConfig != null && game.netplayConfig.localSlot == NetplayConfig.Slot.OPPONENT) {
+            return !playerWon;
+        }
+        return playerWon;
     }
 
     private void pauseGame() {
+        // a netplay match can't be paused, the remote player would be left waiting
+        if (netplaySession != null) return;
+
+        stopSimulation();
         gameState = GameState.PAUSED;
 
         // pause game sounds and music
@@ -253,104 +569,220 @@ public class GameScreen implements Screen, InputProcessor {
 
     private void resumeGame() {
         gameState = GameState.RUNNING;
+        startSimulation();
 
         // resume game sounds and music (if it's enabled)
         game.audioManager.resumeGameSounds();
         game.audioManager.playMusic();
     }
 
-    private void startRound() {
-        // get the fighters ready
-        game.player.getReady(PLAYER_START_POSITION_X, FIGHTER_START_POSITION_Y);
-        game.opponent.getReady(OPPONENT_START_POSITION_X, FIGHTER_START_POSITION_Y);
+    private int getFighterChoiceIndex(Fighter fighter) {
+        // find the index of the fighter's choice in the fighter choice list
+        for (int i = 0; i < game.fighterChoiceList.size(); i++) {
+            if (game.fighterChoiceList.get(i).getName().equals(fighter.getName())) {
+                return i;
+            }
+        }
+        return 0;
+    }
 
-        // start the round
-        roundState = RoundState.STARTING;
-        roundStateTime = 0f;
-        roundTimer = MAX_ROUND_TIME;
+    private void setFighterChoice(Fighter fighter, int index) {
+        // set the name and color of the fighter to those of the fighter choice
+        FighterChoice fighterChoice = game.fighterChoiceList.get(index);
+        fighter.setName(fighterChoice.getName());
+        fighter.setColor(fighterChoice.getColor());
     }
 
-    private void endRound() {
-        // end the round
-        roundState = RoundState.ENDING;
-        roundStateTime = 0f;
+    private void saveReplay() {
+        // save the replay of the match, so it can be played back or sent to us
+        try {
+            replay.save(Gdx.files.local(LAST_REPLAY_FILE));
+        } catch (GdxRuntimeException e) {
+            Gdx.app.error("GameScreen", "Couldn't save the replay", e);
+        }
     }
 
-    private void winRound() {
-        // players wins the round and opponent loses
-        game.player.win();
-        game.opponent.lose();
-        roundsWon++;
+    public MatchSnapshot createSnapshot() {
+        // a snapshot with room for the match, the blood and the blood's random stream
+        return new MatchSnapshot(
+                playerBloodSplatters.getStateFloats() + opponentBloodSplatters.getStateFloats()
+                        + bloodPools.getStateFloats(),
+                playerBloodSplatters.getStateInts() + opponentBloodSplatters.getStateInts()
+                        + bloodPools.getStateInts(),
+                2
+        );
+    }
 
-        // play cheer sound
-        game.audioManager.playSound(Assets.CHEER_SOUND);
+    public void saveState(MatchSnapshot snapshot) {
+        // write the match and its blood into a snapshot made by createSnapshot(), so restoring it brings back the
+        // blood the match had at the time
+        snapshot.rewind();
+        match.saveState(snapshot);
+        playerBloodSplatters.saveState(snapshot);
+        opponentBloodSplatters.saveState(snapshot);
+        bloodPools.saveState(snapshot);
+        snapshot.writeLong(effectsRandom.getState(0));
+        snapshot.writeLong(effectsRandom.getState(1));
+    }
 
-        // end the round
-        endRound();
+    public void restoreState(MatchSnapshot snapshot) {
+        // read everything back in the same order it was written
+        snapshot.rewind();
+        match.restoreState(snapshot);
+        playerBloodSplatters.restoreState(snapshot);
+        opponentBloodSplatters.restoreState(snapshot);
+        bloodPools.restoreState(snapshot);
+        long seed0 = snapshot.readLong();
+        long seed1 = snapshot.readLong();
+        effectsRandom.setState(seed0, seed1);
     }
 
-    private void loseRound() {
-        // player loses the round and opponent wins
-        game.player.lose();
-        game.opponent.win();
-        roundsLost++;
+    private boolean isReplayable() {
+        // netplay matches and matches against the worker thread AI can't be reproduced from the player's input
+        return netplaySession == null && asyncOpponentAi == null;
+    }
 
-        // play boo sound
-        game.audioManager.playSound(Assets.BOO_SOUND);
+    private boolean isFastForwarding() {
+        return replayPlayer != null && playbackSpeed != PlaybackSpeed.NORMAL;
+    }
+
+    private void queueSound(int sound) {
+        // the match may be running on its own thread, so its sounds are played on the drawing thread
+        int sounds;
+        do {
+            sounds = queuedSounds.get();
+        } while (!queuedSounds.compareAndSet(sounds, sounds | sound));
+    }
 
-        // end the round
-        endRound();
+    private void playQueuedSounds() {
+        int sounds = queuedSounds.getAndSet(0);
+        if ((sounds & HIT_SOUND) != 0) game.audioManager.playSound(Assets.HIT_SOUND);
+        if ((sounds & BLOCK_SOUND) != 0) game.audioManager.playSound(Assets.BLOCK_SOUND);
+        if ((sounds & CHEER_SOUND) != 0) game.audioManager.playSound(Assets.CHEER_SOUND);
+        if ((sounds & BOO_SOUND) != 0) game.audioManager.playSound(Assets.BOO_SOUND);
+    }
+
+    @Override
+    public void onRoundWon() {
+        // play cheer sound (unless fast forwarding through a replay)
+        if (!isFastForwarding()) {
+            queueSound(CHEER_SOUND);
+        }
+    }
+
+    @Override
+    public void onRoundLost() {
+        // play boo sound (unless fast forwarding through a replay)
+        if (!isFastForwarding()) {
+            queueSound(BOO_SOUND);
+        }
+    }
+
+    @Override
+    public void onFighterHit(Fighter fighter, boolean blocked) {
+        if (blocked) {
+            // if the fighter is blocking, play block sound
+            if (!isFastForwarding()) {
+                queueSound(BLOCK_SOUND);
+            }
+        } else {
+            // if the fighter is not blocking, play hit sound
+            if (!isFastForwarding()) {
+                queueSound(HIT_SOUND);
+            }
+
+            // spill some blood
+            spillBlood(fighter);
+        }
     }
 
     @Override
     public void render(float delta) {
         ScreenUtils.clear(0, 0, 0, 1);
 
-        // update the game -- delta time should be zero if the game isn't running to freeze the game
-        update(gameState == GameState.RUNNING ? delta : 0);
+        if (simulationThread == null) {
+            // update the game in fixed ticks -- no ticks are run if the game isn't running to freeze the game
+            if (gameState == GameState.RUNNING) {
+                if (replayPlayer != null && playbackSpeed == PlaybackSpeed.MAX) {
+                    // play the replay as fast as possible for a while, and skip drawing until it has finished
+                    runMaxSpeedTicks();
+                    if (gameState == GameState.RUNNING) return;
+                } else {
+                    runTicks(delta);
+                }
+            } else if (netplaySession != null) {
+                // keep exchanging inputs after a netplay match, in case the remote player is still missing some
+                netplaySession.poll();
+            }
+            publishRenderSnapshot();
+        } else {
+            // check the match thread is still going, and once it has ended the match, wait for it to finish its
+            // last tick before going on with the match here
+            simulationThread.checkFailure();
+            if (gameState != GameState.RUNNING) {
+                stopSimulation();
+                if (netplaySession != null) {
+                    netplaySession.poll();
+                }
+            }
+        }
+
+        // cut back (or bring back) the blood if the frames are taking too long (or have room to spare again)
+        if (gameState == GameState.RUNNING && showingBlood && game.effectsQuality.update(delta)) {
+            effectsLevel = game.effectsQuality.getLevel();
+        }
 
-        // set the sprite batch and the shape renderer to use the viewport camera
-        game.batch.setProjectionMatrix(viewport.getCamera().combined);
-        game.shapeRenderer.setProjectionMatrix(viewport.getCamera().combined);
+        // play the sounds the match has asked for, and take the latest snapshot of it to draw
+        playQueuedSounds();
+        RenderSnapshot latestSnapshot = renderSnapshots.take();
+        if (latestSnapshot != null) {
+            renderSnapshot = latestSnapshot;
+        }
+
+        // measure the frame's draw calls and how long each part of it takes to draw
+        game.renderStats.beginFrame();
+
+        // build the background (again) if the screen has just been shown or resized
+        if (!staticLayersBuilt) {
+            buildStaticLayers();
+        }
+
+        // draw the background from the sprite cache
+        game.renderStats.beginPhase(RenderStats.BACKGROUND);
+        game.staticLayers.draw(viewport.getCamera().combined, backgroundLayer);
 
         // set the sprite batch to use the camera
         game.batch.setProjectionMatrix(viewport.getCamera().combined);
 
-        // begin drawing
+        // begin drawing, everything but the background is drawn in this batch
         game.batch.begin();
 
-        // draw the background
-        game.batch.draw(
-                backgroundTexture, 0, 0,
-                backgroundTexture.getWidth() * GlobalVariables.WORLD_SCALE,
-                backgroundTexture.getHeight() * GlobalVariables.WORLD_SCALE
-        );
-
         // draw the blood pools
+        game.renderStats.beginPhase(RenderStats.BLOOD_POOLS);
         renderBloodPools();
 
         // draw the fighters
+        game.renderStats.beginPhase(RenderStats.FIGHTERS);
         renderFighters();
 
-        // draw the front ropes
-        game.batch.draw(
-                frontRopesTexture, 0, 0,
-                frontRopesTexture.getWidth() * GlobalVariables.WORLD_SCALE,
-                frontRopesTexture.getHeight() * GlobalVariables.WORLD_SCALE
-        );
+        // draw the front ropes, between the fighters and the HUD
+        game.renderStats.beginPhase(RenderStats.ROPES);
+        game.batch.draw(frontRopesRegion, 0, 0, frontRopesWidth, frontRopesHeight);
 
-        // draw the HUD
+        // draw the pause button, then the HUD, which starts with its rectangles from the same atlas
+        game.renderStats.beginPhase(RenderStats.HUD);
+        renderPauseButton();
         renderHUD();
 
-        // draw the pause button
-        renderPauseButton();
+        // the overlays, and the batch's last flush when it ends
+        game.renderStats.beginPhase(RenderStats.OVERLAYS);
 
         // if the game is over draw the game over overlay
         if (gameState == GameState.GAME_OVER) {
             renderGameOverOverlay();
         } else {
             // if round is starting, draw the start around the text
-            if (roundState == RoundState.STARTING) {
+            if (renderSnapshot.roundState == MatchSimulation.RoundState.STARTING) {
                 renderStartRoundText();
             }
 
@@ -362,85 +794,53 @@ public class GameScreen implements Screen, InputProcessor {
 
         // end drawing
         game.batch.end();
+        game.renderStats.endFrame();
     }
 
-    private void renderFighters() {
-        // use the y coordinates of the fighter's position to determine which fighter to draw first
-        if (game.player.getPosition().y > game.opponent.getPosition().y) {
-            // draw player
-            game.player.render(game.batch);
-
-            // draw the player's blood splatter (if enabled)
-            rendeBloodSplatters(playerBloodSplatters);
+    private void buildStaticLayers() {
+        // put the background into a layer of its own
+        game.staticLayers.clear();
 
-            // draw opponent
-            game.opponent.render(game.batch);
-
-            // draw the opponent's blood splatter (if enabled)
-            rendeBloodSplatters(opponentBloodSplatters);
-        } else {
-            // draw opponent
-            game.opponent.render(game.batch);
+        game.staticLayers.beginLayer();
+        game.staticLayers.add(
+                backgroundTexture, 0, 0,
+                backgroundTexture.getWidth() * GlobalVariables.WORLD_SCALE,
+                backgroundTexture.getHeight() * GlobalVariables.WORLD_SCALE
+        );
+        backgroundLayer = game.staticLayers.endLayer();
 
-            // draw the opponent's blood splatter (if enabled)
-            rendeBloodSplatters(opponentBloodSplatters);
+        staticLayersBuilt = true;
+    }
 
-            // draw player
-            game.player.render(game.batch);
-        }
+    private void renderFighters() {
+        // queue the fighters, each followed by their blood splatters (if enabled), at the y coordinate of the
+        // fighter's position, so whoever is further up the ring is drawn first; the opponent is queued first so
+        // they're drawn first when both fighters are level
+        submitFighter(renderSnapshot.opponent, renderSnapshot.opponentBloodSplatters);
+        submitFighter(renderSnapshot.player, renderSnapshot.playerBloodSplatters);
+
+        // draw everything in the queue, between the last tick and the next one
+        renderQueue.render(game.batch, renderSnapshot.getAlpha(TimeUtils.nanoTime()));
     }
 
-    private void rendeBloodSplatters(BloodSplatter[] bloodSplatters) {
-        // if showing blood, draw all (active) blood splatters in the given array
+    private void submitFighter(Fighter fighter, DecalEngine bloodSplatters) {
+        float depth = fighter.getPosition().y;
+        renderQueue.submit(fighter, depth);
         if (showingBlood) {
-            for (BloodSplatter bloodSplatter : bloodSplatters) {
-                bloodSplatter.render(game.batch);
-            }
+            renderQueue.submit(bloodSplatters, depth);
         }
     }
 
     private void renderBloodPools() {
-        // check if showing blood, draw all (active) blood pools
+        // check if showing blood, draw the active blood pools
         if (showingBlood) {
-            for (BloodPool bloodPool : bloodPools) {
-                bloodPool.render(game.batch);
-            }
+            renderSnapshot.bloodPools.render(game.batch, 0f);
         }
     }
 
     private void renderHUD() {
         float HUDMargin = 1f;
 
-        // draw the rounds won to lost ratio
-        smallFont.draw(
-                game.batch,
-                "WINS: " + roundsWon + " - " + roundsLost,
-                HUDMargin, viewport.getWorldHeight() - HUDMargin
-        );
-
-        // draw the difficulty setting
-        String text = "DIFFICULTY: ";
-        switch (difficulty) {
-            case EASY:
-                text += "EASY";
-                break;
-            case MEDIUM:
-                text += "MEDIUM";
-                break;
-            default:
-                text += "HARD";
-        }
-
-        smallFont.draw(
-                game.batch,
-                text,
-                viewport.getWorldWidth() - HUDMargin,
-                viewport.getWorldHeight() - HUDMargin,
-                0,
-                Align.right,
-                false
-        );
-
         // setup layout sizes and positioning
         float healthBarPadding = 0.5f;
         float healthBarHeight = smallFont.getCapHeight() + healthBarPadding * 2f;
@@ -454,83 +854,94 @@ public class GameScreen implements Screen, InputProcessor {
         float healthBarPositionY = healthBarBackgroundPositionY + healthBarBackgroundPadding;
         float fighterNamePositionY = healthBarPositionY + healthBarHeight - healthBarPadding;
 
-        game.batch.end();
-        game.shapeRenderer.begin(ShapeRenderer.ShapeType.Filled);
-
         // draw the fighter health bar background rectangles
-        game.shapeRenderer.setColor(HEALTH_BAR_BACKGROUND_COLOR);
-        game.shapeRenderer.rect(
-                HUDMargin, healthBarBackgroundPositionY,
+        game.batch.setColor(HEALTH_BAR_BACKGROUND_COLOR);
+        game.batch.draw(
+                game.whitePixel, HUDMargin, healthBarBackgroundPositionY,
                 healthBarBackgroundWidth, healthBarBackgroundHeight
         );
-        game.shapeRenderer.rect(
-                viewport.getWorldWidth() - HUDMargin - healthBarBackgroundWidth,
+        game.batch.draw(
+                game.whitePixel, viewport.getWorldWidth() - HUDMargin - healthBarBackgroundWidth,
                 healthBarBackgroundPositionY, healthBarBackgroundWidth, healthBarBackgroundHeight
         );
 
         // draw the fighter's red health bar rectangles
-        game.shapeRenderer.setColor(HEALTH_BAR_COLOR);
-        float healthBarWidth = healthBarMaxWidth * game.player.getLife() / Fighter.MAX_LIFE;
-        game.shapeRenderer.rect(
-                HUDMargin + healthBarBackgroundPadding, healthBarPositionY,
+        game.batch.setColor(HEALTH_BAR_COLOR);
+        float healthBarWidth = healthBarMaxWidth * renderSnapshot.player.getLife() / Fighter.MAX_LIFE;
+        game.batch.draw(
+                game.whitePixel, HUDMargin + healthBarBackgroundPadding, healthBarPositionY,
                 healthBarWidth, healthBarHeight
         );
-        healthBarWidth = healthBarMaxWidth * game.opponent.getLife() / Fighter.MAX_LIFE;
-        game.shapeRenderer.rect(
-                viewport.getWorldWidth() - HUDMargin - healthBarBackgroundPadding - healthBarWidth,
+        healthBarWidth = healthBarMaxWidth * renderSnapshot.opponent.getLife() / Fighter.MAX_LIFE;
+        game.batch.draw(
+                game.whitePixel, viewport.getWorldWidth() - HUDMargin - healthBarBackgroundPadding - healthBarWidth,
                 healthBarPositionY, healthBarWidth, healthBarHeight
         );
+        game.batch.setColor(Color.WHITE);
 
-        game.shapeRenderer.end();
-        game.batch.begin();
+        // draw the rounds won to lost ratio, after the rectangles so the batch only switches from the atlas to the
+        // fonts once
+        winsText.clear().append("WINS: ").append(renderSnapshot.roundsWon).append(" - ")
+                .append(renderSnapshot.roundsLost);
+        winsText.draw(game.batch, HUDMargin, viewport.getWorldHeight() - HUDMargin);
+
+        // draw the difficulty setting
+        difficultyText.clear().append("DIFFICULTY: ").append(match.getProfiles().getName(renderSnapshot.difficulty));
+        difficultyText.draw(game.batch, viewport.getWorldWidth() - HUDMargin, viewport.getWorldHeight() - HUDMargin);
 
         // draw the fighter's names
-        smallFont.draw(
-                game.batch, game.player.getName(),
+        playerNameText.set(renderSnapshot.player.getName()).draw(
+                game.batch,
                 HUDMargin + healthBarBackgroundPadding + healthBarPadding,
                 fighterNamePositionY
         );
-        smallFont.draw(
-                game.batch, game.opponent.getName(),
+        opponentNameText.set(renderSnapshot.opponent.getName()).draw(
+                game.batch,
                 viewport.getWorldWidth() - HUDMargin - healthBarBackgroundPadding - healthBarPadding,
-                fighterNamePositionY,
-                0, Align.right, false
+                fighterNamePositionY
         );
 
-        // draw the round timer
+        // draw the round timer, as two digits
         // check if round timer dropped below critical round time, if so, change the color of the text
-        if (roundTimer < CRITICAL_ROUND_TIME) {
-            mediumFont.setColor(CRITICAL_ROUND_TIME_COLOR);
+        int roundTimer = (int) renderSnapshot.roundTimer;
+        StringBuilder roundTimerDigits = roundTimerText.clear();
+        if (roundTimer < 10) {
+            roundTimerDigits.append('0');
         }
-        mediumFont.draw(
-                game.batch, String.format(Locale.getDefault(), "%02d", (int) roundTimer),
+        roundTimerDigits.append(roundTimer);
+        roundTimerText.setColor(renderSnapshot.roundTimer < CRITICAL_ROUND_TIME ?
+                CRITICAL_ROUND_TIME_COLOR : DEFAULT_FONT_COLOR);
+        roundTimerText.draw(
+                game.batch,
                 viewport.getWorldWidth() / 2f - mediumFont.getSpaceXadvance() * 2.3f,
                 viewport.getWorldHeight() - HUDMargin
         );
-        // set medium font to default color to prevent subsequent color change after color changes
-        mediumFont.setColor(DEFAULT_FONT_COLOR);
+
+        // if a replay is playing, show it along with the playback speed
+        if (replayPlayer != null) {
+            statusText.set(playbackSpeed == PlaybackSpeed.FAST ? "REPLAY " + FAST_PLAYBACK_SPEED + "X" : "REPLAY");
+            statusText.draw(game.batch, HUDMargin, HUDMargin + smallFont.getCapHeight());
+        } else if (netplaySession != null) {
+            // if playing a netplay match, show whether the remote player has connected yet, or if the two
+            // matches have gone out of sync
+            statusText.set(renderSnapshot.netplayStatus == RenderSnapshot.NETPLAY_OUT_OF_SYNC ? "OUT OF SYNC" :
+                    renderSnapshot.netplayStatus == RenderSnapshot.NETPLAY_WAITING ? "WAITING FOR OPPONENT" : "ONLINE");
+            statusText.draw(game.batch, HUDMargin, HUDMargin + smallFont.getCapHeight());
+        }
     }
 
     // add text at the start of the round
     private void renderStartRoundText() {
-        String text;
         // check if round state time < half of start of delay, if so, display round number text
-        if (roundStateTime < START_ROUND_DELAY * 0.5f) {
-            text = "ROUND " + currentRound;
+        if (renderSnapshot.roundStateTime < MatchSimulation.START_ROUND_DELAY * 0.5f) {
+            startRoundText.clear().append("ROUND ").append(renderSnapshot.currentRound);
+            startRoundText.setColor(DEFAULT_FONT_COLOR);
         } else {
             // if round state time > half of start of delay, display fight text
-            text = "FIGHT!";
-            mediumFont.setColor(Color.RED);
+            startRoundText.set("FIGHT!").setColor(Color.RED);
         }
 
-        mediumFont.draw(
-                game.batch, text,
-                viewport.getWorldWidth() / 2f,
-                viewport.getWorldHeight() / 2f,
-                0, Align.center, false
-        );
-
-        mediumFont.setColor(DEFAULT_FONT_COLOR);
+        startRoundText.draw(game.batch, viewport.getWorldWidth() / 2f, viewport.getWorldHeight() / 2f);
     }
 
     private void renderPauseButton() {
@@ -541,21 +952,16 @@ public class GameScreen implements Screen, InputProcessor {
         pauseButtonSprite.draw(game.batch);
     }
 
+    private void renderOverlayBackground() {
+        // the batch blends already, so the overlay is drawn in the same batch as the game under it
+        game.batch.setColor(OVERLAY_COLOR);
+        game.batch.draw(game.whitePixel, 0, 0, viewport.getWorldWidth(), viewport.getWorldHeight());
+        game.batch.setColor(Color.WHITE);
+    }
+
     private void renderGameOverOverlay() {
         // cover game area with a partially transparent black overlay
-        game.batch.end();
-        Gdx.gl.glEnable(GL20.GL_BLEND);
-        Gdx.gl.glBlendFunc(GL20.GL_SRC_ALPHA, GL20.GL_ONE_MINUS_SRC_ALPHA);
-        game.shapeRenderer.begin(ShapeRenderer.ShapeType.Filled);
-        game.shapeRenderer.setColor(0, 0, 0, 0.7f);
-        game.shapeRenderer.rect(
-                0, 0,
-                viewport.getWorldWidth(),
-                viewport.getWorldHeight()
-        );
-        game.shapeRenderer.end();
-        Gdx.gl.glDisable(GL20.GL_BLEND);
-        game.batch.begin();
+        renderOverlayBackground();
 
         // calculate the layout dimensions
         float textMarginBottom = 2f; // spacing between text and button below it
@@ -582,31 +988,17 @@ public class GameScreen implements Screen, InputProcessor {
         playAgainButtonSprite.draw(game.batch);
 
         // draw the text
-        String text = roundsWon > roundsLost ? "YOU WIN!" : "YOU LOSE!";
-        largeFont.draw(
-                game.batch, text,
+        gameOverText.set(renderSnapshot.localPlayerWon ? "YOU WIN!" : "YOU LOSE!").draw(
+                game.batch,
                 viewport.getWorldWidth() / 2f,
                 playAgainButtonSprite.getY() + playAgainButtonSprite.getHeight() +
-                        textMarginBottom + largeFont.getCapHeight(),
-                0, Align.center, false
+                        textMarginBottom + largeFont.getCapHeight()
         );
     }
 
     private void renderPauseOverlay() {
         // cover game area with a partially transparent black overlay
-        game.batch.end();
-        Gdx.gl.glEnable(GL20.GL_BLEND);
-        Gdx.gl.glBlendFunc(GL20.GL_SRC_ALPHA, GL20.GL_ONE_MINUS_SRC_ALPHA);
-        game.shapeRenderer.begin(ShapeRenderer.ShapeType.Filled);
-        game.shapeRenderer.setColor(0, 0, 0, 0.7f);
-        game.shapeRenderer.rect(
-                0, 0,
-                viewport.getWorldWidth(),
-                viewport.getWorldHeight()
-        );
-        game.shapeRenderer.end();
-        Gdx.gl.glDisable(GL20.GL_BLEND);
-        game.batch.begin();
+        renderOverlayBackground();
 
         // calculate the layout dimensions
         float textMarginBottom = 2f; // spacing between text and button below it
@@ -633,412 +1025,149 @@ public class GameScreen implements Screen, InputProcessor {
         continueButtonSprite.draw(game.batch);
 
         // draw the text
-        String text = roundsWon > roundsLost ? "YOU WIN!" : "YOU LOSE!";
-        largeFont.draw(
-                game.batch, "GAME PAUSED",
+        pauseText.draw(
+                game.batch,
                 viewport.getWorldWidth() / 2f,
                 continueButtonSprite.getY() + continueButtonSprite.getHeight() +
-                        textMarginBottom + largeFont.getCapHeight(),
-                0, Align.center, false
+                        textMarginBottom + largeFont.getCapHeight()
         );
     }
 
-    private void update(float deltaTime) {
-        // update the round state
-        if (roundState == RoundState.STARTING && roundStateTime >= START_ROUND_DELAY) {
-            // if the start of the round delay has been reached, start the fight
-            roundState = RoundState.IN_PROGRESS;
-            roundStateTime = 0f;
-        } else if (roundState == RoundState.ENDING && roundStateTime >= END_ROUND_DELAY) {
-            // if the end round delay has been reached and player has won or lost more than half of the max rounds,
-            // end the game, otherwise, start the next round
-            if (roundsWon > MAX_ROUNDS / 2 || roundsLost > MAX_ROUNDS / 2) {
-                gameState = GameState.GAME_OVER;
-            } else {
-                currentRound++;
-                startRound();
-            }
-        } else {
-            // implement the rounds state time by delta time
-            roundStateTime += deltaTime;
-        }
-
-        game.player.update(deltaTime);
-        game.opponent.update(deltaTime);
-
-        // update the blood splatters
-        for (int i = 0; i < BLOOD_SPLATTER_AMOUNT; i++) {
-            playerBloodSplatters[i].update(deltaTime);
-            opponentBloodSplatters[i].update(deltaTime);
-        }
-
-        // update the blood pools
-        for (BloodPool bloodPool : bloodPools) {
-            bloodPool.update(deltaTime);
+    private void runTicks(float elapsedTime) {
+        // when fast forwarding a replay, run several ticks for every tick of elapsed time
+        int ticks = timestep.advance(elapsedTime);
+        if (replayPlayer != null && playbackSpeed == PlaybackSpeed.FAST) {
+            ticks *= FAST_PLAYBACK_SPEED;
         }
-
-        // make sure fighters are facing each other
-        if (game.player.getPosition().x <= game.opponent.getPosition().x) {
-            game.player.faceRight();
-            game.opponent.faceLeft();
-        } else {
-            game.player.faceLeft();
-            game.opponent.faceRight();
-        }
-
-        // keep the fighters within the bounds of the ring
-        keepWithinRingBounds(game.player.getPosition());
-        keepWithinRingBounds(game.opponent.getPosition());
-
-        // check if round state is in progress, if so decrease round timer by delta time
-        if (roundState == RoundState.IN_PROGRESS) {
-            // if round is in progress, decrease the round timer by delta time
-            roundTimer -= deltaTime;
-
-            // check if round timer is finished, if so, neither of the fighters has won yet
-            // fighter with most life wins and other loses
-            // if both fighters have the same life, the player wins
-            if (roundTimer <= 0) {
-                if (game.player.getLife() >= game.opponent.getLife()) {
-                    winRound();
-                } else {
-                    loseRound();
-                }
-            }
-
-            // perform the AI for opponent
-            performOpponentAi(deltaTime);
-
-            // check if the fighters are within contact distance
-            if (areWithingContactDistance(game.player.getPosition(), game.opponent.getPosition())) {
-                // check if the fighters are attacking
-                if (game.player.isAttackActive()) {
-                    // if the fighters are within contact distance and player is actively attacking, opponent hit
-                    // hit damage based of difficulty setting
-                    if (difficulty == GlobalVariables.Difficulty.EASY) {
-                        game.opponent.getHit(Fighter.PLAYER_HIT_STRENGTH_EASY);
-                    } else if (difficulty == GlobalVariables.Difficulty.MEDIUM) {
-                        game.opponent.getHit(Fighter.PLAYER_HIT_STRENGTH_MEDIUM);
-                    } else {
-                        game.opponent.getHit(Fighter.PLAYER_HIT_STRENGTH_HARD);
-                    }
-
-                    if (game.opponent.isBlocking()) {
-                        // if opponent is blocking, play block sound
-                        game.audioManager.playSound(Assets.BLOCK_SOUND);
-                    } else {
-                        // if opponent is not blocking, play hit sound
-                        game.audioManager.playSound(Assets.HIT_SOUND);
-
-                        // spill some blood
-                        spillBlood(game.opponent);
-                    }
-
-                    // deactivate player's attack
-                    game.player.makeContact();
-
-                    // check if opponent has lost
-                    if (game.opponent.hasLost()) {
-                        // if opponent has lost, player wins the round
-                        winRound();
-                    }
-                } else if (game.opponent.isAttackActive()) {
-                    // if the fighters are within contact distance and opponent is actively attacking, player hit
-                    // hit damage based of difficulty setting
-                    if (difficulty == GlobalVariables.Difficulty.EASY) {
-                        game.player.getHit(Fighter.OPPONENT_HIT_STRENGTH_EASY);
-                    } else if (difficulty == GlobalVariables.Difficulty.MEDIUM) {
-                        game.player.getHit(Fighter.OPPONENT_HIT_STRENGTH_MEDIUM);
-                    } else {
-                        game.player.getHit(Fighter.OPPONENT_HIT_STRENGTH_HARD);
-                    }
-
-                    if (game.player.isBlocking()) {
-                        // if player is blocking, play block sound
-                        game.audioManager.playSound(Assets.BLOCK_SOUND);
-                    } else {
-                        // if player is not blocking, play hit sound
-                        game.audioManager.playSound(Assets.HIT_SOUND);
-
-                        // spill some blood
-                        spillBlood(game.player);
-                    }
-
-                    // deactivate opponent's attack
-                    game.opponent.makeContact();
-
-                    // check if player has lost
-                    if (game.player.hasLost()) {
-                        // if player has lost, player loses the round
-                        loseRound();
-                    }
-                }
-            }
+        for (int i = 0; i < ticks && gameState == GameState.RUNNING; i++) {
+            update(timestep.getTickTime());
         }
     }
 
-    private void spillBlood(Fighter fighter) {
-        // use the given fighter to get the current blood splatter array and current index
-        BloodSplatter[] bloodSplatters;
-        int currentBloodSplatterIndex;
-
-        // check which fighter is being used and set blood splatter array and current index accordingly
-        if (fighter.equals(game.player)) {
-            bloodSplatters = playerBloodSplatters;
-            currentBloodSplatterIndex = currentPlayerBloodSplatterIndex;
-        } else {
-            bloodSplatters = opponentBloodSplatters;
-            currentBloodSplatterIndex = currentOpponentBloodSplatterIndex;
-        }
-
-        // activate the current blood splatter in the array
-        bloodSplatters[currentBloodSplatterIndex].activate(
-                fighter.getPosition().x + BLOOD_SPLATTER_OFFSET_X,
-                fighter.getPosition().y + BLOOD_SPLATTER_OFFSET_Y
-        );
-
-        // increment the correct blood splatter index, or return to the first if the end of the array
-        // has been reached
-        if (fighter.equals(game.player)) {
-            if (currentPlayerBloodSplatterIndex < BLOOD_SPLATTER_AMOUNT - 1) {
-                currentPlayerBloodSplatterIndex++;
-            } else {
-                currentPlayerBloodSplatterIndex = 0;
-            }
-        } else {
-            if (currentOpponentBloodSplatterIndex < BLOOD_SPLATTER_AMOUNT - 1) {
-                currentOpponentBloodSplatterIndex++;
-            } else {
-                currentOpponentBloodSplatterIndex = 0;
-            }
-        }
-
-        // activate the current blood pool in the array
-        bloodPools[currentBloodPoolIndex].activate(
-                fighter.getPosition().x,
-                fighter.getPosition().y
-        );
-
-        // increment the current blood pool index, or return the the first if the end of the blood pool
-        // array has been reached
-        if (currentBloodPoolIndex < BLOOD_POOL_AMOUNT - 1) {
-            currentBloodPoolIndex++;
-        } else {
-            currentBloodPoolIndex = 0;
+    private void runMaxSpeedTicks() {
+        // run ticks as fast as possible for a while
+        long endTime = TimeUtils.nanoTime() + MAX_PLAYBACK_FRAME_TIME;
+        while (gameState == GameState.RUNNING && TimeUtils.nanoTime() < endTime) {
+            update(timestep.getTickTime());
         }
     }
 
-    private void keepWithinRingBounds(Vector2 position) {
-        if (position.y < RING_MIN_Y) {
-            position.y = RING_MIN_Y;
-        } else if (position.y > RING_MAX_Y) {
-            position.y = RING_MAX_Y;
-        }
-
-        if (position.x < position.y / RING_SLOPE + RING_MIN_X) {
-            position.x = position.y / RING_SLOPE + RING_MIN_X;
-        } else if (position.x > position.y / -RING_SLOPE + RING_MAX_X) {
-            position.x = position.y / -RING_SLOPE + RING_MAX_X;
+    private boolean stepSimulation(float elapsedTime) {
+        // on the match thread: run the ticks that are due, publish them to be drawn, and carry on until the game
+        // is over
+        if (replayPlayer != null && playbackSpeed == PlaybackSpeed.MAX) {
+            runMaxSpeedTicks();
+        } else {
+            runTicks(elapsedTime);
         }
+        publishRenderSnapshot();
+        return gameState == GameState.RUNNING;
     }
 
-    private boolean areWithingContactDistance(Vector2 position1, Vector2 position2) {
-        // determine if the positions are within the distance in which contact is possible
-        return Math.abs(position1.x - position2.x) <= FIGHTER_CONTACT_DISTANCE_X
-                && Math.abs(position1.y - position2.y) <= FIGHTER_CONTACT_DISTANCE_Y;
-    }
-
-    private void performOpponentAi(float deltaTime) {
-        // check if opponent is making a contact decision (attack, block, etc.)
-        if (opponentAiMakingContactDecision) {
-            if (game.opponent.isBlocking()) {
-                // if opponent is blocking, stop blocking if the fighters are not within contact distance
-                // or player isn't attacking, or player has attacked and made contact
-                if (!areWithingContactDistance(game.player.getPosition(), game.opponent.getPosition())
-                        || !game.player.isAttacking() || game.player.hasMadeContact()) {
-                    game.opponent.stopBlocking();
-                    opponentAiMakingContactDecision = false;
-                }
-            } else if (!game.opponent.isAttacking()) {
-                // if opponent isn't currently attacking, check if the fighters are within contact distance
-                if (areWithingContactDistance(game.player.getPosition(), game.opponent.getPosition())) {
-                    if (opponentAiTimer <= 0f) {
-                        // if the fighters are within contact distance and the opponent AI timer has finished,
-                        // make a contact decision
-                        opponentAiMakeContactDecision();
-                    } else {
-                        // decrease the opponent AI timer by delta time
-                        opponentAiTimer -= deltaTime;
-                    }
-                } else {
-                    // if the fighters are not within contact distance, opponent shouldn't make a contact decision
-                    opponentAiMakingContactDecision = false;
-                }
-            }
+    private void publishRenderSnapshot() {
+        // copy what's drawn of the match into the snapshot that's free, and swap it into the mailbox
+        RenderSnapshot snapshot = renderSnapshots.getWriteSlot();
+        snapshot.copyFighters(game.player, game.opponent, renderFighterState);
+        snapshot.playerBloodSplatters.copyFrom(playerBloodSplatters);
+        snapshot.opponentBloodSplatters.copyFrom(opponentBloodSplatters);
+        snapshot.bloodPools.copyFrom(bloodPools);
+        snapshot.roundsWon = match.getRoundsWon();
+        snapshot.roundsLost = match.getRoundsLost();
+        snapshot.currentRound = match.getCurrentRound();
+        snapshot.difficulty = match.getDifficulty();
+        snapshot.roundTimer = match.getRoundTimer();
+        snapshot.roundState = match.getRoundState();
+        snapshot.roundStateTime = match.getRoundStateTime();
+        snapshot.localPlayerWon = hasLocalPlayerWon();
+        if (netplaySession == null) {
+            snapshot.netplayStatus = RenderSnapshot.NETPLAY_OFF;
+        } else if (netplaySession.getDesyncTick() >= 0) {
+            snapshot.netplayStatus = RenderSnapshot.NETPLAY_OUT_OF_SYNC;
+        } else if (netplaySession.isWaitingForRemote()) {
+            snapshot.netplayStatus = RenderSnapshot.NETPLAY_WAITING;
         } else {
-            if (areWithingContactDistance(game.player.getPosition(), game.opponent.getPosition())) {
-                // if opponent isn't currently making a contact decision and the fighters are within contact distance,
-                // make a contact decision
-                opponentAiMakeContactDecision();
-            } else {
-                if (opponentAiTimer <= 0f) {
-                    // if the fighters are not within contact distance and the opponent AI timer has finished,
-                    // either pursue the player or move in a random direction
-                    float pursueChance = difficulty == GlobalVariables.Difficulty.EASY ?
-                            OPPONENT_AI_PURSUE_PLAYER_CHANCE_EASY :
-                            difficulty == GlobalVariables.Difficulty.MEDIUM ?
-                                    OPPONENT_AI_PURSUE_PLAYER_CHANCE_MEDIUM :
-                                    OPPONENT_AI_PURSUE_PLAYER_CHANCE_HARD;
-
-                    if (MathUtils.random() <= pursueChance) {
-                        // opponent is pursuing player
-                        opponentAiPursuingPlayer = true;
-
-                        // move in the direction of the player
-                        opponentAiMoveTowardPlayer();
-                    } else {
-                        // opponent is not pursuing player
-                        opponentAiPursuingPlayer = false;
-
-                        // move in a random direction
-                        opponentAiMoveRandomly();
-                    }
-
-                    // set the opponent AI timer to a non-contact decision delay
-                    opponentAiTimer = OPPONENT_AI_NON_CONTACT_DECISION_DELAY;
-                } else {
-                    // if opponent is pursuing player, move in the direction of the player
-                    if (opponentAiPursuingPlayer) {
-                        opponentAiMoveTowardPlayer();
-                    }
-
-                    // decrease opponent AI timer by delta time
-                    opponentAiTimer -= deltaTime;
-                }
-            }
+            snapshot.netplayStatus = RenderSnapshot.NETPLAY_ONLINE;
         }
+        snapshot.alpha = timestep.getAlpha();
+        snapshot.tickTime = timestep.getTickTime();
+        snapshot.publishTime = TimeUtils.nanoTime();
+        renderSnapshots.publish();
     }
 
-    private void opponentAiMakeContactDecision() {
-        opponentAiMakingContactDecision = true;
-
-        // make a contact decision
-        if (game.player.isAttacking()) {
-            // if player is attacking,  and hasn't yet made contact, determine whether to block player's
-            // attack or move away
-            if (!game.player.hasMadeContact()) {
-                if (MathUtils.random() <= OPPONENT_AI_BLOCK_CHANCE) {
-                    // block player's attack
-                    game.opponent.block();
-                } else {
-                    // move away from player
-                    opponentAiMoveAwayFromPlayer();
-                }
-            }
+    private void update(float deltaTime) {
+        boolean matchOver;
+        if (netplaySession != null) {
+            // send the local input to the remote player and run the tick with their (possibly predicted) input;
+            // if they have fallen too far behind, wait for them and keep any tapped input for the next tick
+            int tapped = tappedInput.get();
+            if (!netplaySession.advance(heldInput | tapped)) return;
+            clearTappedInput(tapped);
+            matchOver = netplaySession.isMatchOverConfirmed();
         } else {
-            // if the player is not attacking, determine whether to attack or move away from player
-            if (MathUtils.random() <= OPPONENT_AI_ATTACK_CHANCE) {
-                // attack player (equal chance of punching or kicking)
-                if (MathUtils.random(1) <= 0) {
-                    game.opponent.punch();
-                } else {
-                    game.opponent.kick();
-                }
+            // get the player's input for this tick from the replay, or from the keyboard and record it
+            int input;
+            if (replayPlayer != null) {
+                input = replayPlayer.nextInput();
             } else {
-                // move away from player
-                opponentAiMoveAwayFromPlayer();
+                int tapped = tappedInput.get();
+                input = heldInput | tapped;
+                replay.recordTick(input);
+                clearTappedInput(tapped);
             }
-        }
-
-        // set the opponent AI timer to a difficulty-based contact decision delay
-        switch (difficulty) {
-            case EASY:
-                opponentAiTimer = OPPONENT_AI_CONTACT_DECISION_DELAY_EASY;
-                break;
-            case MEDIUM:
-                opponentAiTimer = OPPONENT_AI_CONTACT_DECISION_DELAY_MEDIUM;
-                break;
-            default:
-                opponentAiTimer = OPPONENT_AI_CONTACT_DECISION_DELAY_HARD;
-        }
-    }
-
-    private void opponentAiMoveTowardPlayer() {
-        // move in the direction of the player's location
-        Vector2 playerPosition = game.player.getPosition();
-        Vector2 opponentPosition = game.opponent.getPosition();
-
-        if (opponentPosition.x > playerPosition.x + FIGHTER_CONTACT_DISTANCE_X) {
-            game.opponent.moveLeft();
-        } else if (opponentPosition.x < playerPosition.x - FIGHTER_CONTACT_DISTANCE_X) {
-            game.opponent.moveRight();
-        } else {
-            game.opponent.stopMovingLeft();
-            game.opponent.stopMovingRight();
-        }
 
-        if (opponentPosition.y < playerPosition.y - FIGHTER_CONTACT_DISTANCE_Y) {
-            game.opponent.moveUp();
-        } else if (opponentPosition.y > playerPosition.y + FIGHTER_CONTACT_DISTANCE_Y) {
-            game.opponent.moveDown();
-        } else {
-            game.opponent.stopMovingUp();
-            game.opponent.stopMovingDown();
+            // update the match
+            match.setPlayerInput(input);
+            match.update(deltaTime);
+            matchOver = match.isMatchOver() || (replayPlayer != null && replayPlayer.isFinished());
         }
-    }
 
-    private void opponentAiMoveRandomly() {
-        // randomly set opponent's horizontal movement
-        switch (MathUtils.random(2)) {
-            case 0:
-                game.opponent.moveLeft();
-                break;
-            case 1:
-                game.opponent.moveRight();
-                break;
-            default:
-                game.opponent.stopMovingLeft();
-                game.opponent.stopMovingRight();
+        // if the match is over (or the replay has run out), the game is over
+        if (matchOver) {
+            gameState = GameState.GAME_OVER;
+
+            // save the replay of a match the player has just played (if it can be replayed), with the checksum
+            // the match ended on, and check a replay that's been played back ended on the same one
+            if (replayPlayer == null && isReplayable()) {
+                replay.setFinalChecksum(match.checksum());
+                saveReplay();
+            } else if (replayPlayer != null && replayPlayer.hasDiverged(match.checksum())) {
+                Gdx.app.error("GameScreen", "The replay has diverged from the recorded match");
+            }
         }
 
-        // randomly set opponent's vertical movement
-        switch (MathUtils.random(2)) {
-            case 0:
-                game.opponent.moveUp();
-                break;
-            case 1:
-                game.opponent.moveDown();
-                break;
-            default:
-                game.opponent.stopMovingUp();
-                game.opponent.stopMovingDown();
+        // update the active blood splatters and pools, at the quality last picked
+        if (effectsLevel != appliedEffectsLevel) {
+            applyEffectsQuality();
         }
+        playerBloodSplatters.update(deltaTime);
+        opponentBloodSplatters.update(deltaTime);
+        bloodPools.update(deltaTime);
     }
 
-    private void opponentAiMoveAwayFromPlayer() {
-        // move away from the player's position
-        Vector2 playerPosition = game.player.getPosition();
-        Vector2 opponentPosition = game.opponent.getPosition();
-
-        // move in the opposite direction of the player's x location
-        if (opponentPosition.x > playerPosition.x) {
-            game.opponent.moveRight();
-        } else {
-            game.opponent.moveLeft();
-        }
+    private void spillBlood(Fighter fighter) {
+        // spill a blood splatter from the given fighter (replacing their oldest one if they all are showing)
+        DecalEngine bloodSplatters = fighter.equals(game.player) ? playerBloodSplatters : opponentBloodSplatters;
+        bloodSplatters.spawn(
+                fighter.getPosition().x + BLOOD_SPLATTER_OFFSET_X,
+                fighter.getPosition().y + BLOOD_SPLATTER_OFFSET_Y,
+                0
+        );
 
-        // move in the opposite direction of the player's y location
-        if (opponentPosition.y > playerPosition.y) {
-            game.opponent.moveUp();
-        } else {
-            game.opponent.moveDown();
-        }
+        // and a blood pool with a random texture under them
+        bloodPools.spawn(
+                fighter.getPosition().x,
+                fighter.getPosition().y,
+                effectsRandom.nextInt(BLOOD_POOL_TEXTURE_AMOUNT)
+        );
     }
 
     @Override
     public void resize(int width, int height) {
         // update viewport with new screen size
         viewport.update(width, height, true);
+
+        // rebuild the static layers for it
+        staticLayersBuilt = false;
     }
 
     @Override
@@ -1060,11 +1189,19 @@ public class GameScreen implements Screen, InputProcessor {
 
     @Override
     public void hide() {
-
+        // leaving the game screen stops the match thread, and any replay or netplay match
+        stopSimulation();
+        stopReplay();
+        stopNetplay();
     }
 
     @Override
     public void dispose() {
+        stopSimulation();
+        stopNetplay();
+        if (asyncOpponentAi != null) {
+            asyncOpponentAi.dispose();
+        }
 
     }
 
@@ -1076,13 +1213,10 @@ public class GameScreen implements Screen, InputProcessor {
             // if game is in the game over state, restart the game
             if (gameState == GameState.RUNNING) {
                 // if game is running and space key has been pressed, skip any round delays
-                if (roundState == RoundState.STARTING) {
-                    roundStateTime = START_ROUND_DELAY;
-                } else if (roundState == RoundState.ENDING) {
-                    roundStateTime = END_ROUND_DELAY;
-                }
+                tapInput(PlayerInput.SKIP_DELAY);
             } else if (gameState == GameState.GAME_OVER) {
-                // if game is over and space key has been pressed, restart the game
+                // if game is over and space key has been pressed, stop any replay and restart the game
+                stopReplay();
                 startGame();
             } else {
                 // if the game is paused and space key has been pressed, resume the game
@@ -1095,48 +1229,28 @@ public class GameScreen implements Screen, InputProcessor {
             } else {
                 resumeGame();
             }
+        } else if (gameState == GameState.GAME_OVER && keycode == Input.Keys.R && replay.getTickCount() > 0
+                && isReplayable()) {
+            // if the game is over and the R key has been pressed, play back the match that was just played
+            playReplay(replayPlayer != null ? replayPlayer.getReplay() : replay);
+            startGame();
+        } else if (replayPlayer != null && (keycode == Input.Keys.NUM_1 || keycode == Input.Keys.NUM_8
+                || keycode == Input.Keys.NUM_0)) {
+            // if a replay is playing, change the playback speed (1x, 8x or as fast as possible)
+            playbackSpeed = keycode == Input.Keys.NUM_1 ? PlaybackSpeed.NORMAL :
+                    keycode == Input.Keys.NUM_8 ? PlaybackSpeed.FAST : PlaybackSpeed.MAX;
         } else if (keycode == Input.Keys.N) {
             // toggle music on or off
             game.audioManager.toggleMusic();
         } else if (keycode == Input.Keys.M) {
             // change the difficulty setting
-            switch (difficulty) {
-                case EASY:
-                    difficulty = GlobalVariables.Difficulty.MEDIUM;
-                    break;
-                case MEDIUM:
-                    difficulty = GlobalVariables.Difficulty.HARD;
-                    break;
-                default:
-                    difficulty = GlobalVariables.Difficulty.EASY;
-            }
+            tapInput(PlayerInput.CHANGE_DIFFICULTY);
         } else if (keycode == Input.Keys.B){
             // toggle blood on or off
             showingBlood = !showingBlood;
         } else {
-            if (roundState == RoundState.IN_PROGRESS) {
-                // check if player has pressed a movement key
-                if (keycode == Input.Keys.LEFT || keycode == Input.Keys.A) {
-                    game.player.moveLeft();
-                } else if (keycode == Input.Keys.RIGHT || keycode == Input.Keys.D) {
-                    game.player.moveRight();
-                }
-
-                if (keycode == Input.Keys.UP || keycode == Input.Keys.W) {
-                    game.player.moveUp();
-                } else if (keycode == Input.Keys.DOWN || keycode == Input.Keys.S) {
-                    game.player.moveDown();
-                }
-            }
-
-            // check if the player has pressed a block or attack key
-            if (keycode == Input.Keys.L) {
-                game.player.block();
-            } else if (keycode == Input.Keys.J) {
-                game.player.punch();
-            } else if (keycode == Input.Keys.K) {
-                game.player.kick();
-            }
+            // check if the player has pressed a movement, block or attack key
+            pressInput(getKeyInput(keycode));
         }
 
         return true;
@@ -1144,25 +1258,64 @@ public class GameScreen implements Screen, InputProcessor {
 
     @Override
     public boolean keyUp(int keycode) {
-        // if player has release a movement key, stop moving in that direction
-        if (keycode == Input.Keys.LEFT || keycode == Input.Keys.A) {
-            game.player.stopMovingLeft();
-        } else if (keycode == Input.Keys.RIGHT || keycode == Input.Keys.D) {
-            game.player.stopMovingRight();
-        }
+        // if player has released a movement, block or attack key, stop holding it
+        heldInput &= ~getKeyInput(keycode);
 
-        if (keycode == Input.Keys.UP || keycode == Input.Keys.W) {
-            game.player.stopMovingUp();
-        } else if (keycode == Input.Keys.DOWN || keycode == Input.Keys.S) {
-            game.player.stopMovingDown();
-        }
+        return true;
+    }
 
-        // if player has released a block key, stop attacking
-        if (keycode == Input.Keys.L) {
-            game.player.stopBlocking();
+    private int getKeyInput(int keycode) {
+        // get the player input for the given key
+        switch (keycode) {
+            case Input.Keys.LEFT:
+            case Input.Keys.A:
+                return PlayerInput.LEFT;
+            case Input.Keys.RIGHT:
+            case Input.Keys.D:
+                return PlayerInput.RIGHT;
+            case Input.Keys.UP:
+            case Input.Keys.W:
+                return PlayerInput.UP;
+            case Input.Keys.DOWN:
+            case Input.Keys.S:
+                return PlayerInput.DOWN;
+            case Input.Keys.L:
+                return PlayerInput.BLOCK;
+            case Input.Keys.J:
+                return PlayerInput.PUNCH;
+            case Input.Keys.K:
+                return PlayerInput.KICK;
+            default:
+                return PlayerInput.NONE;
         }
+    }
 
-        return true;
+    private void pressInput(int input) {
+        // inputs are ignored while a replay is playing
+        if (replayPlayer != null) return;
+
+        // hold the input, and make sure it reaches the next tick even if it's released before then
+        heldInput |= input;
+        tapInput(input);
+    }
+
+    private void tapInput(int input) {
+        // inputs are ignored while a replay is playing
+        if (replayPlayer != null) return;
+
+        // send the input to the next tick only
+        int tapped;
+        do {
+            tapped = tappedInput.get();
+        } while (!tappedInput.compareAndSet(tapped, tapped | input));
+    }
+
+    private void clearTappedInput(int usedInput) {
+        // clear the tapped input a tick has used, keeping any that was tapped while the tick ran
+        int tapped;
+        do {
+            tapped = tappedInput.get();
+        } while (!tappedInput.compareAndSet(tapped, tapped & ~usedInput));
     }
 
     @Override
@@ -1188,12 +1341,9 @@ public class GameScreen implements Screen, InputProcessor {
 
                     // play click sound
                     game.audioManager.playSound(Assets.CLICK_SOUND);
-            } else if (roundState == RoundState.STARTING) {
-                // if the round is starting and the screen has been touched, skip the round delay
-                roundStateTime = START_ROUND_DELAY;
-            } else if (roundState == RoundState.ENDING) {
-                // if the round is ending and the screen has been touched, skip the round delay
-                roundStateTime = END_ROUND_DELAY;
+            } else {
+                // if the round is starting or ending and the screen has been touched, skip the round delay
+                tapInput(PlayerInput.SKIP_DELAY);
             }
         } else {
             // if game over and player has clicked our touch play again button
@@ -1221,16 +1371,10 @@ public class GameScreen implements Screen, InputProcessor {
                     game.audioManager.playMusic();
                 }
 
-                // deactivate all the blood splatters
-                for (int i = 0; i < BLOOD_SPLATTER_AMOUNT; i++) {
-                    playerBloodSplatters[i].deactivate();
-                    opponentBloodSplatters[i].deactivate();
-                }
-
-                // deactivate all the blood pools
-                for (BloodPool bloodPool : bloodPools) {
-                    bloodPool.deactivate();
-                }
+                // clear all the blood splatters and pools
+                playerBloodSplatters.clear();
+                opponentBloodSplatters.clear();
+                bloodPools.clear();
 
                 // switch to the main menu screen
                 game.setScreen(new MainMenuScreen(game));
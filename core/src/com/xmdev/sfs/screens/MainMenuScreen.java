@@ -3,12 +3,9 @@ package com.xmdev.sfs.screens;
 import com.badlogic.gdx.Gdx;
 import com.badlogic.gdx.Screen;
 import com.badlogic.gdx.graphics.Color;
-import com.badlogic.gdx.graphics.GL20;
 import com.badlogic.gdx.graphics.Texture;
 import com.badlogic.gdx.graphics.g2d.BitmapFont;
 import com.badlogic.gdx.graphics.g2d.TextureAtlas;
-import com.badlogic.gdx.graphics.glutils.ShapeRenderer;
-import com.badlogic.gdx.math.MathUtils;
 import com.badlogic.gdx.scenes.scene2d.Actor;
 import com.badlogic.gdx.scenes.scene2d.Stage;
 import com.badlogic.gdx.scenes.scene2d.ui.Button;
@@ -29,6 +26,13 @@ public class MainMenuScreen implements Screen {
     private final TextureAtlas menuItemsAtlas;
     private Texture backgroundTexture;
 
+    // how much the background is darkened behind the menu
+    private static final Color BACKGROUND_COVER_COLOR = new Color(0, 0, 0, 0.4f);
+
+    // the background, already darkened, as a static layer
+    private int backdropLayer;
+    private boolean staticLayersBuilt;
+
     // image widgets
     private Image logoImage;
     private Image fighterDisplayBackgroundImage;
@@ -170,10 +174,10 @@ public class MainMenuScreen implements Screen {
 
                 // choose a random opponent fighter from the fighter choice list, making sure it's different from
                 // player's chosen fighter
-                int index = MathUtils.random(game.fighterChoiceList.size() - 1);
+                int index = game.random.nextInt(game.fighterChoiceList.size());
                 FighterChoice fighterChoice = game.fighterChoiceList.get(index);
                 while (fighterChoice.getName().equals(game.player.getName())) {
-                    index = MathUtils.random(game.fighterChoiceList.size() - 1);
+                    index = game.random.nextInt(game.fighterChoiceList.size());
                     fighterChoice = game.fighterChoiceList.get(index);
                 }
                 game.opponent.setName(fighterChoice.getName());
@@ -396,6 +400,9 @@ public class MainMenuScreen implements Screen {
         // set the stage as the input processor
         Gdx.input.setInputProcessor(stage);
 
+        // the static layers are shared, so build this screen's before it's drawn
+        staticLayersBuilt = false;
+
         // set the fighter display name label's text to the name of the player's fighter
         fighterDisplayNameLabel.setText(game.player.getName().toUpperCase());
 
@@ -412,40 +419,31 @@ public class MainMenuScreen implements Screen {
         }
     }
 
-    @Override
-    public void render(float delta) {
-        // draw the background
-        game.batch.begin();
-
-        // set the sprite batch and the shape renderer to use the viewport camera
-        game.batch.setProjectionMatrix(stage.getCamera().combined);
-        game.shapeRenderer.setProjectionMatrix(stage.getCamera().combined);
-
-        // set the sprite batch to use the camera
-        game.batch.setProjectionMatrix(stage.getCamera().combined);
-
-        game.batch.draw(
+    private void buildStaticLayers() {
+        // put the background and the semi-transparent black cover over it into one layer, which only changes when
+        // the stage is resized
+        game.staticLayers.clear();
+        game.staticLayers.beginLayer();
+        game.staticLayers.add(
                 backgroundTexture, 0, 0,
                 backgroundTexture.getWidth() * GlobalVariables.WORLD_SCALE,
                 backgroundTexture.getHeight() * GlobalVariables.WORLD_SCALE
         );
+        game.staticLayers.setColor(BACKGROUND_COVER_COLOR);
+        game.staticLayers.add(game.whitePixel, 0, 0, stage.getWidth(), stage.getHeight());
+        backdropLayer = game.staticLayers.endLayer();
+        staticLayersBuilt = true;
+    }
 
-        game.batch.end();
-
-        // cover the background with a semi-transparent black color
-        game.batch.begin();
-        Gdx.gl.glEnable(GL20.GL_BLEND);
-        Gdx.gl.glBlendFunc(GL20.GL_SRC_ALPHA, GL20.GL_ONE_MINUS_SRC_ALPHA);
-        game.shapeRenderer.begin(ShapeRenderer.ShapeType.Filled);
-        game.shapeRenderer.setColor(0, 0, 0, 0.4f);
-        game.shapeRenderer.rect(
-                0, 0,
-                stage.getWidth(),
-                stage.getHeight()
-        );
-        game.shapeRenderer.end();
-        Gdx.gl.glDisable(GL20.GL_BLEND);
-        game.batch.end();
+    @Override
+    public void render(float delta) {
+        // build the darkened background (again) if the screen has just been shown or resized
+        if (!staticLayersBuilt) {
+            buildStaticLayers();
+        }
+
+        // draw the darkened background from the sprite cache
+        game.staticLayers.draw(stage.getCamera().combined, backdropLayer);
 
         // tell the stage to do actions and draw itself
         stage.act(delta);
@@ -456,6 +454,9 @@ public class MainMenuScreen implements Screen {
     public void resize(int width, int height) {
         // update the stage's viewport with the new screen size
         stage.getViewport().update(width, height, true);
+
+        // the cover has to fill the resized stage
+        staticLayersBuilt = false;
     }
 
     @Override
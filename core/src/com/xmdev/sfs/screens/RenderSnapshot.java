@@ -0,0 +1,66 @@
+package com.xmdev.sfs.screens;
+
+import com.badlogic.gdx.graphics.Color;
+import com.xmdev.sfs.objects.DecalEngine;
+import com.xmdev.sfs.objects.Fighter;
+import com.xmdev.sfs.simulation.MatchSimulation;
+import com.xmdev.sfs.simulation.MatchSnapshot;
+
+class RenderSnapshot {
+    // everything the game screen draws of a tick, filled in by whichever thread runs the match and published
+    // whole; once published it's only read, until the mailbox hands it back to be filled in again
+    static final int NETPLAY_OFF = 0;
+    static final int NETPLAY_ONLINE = 1;
+    static final int NETPLAY_WAITING = 2;
+    static final int NETPLAY_OUT_OF_SYNC = 3;
+
+    // copies of the fighters, which look like the match's fighters and share their animation frames
+    final Fighter player = new Fighter("Player", Color.WHITE);
+    final Fighter opponent = new Fighter("Opponent", Color.WHITE);
+
+    // copies of the blood splatters and pools
+    final DecalEngine playerBloodSplatters;
+    final DecalEngine opponentBloodSplatters;
+    final DecalEngine bloodPools;
+
+    // the HUD
+    int roundsWon;
+    int roundsLost;
+    int currentRound;
+    int difficulty;
+    float roundTimer;
+    MatchSimulation.RoundState roundState;
+    float roundStateTime;
+    boolean localPlayerWon;
+    int netplayStatus;
+
+    // how far past the tick the snapshot was taken (in ticks), when it was published and how long a tick is, so
+    // the fighters can be drawn between ticks however long after it's drawn
+    float alpha;
+    long publishTime;
+    float tickTime;
+
+    RenderSnapshot(DecalEngine playerBloodSplatters, DecalEngine opponentBloodSplatters, DecalEngine bloodPools) {
+        this.playerBloodSplatters = new DecalEngine(playerBloodSplatters);
+        this.opponentBloodSplatters = new DecalEngine(opponentBloodSplatters);
+        this.bloodPools = new DecalEngine(bloodPools);
+    }
+
+    void copyFighters(Fighter player, Fighter opponent, MatchSnapshot fighterState) {
+        // copy the fighters' state through the given snapshot, then their names, colors and frames
+        fighterState.rewind();
+        player.saveState(fighterState);
+        opponent.saveState(fighterState);
+        fighterState.rewind();
+        this.player.restoreState(fighterState);
+        this.opponent.restoreState(fighterState);
+        this.player.copyAppearance(player);
+        this.opponent.copyAppearance(opponent);
+    }
+
+    float getAlpha(long time) {
+        // how far between ticks to draw the fighters at the given time, not going past the next tick
+        float ticksSincePublished = (time - publishTime) / 1e9f / tickTime;
+        return Math.min(alpha + ticksSincePublished, 1f);
+    }
+}
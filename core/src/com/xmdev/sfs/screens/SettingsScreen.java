@@ -2,22 +2,27 @@ package com.xmdev.sfs.screens;
 
 import com.badlogic.gdx.Gdx;
 import com.badlogic.gdx.Screen;
-import com.badlogic.gdx.graphics.GL20;
+import com.badlogic.gdx.graphics.Color;
 import com.badlogic.gdx.graphics.Texture;
+import com.badlogic.gdx.graphics.g2d.BitmapFont;
 import com.badlogic.gdx.graphics.g2d.TextureAtlas;
-import com.badlogic.gdx.graphics.glutils.ShapeRenderer;
 import com.badlogic.gdx.scenes.scene2d.Actor;
 import com.badlogic.gdx.scenes.scene2d.Stage;
 import com.badlogic.gdx.scenes.scene2d.ui.Button;
 import com.badlogic.gdx.scenes.scene2d.ui.Image;
+import com.badlogic.gdx.scenes.scene2d.ui.Label;
 import com.badlogic.gdx.scenes.scene2d.ui.Stack;
 import com.badlogic.gdx.scenes.scene2d.ui.Table;
 import com.badlogic.gdx.scenes.scene2d.utils.ChangeListener;
 import com.badlogic.gdx.scenes.scene2d.utils.TextureRegionDrawable;
+import com.badlogic.gdx.utils.Align;
 import com.badlogic.gdx.utils.viewport.ExtendViewport;
 import com.xmdev.sfs.SFS;
 import com.xmdev.sfs.resources.Assets;
 import com.xmdev.sfs.resources.GlobalVariables;
+import com.xmdev.sfs.simulation.DifficultyProfiles;
+
+import java.util.Locale;
 
 public class SettingsScreen implements Screen {
     private final SFS game;
@@ -25,6 +30,13 @@ public class SettingsScreen implements Screen {
     private final TextureAtlas menuItemsAtlas;
     private Texture settingsBackgroundTexture;
 
+    // how much the background is darkened behind the menu
+    private static final Color BACKGROUND_COVER_COLOR = new Color(0, 0, 0, 0.4f);
+
+    // the background, already darkened, as a static layer
+    private int backdropLayer;
+    private boolean staticLayersBuilt;
+
     // image widgets
     private Image settingsImage;
     private Image musicSettingBackgroundImage;
@@ -32,9 +44,7 @@ public class SettingsScreen implements Screen {
     private Image difficultySettingBackgroundImage;
     private Image fullScreenSettingBackgroundImage;
     private Image bloodSettingBackgroundImage;
-    private Image easyImage;
-    private Image mediumImage;
-    private Image hardImage;
+    private Actor[] difficultyWidgets;
 
     // button widgets
     private Button backButton;
@@ -114,24 +124,30 @@ public class SettingsScreen implements Screen {
                 bloodSettingBackgroundImage.getHeight() * GlobalVariables.WORLD_SCALE
         );
 
-        // create the difficulty images
-        easyImage = new Image(menuItemsAtlas.findRegion("Easy"));
-        easyImage.setSize(
-                easyImage.getWidth() * GlobalVariables.WORLD_SCALE,
-                easyImage.getHeight() * GlobalVariables.WORLD_SCALE
-        );
-
-        mediumImage = new Image(menuItemsAtlas.findRegion("Medium"));
-        mediumImage.setSize(
-                mediumImage.getWidth() * GlobalVariables.WORLD_SCALE,
-                mediumImage.getHeight() * GlobalVariables.WORLD_SCALE
-        );
-
-        hardImage = new Image(menuItemsAtlas.findRegion("Hard"));
-        hardImage.setSize(
-                hardImage.getWidth() * GlobalVariables.WORLD_SCALE,
-                hardImage.getHeight() * GlobalVariables.WORLD_SCALE
-        );
+        // create a widget for every difficulty: its image in the menu items atlas (named like "Easy" for EASY),
+        // or its name in the small font if the atlas has no image for it
+        DifficultyProfiles profiles = game.difficultyProfiles;
+        difficultyWidgets = new Actor[profiles.getDifficultyCount()];
+        for (int i = 0; i < difficultyWidgets.length; i++) {
+            String name = profiles.getName(i);
+            TextureAtlas.AtlasRegion region = menuItemsAtlas.findRegion(
+                    name.substring(0, 1).toUpperCase(Locale.ROOT) + name.substring(1).toLowerCase(Locale.ROOT)
+            );
+            if (region != null) {
+                Image image = new Image(region);
+                image.setSize(
+                        image.getWidth() * GlobalVariables.WORLD_SCALE,
+                        image.getHeight() * GlobalVariables.WORLD_SCALE
+                );
+                difficultyWidgets[i] = image;
+            } else {
+                Label label = new Label(name, new Label.LabelStyle(
+                        game.assets.manager.get(Assets.SMALL_FONT, BitmapFont.class), GlobalVariables.GOLD
+                ));
+                label.setAlignment(Align.center);
+                difficultyWidgets[i] = label;
+            }
+        }
     }
 
     private void createButtons() {
@@ -269,27 +285,9 @@ public class SettingsScreen implements Screen {
                 // play clicked sound
                 game.audioManager.playSound(Assets.CLICK_SOUND);
 
-                // set the previous difficulty setting, or go to hard if currently on easy;
-                // also make the corresponding difficulty image visible and other's invisible
-                switch (game.settingsManager.getDifficultySetting()) {
-                    case EASY:
-                        game.settingsManager.setDifficultySetting(GlobalVariables.Difficulty.HARD);
-                        easyImage.setVisible(false);
-                        mediumImage.setVisible(false);
-                        hardImage.setVisible(true);
-                        break;
-                    case MEDIUM:
-                        game.settingsManager.setDifficultySetting(GlobalVariables.Difficulty.EASY);
-                        easyImage.setVisible(true);
-                        mediumImage.setVisible(false);
-                        hardImage.setVisible(false);
-                        break;
-                    default:
-                        game.settingsManager.setDifficultySetting(GlobalVariables.Difficulty.MEDIUM);
-                        easyImage.setVisible(false);
-                        mediumImage.setVisible(true);
-                        hardImage.setVisible(false);
-                }
+                // set the previous difficulty setting, or go to the last one if currently on the first
+                int count = difficultyWidgets.length;
+                showDifficultySetting((game.settingsManager.getDifficultySetting() + count - 1) % count);
             }
         });
 
@@ -300,27 +298,8 @@ public class SettingsScreen implements Screen {
                 // play clicked sound
                 game.audioManager.playSound(Assets.CLICK_SOUND);
 
-                // set the next difficulty setting, or go to easy if currently on hard;
-                // also make the corresponding difficulty image visible and other's invisible
-                switch (game.settingsManager.getDifficultySetting()) {
-                    case EASY:
-                        game.settingsManager.setDifficultySetting(GlobalVariables.Difficulty.MEDIUM);
-                        easyImage.setVisible(false);
-                        mediumImage.setVisible(true);
-                        hardImage.setVisible(false);
-                        break;
-                    case MEDIUM:
-                        game.settingsManager.setDifficultySetting(GlobalVariables.Difficulty.HARD);
-                        easyImage.setVisible(false);
-                        mediumImage.setVisible(false);
-                        hardImage.setVisible(true);
-                        break;
-                    default:
-                        game.settingsManager.setDifficultySetting(GlobalVariables.Difficulty.EASY);
-                        easyImage.setVisible(true);
-                        mediumImage.setVisible(false);
-                        hardImage.setVisible(false);
-                }
+                // set the next difficulty setting, or go back to the first one if currently on the last
+                showDifficultySetting((game.settingsManager.getDifficultySetting() + 1) % difficultyWidgets.length);
             }
         });
 
@@ -435,10 +414,13 @@ public class SettingsScreen implements Screen {
 
         // create the difficulty image stack and add the difficulty images to it
         Stack difficultyImageStack = new Stack();
-        difficultyImageStack.add(easyImage);
-        difficultyImageStack.add(mediumImage);
-        difficultyImageStack.add(hardImage);
-        difficultyImageStack.setSize(easyImage.getWidth(), easyImage.getHeight());
+        float difficultyWidth = 0f, difficultyHeight = 0f;
+        for (Actor difficultyWidget : difficultyWidgets) {
+            difficultyImageStack.add(difficultyWidget);
+            difficultyWidth = Math.max(difficultyWidth, difficultyWidget.getWidth());
+            difficultyHeight = Math.max(difficultyHeight, difficultyWidget.getHeight());
+        }
+        difficultyImageStack.setSize(difficultyWidth, difficultyHeight);
 
         // add the difficulty selection buttons and the difficulty selection stack to the difficulty selection table
         difficultySelectionTable.add(previousDifficultyButton).size(
@@ -517,6 +499,9 @@ public class SettingsScreen implements Screen {
         // set the stage as the input processor
         Gdx.input.setInputProcessor(stage);
 
+        // the static layers are shared, so build this screen's before it's drawn
+        staticLayersBuilt = false;
+
         // set the settings widgets to show the current settings
         if (game.settingsManager.isMusicSettingOn()) {
             musicToggleButton.setChecked(true);
@@ -526,19 +511,7 @@ public class SettingsScreen implements Screen {
             soundsToggleButton.setChecked(true);
         }
 
-        switch (game.settingsManager.getDifficultySetting()) {
-            case EASY:
-                mediumImage.setVisible(false);
-                hardImage.setVisible(false);
-                break;
-            case MEDIUM:
-                easyImage.setVisible(false);
-                hardImage.setVisible(false);
-                break;
-            default:
-                easyImage.setVisible(false);
-                mediumImage.setVisible(false);
-        }
+        showDifficultySetting(game.settingsManager.getDifficultySetting());
 
         if (game.settingsManager.isFullScreenSettingOn()) {
             fullScreenCheckButton.setChecked(true);
@@ -549,40 +522,39 @@ public class SettingsScreen implements Screen {
         }
     }
 
-    @Override
-    public void render(float delta) {
-        // draw the background
-        game.batch.begin();
-
-        // set the sprite batch and the shape renderer to use the viewport camera
-        game.batch.setProjectionMatrix(stage.getCamera().combined);
-        game.shapeRenderer.setProjectionMatrix(stage.getCamera().combined);
-
-        // set the sprite batch to use the camera
-        game.batch.setProjectionMatrix(stage.getCamera().combined);
+    private void showDifficultySetting(int difficulty) {
+        // set the difficulty setting and make its widget visible and the others invisible
+        game.settingsManager.setDifficultySetting(difficulty);
+        for (int i = 0; i < difficultyWidgets.length; i++) {
+            difficultyWidgets[i].setVisible(i == difficulty);
+        }
+    }
 
-        game.batch.draw(
+    private void buildStaticLayers() {
+        // put the background and the semi-transparent black cover over it into one layer, which only changes when
+        // the stage is resized
+        game.staticLayers.clear();
+        game.staticLayers.beginLayer();
+        game.staticLayers.add(
                 settingsBackgroundTexture, 0, 0,
                 settingsBackgroundTexture.getWidth() * GlobalVariables.WORLD_SCALE,
                 settingsBackgroundTexture.getHeight() * GlobalVariables.WORLD_SCALE
         );
+        game.staticLayers.setColor(BACKGROUND_COVER_COLOR);
+        game.staticLayers.add(game.whitePixel, 0, 0, stage.getWidth(), stage.getHeight());
+        backdropLayer = game.staticLayers.endLayer();
+        staticLayersBuilt = true;
+    }
 
-        game.batch.end();
-
-        // cover the background with a semi-transparent black color
-        game.batch.begin();
-        Gdx.gl.glEnable(GL20.GL_BLEND);
-        Gdx.gl.glBlendFunc(GL20.GL_SRC_ALPHA, GL20.GL_ONE_MINUS_SRC_ALPHA);
-        game.shapeRenderer.begin(ShapeRenderer.ShapeType.Filled);
-        game.shapeRenderer.setColor(0, 0, 0, 0.4f);
-        game.shapeRenderer.rect(
-                0, 0,
-                stage.getWidth(),
-                stage.getHeight()
-        );
-        game.shapeRenderer.end();
-        Gdx.gl.glDisable(GL20.GL_BLEND);
-        game.batch.end();
+    @Override
+    public void render(float delta) {
+        // build the darkened background (again) if the screen has just been shown or resized
+        if (!staticLayersBuilt) {
+            buildStaticLayers();
+        }
+
+        // draw the darkened background from the sprite cache
+        game.staticLayers.draw(stage.getCamera().combined, backdropLayer);
 
         // tell the stage to do actions and draw itself
         stage.act(delta);
@@ -593,6 +565,9 @@ public class SettingsScreen implements Screen {
     public void resize(int width, int height) {
         // update the stage's viewport with the new screen size
         stage.getViewport().update(width, height, true);
+
+        // the cover has to fill the resized stage
+        staticLayersBuilt = false;
     }
 
     @Override
@@ -0,0 +1,281 @@
+package com.xmdev.sfs.simulation;
+
+import com.badlogic.gdx.graphics.Color;
+import com.badlogic.gdx.utils.TimeUtils;
+import com.xmdev.sfs.objects.Fighter;
+
+import java.util.concurrent.locks.LockSupport;
+
+public class AsyncOpponentAi implements OpponentAi {
+    // room for decisions waiting to be applied
+    private static final int DECISION_QUEUE_CAPACITY = 64;
+
+    // commands, in the order they're applied: stops first, then moves, then blocks and attacks
+    private static final int STOP_BLOCKING = 1;
+    private static final int STOP_MOVING_LEFT = 1 << 1;
+    private static final int STOP_MOVING_RIGHT = 1 << 2;
+    private static final int STOP_MOVING_UP = 1 << 3;
+    private static final int STOP_MOVING_DOWN = 1 << 4;
+    private static final int MOVE_LEFT = 1 << 5;
+    private static final int MOVE_RIGHT = 1 << 6;
+    private static final int MOVE_UP = 1 << 7;
+    private static final int MOVE_DOWN = 1 << 8;
+    private static final int BLOCK = 1 << 9;
+    private static final int PUNCH = 1 << 10;
+    private static final int KICK = 1 << 11;
+
+    // the state of both fighters for a tick, filled in by the match and only read by the worker
+    private static class TickState {
+        final Fighter self = new Fighter("Self", Color.WHITE);
+        final Fighter target = new Fighter("Target", Color.WHITE);
+        int tick;
+        int generation;
+        float deltaTime;
+        int difficulty;
+        long publishTime;
+    }
+
+    // records the commands the AI gives, with a later command cancelling an earlier opposite one
+    private static class CommandRecorder implements FighterCommands {
+        int commands;
+
+        @Override
+        public void moveLeft() {
+            commands = (commands & ~STOP_MOVING_LEFT) | MOVE_LEFT;
+        }
+
+        @Override
+        public void moveRight() {
+            commands = (commands & ~STOP_MOVING_RIGHT) | MOVE_RIGHT;
+        }
+
+        @Override
+        public void moveUp() {
+            commands = (commands & ~STOP_MOVING_UP) | MOVE_UP;
+        }
+
+        @Override
+        public void moveDown() {
+            commands = (commands & ~STOP_MOVING_DOWN) | MOVE_DOWN;
+        }
+
+        @Override
+        public void stopMovingLeft() {
+            commands = (commands & ~MOVE_LEFT) | STOP_MOVING_LEFT;
+        }
+
+        @Override
+        public void stopMovingRight() {
+            commands = (commands & ~MOVE_RIGHT) | STOP_MOVING_RIGHT;
+        }
+
+        @Override
+        public void stopMovingUp() {
+            commands = (commands & ~MOVE_UP) | STOP_MOVING_UP;
+        }
+
+        @Override
+        public void stopMovingDown() {
+            commands = (commands & ~MOVE_DOWN) | STOP_MOVING_DOWN;
+        }
+
+        @Override
+        public void block() {
+            commands = (commands & ~STOP_BLOCKING) | BLOCK;
+        }
+
+        @Override
+        public void stopBlocking() {
+            commands = (commands & ~BLOCK) | STOP_BLOCKING;
+        }
+
+        @Override
+        public void punch() {
+            commands |= PUNCH;
+        }
+
+        @Override
+        public void kick() {
+            commands |= KICK;
+        }
+    }
+
+    // the AI that makes the decisions; it runs on the worker thread only, so it needs its own random stream
+    private final OpponentAi ai;
+
+    // fighter states go out through the mailbox, decisions come back through the queue
+    private final Mailbox<TickState> mailbox = new Mailbox<>(new TickState(), new TickState(), new TickState());
+    private final DecisionQueue decisions = new DecisionQueue(DECISION_QUEUE_CAPACITY);
+    private final MatchSnapshot fighterState = new MatchSnapshot();
+    private Thread worker;
+    private volatile boolean running;
+
+    // match thread: the current tick, and a generation that changes every match so old decisions are ignored
+    private int tick;
+    private int generation;
+
+    // metrics, volatile since the render thread reads them while the match thread (or, for dropped decisions, the
+    // worker) writes them
+    private volatile int droppedTicks; // ticks the worker never saw, because a newer one replaced them
+    private volatile int droppedDecisions; // decisions the queue had no room for
+    private volatile int appliedDecisions;
+    private volatile long lastTurnaroundTime, maxTurnaroundTime, totalTurnaroundTime; // nanoseconds
+
+    public AsyncOpponentAi(OpponentAi ai) {
+        this.ai = ai;
+    }
+
+    public int getDroppedTicks() {
+        return droppedTicks;
+    }
+
+    public int getDroppedDecisions() {
+        return droppedDecisions;
+    }
+
+    public int getAppliedDecisions() {
+        return appliedDecisions;
+    }
+
+    public long getLastTurnaroundTime() {
+        // nanoseconds from the fighters' state being published to the decision made from it being applied
+        return lastTurnaroundTime;
+    }
+
+    public long getMaxTurnaroundTime() {
+        return maxTurnaroundTime;
+    }
+
+    public long getAverageTurnaroundTime() {
+        return appliedDecisions > 0 ? totalTurnaroundTime / appliedDecisions : 0L;
+    }
+
+    public void resetMetrics() {
+        droppedTicks = droppedDecisions = appliedDecisions = 0;
+        lastTurnaroundTime = maxTurnaroundTime = totalTurnaroundTime = 0L;
+    }
+
+    @Override
+    public void reset() {
+        // the worker resets the AI itself when it sees the new generation
+        generation++;
+        tick = 0;
+    }
+
+    @Override
+    public void update(float deltaTime, FighterView self, FighterView target, FighterCommands commands,
+                       int difficulty) {
+        if (worker == null) {
+            startWorker();
+        }
+
+        // apply the decisions that have come back since the last tick
+        while (!decisions.isEmpty()) {
+            if (decisions.getGeneration() == generation) {
+                apply(decisions.getCommands(), commands);
+
+                long turnaroundTime = TimeUtils.nanoTime() - decisions.getPublishTime();
+                lastTurnaroundTime = turnaroundTime;
+                maxTurnaroundTime = Math.max(maxTurnaroundTime, turnaroundTime);
+                totalTurnaroundTime += turnaroundTime;
+                appliedDecisions++;
+            }
+            decisions.remove();
+        }
+
+        // publish the state of this tick for the worker
+        TickState state = mailbox.getWriteSlot();
+        fighterState.rewind();
+        self.saveState(fighterState);
+        target.saveState(fighterState);
+        fighterState.rewind();
+        state.self.restoreState(fighterState);
+        state.target.restoreState(fighterState);
+        state.tick = tick++;
+        state.generation = generation;
+        state.deltaTime = deltaTime;
+        state.difficulty = difficulty;
+        state.publishTime = TimeUtils.nanoTime();
+        if (mailbox.publish()) {
+            droppedTicks++;
+        }
+        LockSupport.unpark(worker);
+    }
+
+    private void apply(int command, FighterCommands commands) {
+        if ((command & STOP_BLOCKING) != 0) commands.stopBlocking();
+        if ((command & STOP_MOVING_LEFT) != 0) commands.stopMovingLeft();
+        if ((command & STOP_MOVING_RIGHT) != 0) commands.stopMovingRight();
+        if ((command & STOP_MOVING_UP) != 0) commands.stopMovingUp();
+        if ((command & STOP_MOVING_DOWN) != 0) commands.stopMovingDown();
+        if ((command & MOVE_LEFT) != 0) commands.moveLeft();
+        if ((command & MOVE_RIGHT) != 0) commands.moveRight();
+        if ((command & MOVE_UP) != 0) commands.moveUp();
+        if ((command & MOVE_DOWN) != 0) commands.moveDown();
+        if ((command & BLOCK) != 0) commands.block();
+        if ((command & PUNCH) != 0) commands.punch();
+        if ((command & KICK) != 0) commands.kick();
+    }
+
+    private void startWorker() {
+        running = true;
+        worker = new Thread(new Runnable() {
+            @Override
+            public void run() {
+                runWorker();
+            }
+        }, "OpponentAi");
+        worker.setDaemon(true);
+        worker.start();
+    }
+
+    private void runWorker() {
+        CommandRecorder recorder = new CommandRecorder();
+        int currentGeneration = -1;
+        int lastTick = 0;
+
+        while (running) {
+            // wait for the latest tick, skipping any the match published in the meantime; the match unparks the
+            // worker after every tick it publishes, so it sleeps for as long as no match is running
+            TickState state = mailbox.take();
+            if (state == null) {
+                LockSupport.park(this);
+                continue;
+            }
+
+            // start over for a new match
+            if (state.generation != currentGeneration) {
+                ai.reset();
+                currentGeneration = state.generation;
+                lastTick = state.tick - 1;
+            }
+
+            // let the AI catch up on all the time since the last tick it saw, and send its decision back
+            float deltaTime = (state.tick - lastTick) * state.deltaTime;
+            lastTick = state.tick;
+            recorder.commands = 0;
+            ai.update(deltaTime, state.self, state.target, recorder, state.difficulty);
+            if (!decisions.offer(state.generation, recorder.commands, state.publishTime)) {
+                droppedDecisions++;
+            }
+        }
+    }
+
+    public void dispose() {
+        // stop the worker; it finishes the decision it's making, if any
+        running = false;
+        if (worker != null) {
+            LockSupport.unpark(worker);
+            worker = null;
+        }
+    }
+
+    @Override
+    public void saveState(MatchSnapshot snapshot) {
+        // the AI's state belongs to the worker thread, so it isn't part of match snapshots
+    }
+
+    @Override
+    public void restoreState(MatchSnapshot snapshot) {
+    }
+}
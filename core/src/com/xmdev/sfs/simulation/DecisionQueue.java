@@ -0,0 +1,60 @@
+package com.xmdev.sfs.simulation;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+class DecisionQueue {
+    // a fixed-size ring with one producer and one consumer; neither side ever blocks or retries, a full queue just
+    // refuses the decision
+    private final int[] generations;
+    private final int[] commands;
+    private final long[] publishTimes;
+    private final int mask;
+    private final AtomicLong head = new AtomicLong();
+    private final AtomicLong tail = new AtomicLong();
+
+    DecisionQueue(int capacity) {
+        if (capacity <= 0 || (capacity & (capacity - 1)) != 0) {
+            throw new IllegalArgumentException("Capacity must be a positive power of two: " + capacity);
+        }
+        generations = new int[capacity];
+        commands = new int[capacity];
+        publishTimes = new long[capacity];
+        mask = capacity - 1;
+    }
+
+    boolean offer(int generation, int command, long publishTime) {
+        // producer: write the decision, then make it visible by moving the tail past it
+        long currentTail = tail.get();
+        if (currentTail - head.get() > mask) {
+            return false;
+        }
+        int index = (int) currentTail & mask;
+        generations[index] = generation;
+        commands[index] = command;
+        publishTimes[index] = publishTime;
+        tail.lazySet(currentTail + 1);
+        return true;
+    }
+
+    boolean isEmpty() {
+        // consumer: the tail is read with a volatile read, so everything written before it was moved is visible
+        return head.get() == tail.get();
+    }
+
+    int getGeneration() {
+        return generations[(int) head.get() & mask];
+    }
+
+    int getCommands() {
+        return commands[(int) head.get() & mask];
+    }
+
+    long getPublishTime() {
+        return publishTimes[(int) head.get() & mask];
+    }
+
+    void remove() {
+        // consumer: hand the slot back to the producer
+        head.lazySet(head.get() + 1);
+    }
+}
@@ -0,0 +1,272 @@
+package com.xmdev.sfs.simulation;
+
+import com.badlogic.gdx.math.RandomXS128;
+
+public class DefaultOpponentAi implements OpponentAi {
+    public static final OpponentAiFactory FACTORY = new OpponentAiFactory() {
+        @Override
+        public OpponentAi create(RandomXS128 random) {
+            return new DefaultOpponentAi(random);
+        }
+    };
+
+    // fighters, set for each update
+    private FighterView fighter;
+    private FighterView target;
+    private FighterCommands commands;
+
+    // random decisions come from the match's own random stream
+    private final RandomXS128 random;
+
+    // the chances and delays for each difficulty
+    private final DifficultyProfiles profiles;
+
+    // the player's habits, if the AI is learning them
+    private PlayerModel playerModel;
+
+    // how long a pre-emptive block lasts without the target attacking
+    private static final float ANTICIPATION_TIME = 0.4f;
+
+    // decisions
+    private float timer;
+    private boolean makingContactDecision;
+    private boolean pursuingTarget;
+    private float anticipationTimer;
+
+    public DefaultOpponentAi(RandomXS128 random) {
+        this(random, DifficultyProfiles.createDefault());
+    }
+
+    public DefaultOpponentAi(RandomXS128 random, DifficultyProfiles profiles) {
+        this.random = random;
+        this.profiles = profiles;
+    }
+
+    public void setPlayerModel(PlayerModel playerModel) {
+        // the model of the target's habits, which is only read here (null to go by chance alone)
+        this.playerModel = playerModel;
+    }
+
+    @Override
+    public void reset() {
+        timer = 0f;
+        makingContactDecision = false;
+        pursuingTarget = false;
+        anticipationTimer = 0f;
+    }
+
+    @Override
+    public void update(float deltaTime, FighterView self, FighterView target, FighterCommands commands,
+                       int difficulty) {
+        // the AI controls its own fighter through the commands and fights against the target
+        this.fighter = self;
+        this.target = target;
+        this.commands = commands;
+
+        // check if the fighter is making a contact decision (attack, block, etc.)
+        if (makingContactDecision) {
+            if (fighter.isBlocking()) {
+                // if the fighter is blocking, stop blocking if the fighters are not within contact distance
+                // or the target isn't attacking (unless the fighter is blocking an attack it expects),
+                // or the target has attacked and made contact
+                if (anticipationTimer > 0f && !target.isAttacking()) {
+                    anticipationTimer -= deltaTime;
+                } else if (!MatchSimulation.areWithinContactDistance(target, fighter)
+                        || !target.isAttacking() || target.hasMadeContact()) {
+                    commands.stopBlocking();
+                    makingContactDecision = false;
+                }
+            } else if (!fighter.isAttacking()) {
+                // if the fighter isn't currently attacking, check if the fighters are within contact distance
+                if (MatchSimulation.areWithinContactDistance(target, fighter)) {
+                    if (timer <= 0f) {
+                        // if the fighters are within contact distance and the AI timer has finished,
+                        // make a contact decision
+                        makeContactDecision(difficulty);
+                    } else {
+                        // decrease the AI timer by delta time
+                        timer -= deltaTime;
+                    }
+                } else {
+                    // if the fighters are not within contact distance, the fighter shouldn't make a contact decision
+                    makingContactDecision = false;
+                }
+            }
+        } else {
+            if (MatchSimulation.areWithinContactDistance(target, fighter)) {
+                // if the fighter isn't currently making a contact decision and the fighters are within contact
+                // distance, make a contact decision
+                makeContactDecision(difficulty);
+            } else {
+                if (timer <= 0f) {
+                    // if the fighters are not within contact distance and the AI timer has finished,
+                    // either pursue the target or move in a random direction
+                    if (random.nextFloat() <= profiles.getPursueTargetChance(difficulty)) {
+                        // fighter is pursuing the target
+                        pursuingTarget = true;
+
+                        // move in the direction of the target
+                        moveTowardTarget();
+                    } else {
+                        // fighter is not pursuing the target
+                        pursuingTarget = false;
+
+                        // move in a random direction
+                        moveRandomly();
+                    }
+
+                    // set the AI timer to a non-contact decision delay
+                    timer = profiles.getNonContactDecisionDelay(difficulty);
+                } else {
+                    // if the fighter is pursuing the target, move in the direction of the target
+                    if (pursuingTarget) {
+                        moveTowardTarget();
+                    }
+
+                    // decrease AI timer by delta time
+                    timer -= deltaTime;
+                }
+            }
+        }
+    }
+
+    @Override
+    public void saveState(MatchSnapshot snapshot) {
+        snapshot.writeFloat(timer);
+        snapshot.writeBoolean(makingContactDecision);
+        snapshot.writeBoolean(pursuingTarget);
+        snapshot.writeFloat(anticipationTimer);
+    }
+
+    @Override
+    public void restoreState(MatchSnapshot snapshot) {
+        timer = snapshot.readFloat();
+        makingContactDecision = snapshot.readBoolean();
+        pursuingTarget = snapshot.readBoolean();
+        anticipationTimer = snapshot.readFloat();
+    }
+
+    private void makeContactDecision(int difficulty) {
+        makingContactDecision = true;
+
+        // if the player's habits say they're about to attack, block before they do, and if they say they're
+        // walking in, punch them as they come
+        float predictionThreshold = profiles.getPredictionThreshold(difficulty);
+        if (playerModel != null && !target.isAttacking()) {
+            if (playerModel.getAttackProbability() >= predictionThreshold) {
+                commands.block();
+                anticipationTimer = ANTICIPATION_TIME;
+                timer = profiles.getContactDecisionDelay(difficulty);
+                return;
+            }
+            if (playerModel.getProbability(PlayerModel.APPROACH) >= predictionThreshold) {
+                commands.punch();
+                timer = profiles.getContactDecisionDelay(difficulty);
+                return;
+            }
+        }
+
+        // make a contact decision
+        if (target.isAttacking()) {
+            // if the target is attacking, and hasn't yet made contact, determine whether to block the target's
+            // attack or move away
+            if (!target.hasMadeContact()) {
+                if (random.nextFloat() <= profiles.getBlockChance(difficulty)) {
+                    // block the target's attack
+                    commands.block();
+                } else {
+                    // move away from the target
+                    moveAwayFromTarget();
+                }
+            }
+        } else {
+            // if the target is not attacking, determine whether to attack or move away from the target
+            if (random.nextFloat() <= profiles.getAttackChance(difficulty)) {
+                // attack the target (equal chance of punching or kicking)
+                if (random.nextInt(2) <= 0) {
+                    commands.punch();
+                } else {
+                    commands.kick();
+                }
+            } else {
+                // move away from the target
+                moveAwayFromTarget();
+            }
+        }
+
+        // set the AI timer to a difficulty-based contact decision delay
+        timer = profiles.getContactDecisionDelay(difficulty);
+    }
+
+    private void moveTowardTarget() {
+        // move in the direction of the target's location
+        float targetX = target.getPositionX(), targetY = target.getPositionY();
+        float fighterX = fighter.getPositionX(), fighterY = fighter.getPositionY();
+
+        if (fighterX > targetX + MatchSimulation.FIGHTER_CONTACT_DISTANCE_X) {
+            commands.moveLeft();
+        } else if (fighterX < targetX - MatchSimulation.FIGHTER_CONTACT_DISTANCE_X) {
+            commands.moveRight();
+        } else {
+            commands.stopMovingLeft();
+            commands.stopMovingRight();
+        }
+
+        if (fighterY < targetY - MatchSimulation.FIGHTER_CONTACT_DISTANCE_Y) {
+            commands.moveUp();
+        } else if (fighterY > targetY + MatchSimulation.FIGHTER_CONTACT_DISTANCE_Y) {
+            commands.moveDown();
+        } else {
+            commands.stopMovingUp();
+            commands.stopMovingDown();
+        }
+    }
+
+    private void moveRandomly() {
+        // randomly set the fighter's horizontal movement
+        switch (random.nextInt(3)) {
+            case 0:
+                commands.moveLeft();
+                break;
+            case 1:
+                commands.moveRight();
+                break;
+            default:
+                commands.stopMovingLeft();
+                commands.stopMovingRight();
+        }
+
+        // randomly set the fighter's vertical movement
+        switch (random.nextInt(3)) {
+            case 0:
+                commands.moveUp();
+                break;
+            case 1:
+                commands.moveDown();
+                break;
+            default:
+                commands.stopMovingUp();
+                commands.stopMovingDown();
+        }
+    }
+
+    private void moveAwayFromTarget() {
+        // move away from the target's position
+        float targetX = target.getPositionX(), targetY = target.getPositionY();
+        float fighterX = fighter.getPositionX(), fighterY = fighter.getPositionY();
+
+        // move in the opposite direction of the target's x location
+        if (fighterX > targetX) {
+            commands.moveRight();
+        } else {
+            commands.moveLeft();
+        }
+
+        // move in the opposite direction of the target's y location
+        if (fighterY > targetY) {
+            commands.moveUp();
+        } else {
+            commands.moveDown();
+        }
+    }
+}
@@ -0,0 +1,208 @@
+package com.xmdev.sfs.simulation;
+
+import com.badlogic.gdx.files.FileHandle;
+import com.badlogic.gdx.utils.JsonReader;
+import com.badlogic.gdx.utils.JsonValue;
+import com.badlogic.gdx.utils.SerializationException;
+import com.xmdev.sfs.objects.Fighter;
+
+import java.util.Locale;
+
+public class DifficultyProfiles {
+    // where the game looks for the profiles (the built-in values, until a retune is copied over them)
+    public static final String FILE = "data/difficulty_profiles.json";
+
+    // the built-in difficulties, by index; a profiles file lists its difficulties in the order they're cycled
+    // through, and can add any number after these
+    public static final int EASY = 0;
+    public static final int MEDIUM = 1;
+    public static final int HARD = 2;
+    private static final String[] DEFAULT_NAMES = {"EASY", "MEDIUM", "HARD"};
+
+    // the parameters of each difficulty, in the order they're stored and tuned
+    public static final int CONTACT_DECISION_DELAY = 0;
+    public static final int BLOCK_CHANCE = 1;
+    public static final int ATTACK_CHANCE = 2;
+    public static final int NON_CONTACT_DECISION_DELAY = 3;
+    public static final int PURSUE_TARGET_CHANCE = 4;
+    public static final int PLAYER_HIT_STRENGTH = 5;
+    public static final int OPPONENT_HIT_STRENGTH = 6;
+    public static final int LOOKAHEAD_ROLLOUTS = 7;
+    public static final int PREDICTION_THRESHOLD = 8;
+    public static final int PARAMETER_COUNT = 9;
+    public static final String[] PARAMETER_NAMES = {
+            "contactDecisionDelay", "blockChance", "attackChance", "nonContactDecisionDelay",
+            "pursueTargetChance", "playerHitStrength", "opponentHitStrength", "lookaheadRollouts",
+            "predictionThreshold"
+    };
+
+    // the name of every difficulty, and every parameter of every difficulty, indexed by
+    // difficulty * PARAMETER_COUNT + parameter
+    private final String[] names;
+    private final float[] values;
+
+    public DifficultyProfiles(String[] names) {
+        this.names = names.clone();
+        values = new float[names.length * PARAMETER_COUNT];
+    }
+
+    public static DifficultyProfiles createDefault() {
+        // the hand-picked values the game shipped with
+        DifficultyProfiles profiles = new DifficultyProfiles(DEFAULT_NAMES);
+        profiles.setDifficulty(EASY, 0.1f, 0.4f, 0.8f, 0.5f, 0.2f,
+                Fighter.PLAYER_HIT_STRENGTH_EASY, Fighter.OPPONENT_HIT_STRENGTH_EASY, 0f, 2f);
+        profiles.setDifficulty(MEDIUM, 0.07f, 0.4f, 0.8f, 0.5f, 0.5f,
+                Fighter.PLAYER_HIT_STRENGTH_MEDIUM, Fighter.OPPONENT_HIT_STRENGTH_MEDIUM, 0f, 0.7f);
+        profiles.setDifficulty(HARD, 0.01f, 0.4f, 0.8f, 0.5f, 1f,
+                Fighter.PLAYER_HIT_STRENGTH_HARD, Fighter.OPPONENT_HIT_STRENGTH_HARD,
+                LookaheadOpponentAi.DEFAULT_MAX_ROLLOUTS, 0.5f);
+        return profiles;
+    }
+
+    public static DifficultyProfiles load(FileHandle file) {
+        JsonValue root = new JsonReader().parse(file);
+        if (root.size == 0) {
+            throw new SerializationException("No difficulties in " + file);
+        }
+
+        String[] names = new String[root.size];
+        int index = 0;
+        for (JsonValue profile = root.child; profile != null; profile = profile.next) {
+            names[index++] = profile.getString("name");
+        }
+
+        // a parameter a difficulty leaves out is taken from the built-in difficulty of the same name, or else
+        // from the difficulty before it, so a new difficulty only needs what sets it apart
+        DifficultyProfiles defaults = createDefault();
+        DifficultyProfiles profiles = new DifficultyProfiles(names);
+        index = 0;
+        for (JsonValue profile = root.child; profile != null; profile = profile.next, index++) {
+            int defaultIndex = defaults.indexOf(names[index]);
+            for (int parameter = 0; parameter < PARAMETER_COUNT; parameter++) {
+                JsonValue value = profile.get(PARAMETER_NAMES[parameter]);
+                if (value != null) {
+                    profiles.set(index, parameter, value.asFloat());
+                } else if (defaultIndex >= 0) {
+                    profiles.set(index, parameter, defaults.get(defaultIndex, parameter));
+                } else if (index > 0) {
+                    profiles.set(index, parameter, profiles.get(index - 1, parameter));
+                } else {
+                    throw new SerializationException("Missing " + PARAMETER_NAMES[parameter] + " for difficulty "
+                            + names[index] + " in " + file);
+                }
+            }
+        }
+        return profiles;
+    }
+
+    public static DifficultyProfiles loadOrDefault(FileHandle file) {
+        return file.exists() ? load(file) : createDefault();
+    }
+
+    public void save(FileHandle file) {
+        file.writeString(toJson(), false, "UTF-8");
+    }
+
+    public String toJson() {
+        StringBuilder json = new StringBuilder("[\n");
+        for (int i = 0; i < names.length; i++) {
+            json.append("  {\n    \"name\": \"").append(names[i]).append('"');
+            for (int parameter = 0; parameter < PARAMETER_COUNT; parameter++) {
+                json.append(",\n    \"").append(PARAMETER_NAMES[parameter]).append("\": ")
+                        .append(String.format(Locale.ROOT, "%.4f", get(i, parameter)));
+            }
+            json.append(i < names.length - 1 ? "\n  },\n" : "\n  }\n");
+        }
+        return json.append("]\n").toString();
+    }
+
+    public DifficultyProfiles copy() {
+        DifficultyProfiles copy = new DifficultyProfiles(names);
+        System.arraycopy(values, 0, copy.values, 0, values.length);
+        return copy;
+    }
+
+    public int getDifficultyCount() {
+        return names.length;
+    }
+
+    public String getName(int difficulty) {
+        return names[difficulty];
+    }
+
+    public int indexOf(String name) {
+        // the difficulty with the given name, or -1 if there's none
+        for (int i = 0; i < names.length; i++) {
+            if (names[i].equalsIgnoreCase(name)) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    public int clamp(int difficulty) {
+        // a valid difficulty for a stored setting or replay that may have come from other profiles
+        return Math.min(Math.max(difficulty, 0), names.length - 1);
+    }
+
+    private void setDifficulty(int difficulty, float contactDecisionDelay, float blockChance,
+                               float attackChance, float nonContactDecisionDelay, float pursueTargetChance,
+                               float playerHitStrength, float opponentHitStrength, float lookaheadRollouts,
+                               float predictionThreshold) {
+        set(difficulty, CONTACT_DECISION_DELAY, contactDecisionDelay);
+        set(difficulty, BLOCK_CHANCE, blockChance);
+        set(difficulty, ATTACK_CHANCE, attackChance);
+        set(difficulty, NON_CONTACT_DECISION_DELAY, nonContactDecisionDelay);
+        set(difficulty, PURSUE_TARGET_CHANCE, pursueTargetChance);
+        set(difficulty, PLAYER_HIT_STRENGTH, playerHitStrength);
+        set(difficulty, OPPONENT_HIT_STRENGTH, opponentHitStrength);
+        set(difficulty, LOOKAHEAD_ROLLOUTS, lookaheadRollouts);
+        set(difficulty, PREDICTION_THRESHOLD, predictionThreshold);
+    }
+
+    public float get(int difficulty, int parameter) {
+        return values[difficulty * PARAMETER_COUNT + parameter];
+    }
+
+    public void set(int difficulty, int parameter, float value) {
+        values[difficulty * PARAMETER_COUNT + parameter] = value;
+    }
+
+    public float getContactDecisionDelay(int difficulty) {
+        return values[difficulty * PARAMETER_COUNT + CONTACT_DECISION_DELAY];
+    }
+
+    public float getBlockChance(int difficulty) {
+        return values[difficulty * PARAMETER_COUNT + BLOCK_CHANCE];
+    }
+
+    public float getAttackChance(int difficulty) {
+        return values[difficulty * PARAMETER_COUNT + ATTACK_CHANCE];
+    }
+
+    public float getNonContactDecisionDelay(int difficulty) {
+        return values[difficulty * PARAMETER_COUNT + NON_CONTACT_DECISION_DELAY];
+    }
+
+    public float getPursueTargetChance(int difficulty) {
+        return values[difficulty * PARAMETER_COUNT + PURSUE_TARGET_CHANCE];
+    }
+
+    public float getPlayerHitStrength(int difficulty) {
+        return values[difficulty * PARAMETER_COUNT + PLAYER_HIT_STRENGTH];
+    }
+
+    public float getOpponentHitStrength(int difficulty) {
+        return values[difficulty * PARAMETER_COUNT + OPPONENT_HIT_STRENGTH];
+    }
+
+    public int getLookaheadRollouts(int difficulty) {
+        // how many rollouts the lookahead AI searches per decision; 0 plays like the default AI
+        return (int) values[difficulty * PARAMETER_COUNT + LOOKAHEAD_ROLLOUTS];
+    }
+
+    public float getPredictionThreshold(int difficulty) {
+        // how likely the player model has to think an action is before the default AI acts on it (above 1 never)
+        return values[difficulty * PARAMETER_COUNT + PREDICTION_THRESHOLD];
+    }
+}
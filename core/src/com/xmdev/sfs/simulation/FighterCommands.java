@@ -0,0 +1,28 @@
+package com.xmdev.sfs.simulation;
+
+public interface FighterCommands {
+    // the commands an AI (or a player) can give a fighter
+    void moveLeft();
+
+    void moveRight();
+
+    void moveUp();
+
+    void moveDown();
+
+    void stopMovingLeft();
+
+    void stopMovingRight();
+
+    void stopMovingUp();
+
+    void stopMovingDown();
+
+    void block();
+
+    void stopBlocking();
+
+    void punch();
+
+    void kick();
+}
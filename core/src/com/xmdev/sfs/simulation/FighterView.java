@@ -0,0 +1,25 @@
+package com.xmdev.sfs.simulation;
+
+import com.xmdev.sfs.objects.Fighter;
+
+public interface FighterView {
+    // read-only view of a fighter, for AIs to look at without being able to change it
+    float getPositionX();
+
+    float getPositionY();
+
+    float getLife();
+
+    Fighter.State getState();
+
+    boolean isBlocking();
+
+    boolean isAttacking();
+
+    boolean isAttackActive();
+
+    boolean hasMadeContact();
+
+    // copy the fighter's state into a snapshot, e.g. for an AI to simulate ahead on a copy of the fighter
+    void saveState(MatchSnapshot snapshot);
+}
@@ -0,0 +1,72 @@
+package com.xmdev.sfs.simulation;
+
+public class FixedTimestep {
+    // default number of simulation ticks per second
+    public static final int DEFAULT_TICK_RATE = 60;
+
+    // default maximum number of ticks to catch up on in a single frame
+    public static final int DEFAULT_MAX_TICKS_PER_FRAME = 5;
+
+    private int tickRate;
+    private float tickTime;
+    private int maxTicksPerFrame;
+    private float accumulator;
+
+    public FixedTimestep() {
+        this(DEFAULT_TICK_RATE, DEFAULT_MAX_TICKS_PER_FRAME);
+    }
+
+    public FixedTimestep(int tickRate, int maxTicksPerFrame) {
+        setTickRate(tickRate);
+        setMaxTicksPerFrame(maxTicksPerFrame);
+    }
+
+    public void setTickRate(int tickRate) {
+        if (tickRate <= 0) {
+            throw new IllegalArgumentException("Tick rate must be positive: " + tickRate);
+        }
+        this.tickRate = tickRate;
+        tickTime = 1f / tickRate;
+    }
+
+    public int getTickRate() {
+        return tickRate;
+    }
+
+    public void setMaxTicksPerFrame(int maxTicksPerFrame) {
+        if (maxTicksPerFrame <= 0) {
+            throw new IllegalArgumentException("Max ticks per frame must be positive: " + maxTicksPerFrame);
+        }
+        this.maxTicksPerFrame = maxTicksPerFrame;
+    }
+
+    public float getTickTime() {
+        return tickTime;
+    }
+
+    public void reset() {
+        accumulator = 0f;
+    }
+
+    public int advance(float deltaTime) {
+        // add the frame time to the accumulator and count how many whole ticks fit in it
+        accumulator += deltaTime;
+        int ticks = 0;
+        while (accumulator >= tickTime && ticks < maxTicksPerFrame) {
+            accumulator -= tickTime;
+            ticks++;
+        }
+
+        // if the frame took too long to catch up on, drop the rest so the game slows down instead of spiralling
+        if (accumulator >= tickTime) {
+            accumulator = 0f;
+        }
+
+        return ticks;
+    }
+
+    public float getAlpha() {
+        // how far between the last tick and the next one the current frame is
+        return accumulator / tickTime;
+    }
+}
@@ -0,0 +1,370 @@
+package com.xmdev.sfs.simulation;
+
+import com.badlogic.gdx.graphics.Color;
+import com.badlogic.gdx.math.RandomXS128;
+import com.badlogic.gdx.utils.TimeUtils;
+import com.xmdev.sfs.objects.Fighter;
+
+public class LookaheadOpponentAi implements OpponentAi {
+    // how a search is limited, besides its number of rollouts: ROLLOUT_LIMIT runs the whole search in the tick
+    // the decision is made, however long that takes; WORK runs at most the work budget's rollouts every tick,
+    // carrying the search on over the ticks up to the next decision and acting on the best action found so far,
+    // so no tick costs more than that and every decision is the same from one run (and machine) to the next, as
+    // recorded, replayed and netplay matches need; TIME stops the search once the time budget has passed, which
+    // depends on the machine, so it's only for the worker thread AI
+    public enum BudgetMode {
+        ROLLOUT_LIMIT, WORK, TIME
+    }
+
+    // search limits: how long a single decision may take and how many rollouts it may run at most (each
+    // difficulty sets its own number of rollouts up to that)
+    public static final int DEFAULT_TIME_BUDGET = 500; // microseconds
+    public static final int DEFAULT_MAX_ROLLOUTS = 64;
+
+    // how far ahead each rollout simulates, and how often a new decision is made
+    private static final float TICK_TIME = 1f / FixedTimestep.DEFAULT_TICK_RATE;
+    private static final int LOOKAHEAD_TICKS = 18; // 0.3 seconds
+    static final float DECISION_DELAY = 0.05f;
+
+    // scoring: damage dealt counts for less than damage taken, and staying out of reach costs a little
+    private static final float DAMAGE_TAKEN_WEIGHT = 1.2f;
+    private static final float DISTANCE_WEIGHT = 0.05f;
+
+    // the actions the AI chooses between (the policy table stores its actions as indices into these), and the
+    // responses it expects from the target
+    static final int[] ACTIONS = {
+            PlayerInput.NONE, PlayerInput.PUNCH, PlayerInput.KICK, PlayerInput.BLOCK,
+            PlayerInput.LEFT, PlayerInput.RIGHT, PlayerInput.UP, PlayerInput.DOWN
+    };
+    public static final int ACTION_COUNT = ACTIONS.length;
+
+    // the rollouts a tick may run with the work budget, one of every action by default; each rollout simulates
+    // the same number of ticks, so this bounds the simulated ticks a tick costs
+    public static final int DEFAULT_WORK_BUDGET = ACTION_COUNT;
+    private static final int[] TARGET_RESPONSES = {
+            PlayerInput.NONE, PlayerInput.PUNCH, PlayerInput.KICK, PlayerInput.BLOCK
+    };
+
+    // rollouts use their own random stream with a fixed seed, so searching doesn't change the match's stream
+    private static final long ROLLOUT_SEED = 0x5F5L;
+    private final RandomXS128 rolloutRandom = new RandomXS128(ROLLOUT_SEED);
+
+    // difficulties without any rollouts are played by the default AI
+    private final DifficultyProfiles profiles;
+    private final DefaultOpponentAi fallback;
+
+    // the rollouts are played on copies of the fighters in a match of their own, driven by inputs
+    private final Fighter selfCopy = new Fighter("Self", Color.WHITE);
+    private final Fighter targetCopy = new Fighter("Target", Color.WHITE);
+    private final MatchSimulation lookahead = new MatchSimulation(targetCopy, selfCopy, new RandomXS128());
+    private final MatchSnapshot lookaheadState = new MatchSnapshot();
+    private final MatchSnapshot fighterState = new MatchSnapshot();
+    private final float[] actionScores = new float[ACTIONS.length];
+    private final int[] actionRollouts = new int[ACTIONS.length];
+
+    // decisions
+    private BudgetMode budgetMode = BudgetMode.WORK;
+    private int timeBudget = DEFAULT_TIME_BUDGET;
+    private int workBudget = DEFAULT_WORK_BUDGET;
+    private int maxRollouts = DEFAULT_MAX_ROLLOUTS;
+    private float timer;
+    private int lastRollouts;
+    private int searches;
+
+    // the search in progress: what it's searching for, how far it has got, the action the next rollout plays,
+    // and the action it has acted on so far (-1 for none yet)
+    private boolean searching;
+    private int searchDifficulty;
+    private int searchRolloutLimit;
+    private int searchRollouts;
+    private int nextAction;
+    private int performedAction;
+
+    public LookaheadOpponentAi(RandomXS128 random) {
+        this(random, DifficultyProfiles.createDefault());
+    }
+
+    public LookaheadOpponentAi(RandomXS128 random, DifficultyProfiles profiles) {
+        this.profiles = profiles;
+        fallback = new DefaultOpponentAi(random, profiles);
+
+        // get the lookahead match into a round in progress, and keep that state to start every rollout from
+        lookahead.setProfiles(profiles);
+        lookahead.setOpponentAiEnabled(false);
+        lookahead.startMatch(0L);
+        lookahead.skipRoundDelay();
+        lookahead.update(0f);
+        lookahead.saveState(lookaheadState);
+    }
+
+    public void setBudgetMode(BudgetMode budgetMode) {
+        this.budgetMode = budgetMode;
+    }
+
+    public BudgetMode getBudgetMode() {
+        return budgetMode;
+    }
+
+    public void setTimeBudget(int microseconds) {
+        // with the TIME budget mode, the most time a single decision may search for before going with the best
+        // action found so far
+        if (microseconds <= 0) {
+            throw new IllegalArgumentException("The time budget must be positive: " + microseconds);
+        }
+        timeBudget = microseconds;
+    }
+
+    public void setWorkBudget(int rolloutsPerTick) {
+        // with the WORK budget mode, the most rollouts a search may run in a single tick
+        if (rolloutsPerTick <= 0) {
+            throw new IllegalArgumentException("The work budget must be positive: " + rolloutsPerTick);
+        }
+        workBudget = rolloutsPerTick;
+    }
+
+    public int getWorkBudget() {
+        return workBudget;
+    }
+
+    public void setPlayerModel(PlayerModel playerModel) {
+        // only the default AI it falls back to plays on the player's habits, the search plays on what it sees
+        fallback.setPlayerModel(playerModel);
+    }
+
+    public int getTimeBudget() {
+        return timeBudget;
+    }
+
+    public void setMaxRollouts(int maxRollouts) {
+        // searching stops after this many rollouts even if there's time left
+        this.maxRollouts = maxRollouts;
+    }
+
+    public int getMaxRollouts() {
+        return maxRollouts;
+    }
+
+    public int getLastRollouts() {
+        return lastRollouts;
+    }
+
+    public static int indexOfAction(int input) {
+        // the index of the action that holds the given input, or -1 if it isn't one of the actions
+        for (int i = 0; i < ACTIONS.length; i++) {
+            if (ACTIONS[i] == input) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    public int getSearches() {
+        // how many decisions have been searched for, so a caller can tell whether an update started one
+        return searches;
+    }
+
+    public float getLastActionScore(int action) {
+        // the average score the last search gave the action at the given index, or NaN if it wasn't tried
+        return actionRollouts[action] > 0 ? actionScores[action] / actionRollouts[action] : Float.NaN;
+    }
+
+    @Override
+    public void reset() {
+        fallback.reset();
+        rolloutRandom.setSeed(ROLLOUT_SEED);
+        timer = 0f;
+        searching = false;
+    }
+
+    @Override
+    public void update(float deltaTime, FighterView self, FighterView target, FighterCommands commands,
+                       int difficulty) {
+        int rolloutLimit = Math.min(profiles.getLookaheadRollouts(difficulty), maxRollouts);
+        if (rolloutLimit <= 0) {
+            fallback.update(deltaTime, self, target, commands, difficulty);
+            return;
+        }
+
+        // wait for the next decision, carrying on with the last one's search if it hasn't finished
+        if (timer > 0f) {
+            timer -= deltaTime;
+            if (searching) {
+                search(self, commands);
+            }
+            return;
+        }
+        timer = DECISION_DELAY;
+
+        // copy both fighters, and start a new search from them (dropping the last one if it hasn't finished)
+        fighterState.rewind();
+        self.saveState(fighterState);
+        target.saveState(fighterState);
+        for (int i = 0; i < ACTIONS.length; i++) {
+            actionScores[i] = 0f;
+            actionRollouts[i] = 0;
+        }
+        searching = true;
+        searchDifficulty = difficulty;
+        searchRolloutLimit = rolloutLimit;
+        searchRollouts = 0;
+        nextAction = 0;
+        performedAction = -1;
+        searches++;
+        search(self, commands);
+    }
+
+    private void search(FighterView self, FighterCommands commands) {
+        // play out every action in turn against a random response from the target, until the rollout limit or
+        // this tick's budget is reached
+        long deadline = budgetMode == BudgetMode.TIME ? TimeUtils.nanoTime() + timeBudget * 1000L : 0L;
+        int budget = budgetMode == BudgetMode.WORK ? workBudget : Integer.MAX_VALUE;
+        for (int i = 0; i < budget && searchRollouts < searchRolloutLimit; i++) {
+            int response = TARGET_RESPONSES[rolloutRandom.nextInt(TARGET_RESPONSES.length)];
+            actionScores[nextAction] += rollout(ACTIONS[nextAction], response, searchDifficulty);
+            actionRollouts[nextAction]++;
+            nextAction = (nextAction + 1) % ACTIONS.length;
+            searchRollouts++;
+            if (budgetMode == BudgetMode.TIME && TimeUtils.nanoTime() >= deadline) break;
+        }
+        lastRollouts = searchRollouts;
+
+        // only the work budget carries a search on into the next ticks
+        if (budgetMode != BudgetMode.WORK || searchRollouts >= searchRolloutLimit) {
+            searching = false;
+        }
+
+        // act on the action with the best average score so far, if it isn't what the fighter is already doing
+        // (if the budget ran out before any rollout, carry on)
+        int bestAction = -1;
+        float bestScore = 0f;
+        for (int i = 0; i < ACTIONS.length; i++) {
+            if (actionRollouts[i] > 0) {
+                float score = actionScores[i] / actionRollouts[i];
+                if (bestAction < 0 || score > bestScore) {
+                    bestAction = i;
+                    bestScore = score;
+                }
+            }
+        }
+        if (bestAction >= 0 && bestAction != performedAction) {
+            perform(ACTIONS[bestAction], self, commands);
+            performedAction = bestAction;
+        }
+    }
+
+    private float rollout(int action, int response, int difficulty) {
+        // start from the copied fighters in a round in progress, hitting as hard as the difficulty does
+        lookaheadState.rewind();
+        lookahead.restoreState(lookaheadState);
+        lookahead.setDifficulty(difficulty);
+        fighterState.rewind();
+        selfCopy.restoreState(fighterState);
+        targetCopy.restoreState(fighterState);
+        float selfLife = selfCopy.getLife();
+        float targetLife = targetCopy.getLife();
+
+        // hold the action and the response for the whole lookahead
+        lookahead.setOpponentInput(action);
+        lookahead.setPlayerInput(response);
+        for (int tick = 0; tick < LOOKAHEAD_TICKS; tick++) {
+            lookahead.update(TICK_TIME);
+        }
+
+        // score the damage dealt and taken, and how far out of reach the fighters ended up
+        float distanceX = Math.abs(selfCopy.getPositionX() - targetCopy.getPositionX())
+                - MatchSimulation.FIGHTER_CONTACT_DISTANCE_X;
+        float distanceY = Math.abs(selfCopy.getPositionY() - targetCopy.getPositionY())
+                - MatchSimulation.FIGHTER_CONTACT_DISTANCE_Y;
+        return (targetLife - targetCopy.getLife())
+                - (selfLife - selfCopy.getLife()) * DAMAGE_TAKEN_WEIGHT
+                - (Math.max(distanceX, 0f) + Math.max(distanceY, 0f)) * DISTANCE_WEIGHT;
+    }
+
+    static void perform(int action, FighterView self, FighterCommands commands) {
+        // stop blocking unless blocking is the action
+        if (action != PlayerInput.BLOCK && self.isBlocking()) {
+            commands.stopBlocking();
+        }
+
+        switch (action) {
+            case PlayerInput.PUNCH:
+                commands.punch();
+                break;
+            case PlayerInput.KICK:
+                commands.kick();
+                break;
+            case PlayerInput.BLOCK:
+                commands.block();
+                break;
+            case PlayerInput.LEFT:
+                commands.moveLeft();
+                break;
+            case PlayerInput.RIGHT:
+                commands.moveRight();
+                break;
+            case PlayerInput.UP:
+                commands.moveUp();
+                break;
+            case PlayerInput.DOWN:
+                commands.moveDown();
+                break;
+            default:
+                // keep doing whatever the fighter is doing
+        }
+    }
+
+    @Override
+    public void saveState(MatchSnapshot snapshot) {
+        fallback.saveState(snapshot);
+        snapshot.writeFloat(timer);
+        snapshot.writeLong(rolloutRandom.getState(0));
+        snapshot.writeLong(rolloutRandom.getState(1));
+
+        // a search carried on over ticks, along with the fighters it's searching from (by way of the copies,
+        // which every rollout resets anyway)
+        snapshot.writeBoolean(searching);
+        if (searching) {
+            snapshot.writeInt(searchDifficulty);
+            snapshot.writeInt(searchRolloutLimit);
+            snapshot.writeInt(searchRollouts);
+            snapshot.writeInt(nextAction);
+            snapshot.writeInt(performedAction);
+            for (int i = 0; i < ACTIONS.length; i++) {
+                snapshot.writeFloat(actionScores[i]);
+                snapshot.writeInt(actionRollouts[i]);
+            }
+            fighterState.rewind();
+            selfCopy.restoreState(fighterState);
+            targetCopy.restoreState(fighterState);
+            selfCopy.saveState(snapshot);
+            targetCopy.saveState(snapshot);
+        }
+    }
+
+    @Override
+    public void restoreState(MatchSnapshot snapshot) {
+        fallback.restoreState(snapshot);
+        timer = snapshot.readFloat();
+        long seed0 = snapshot.readLong();
+        long seed1 = snapshot.readLong();
+        rolloutRandom.setState(seed0, seed1);
+
+        searching = snapshot.readBoolean();
+        if (searching) {
+            searchDifficulty = snapshot.readInt();
+            searchRolloutLimit = snapshot.readInt();
+            searchRollouts = snapshot.readInt();
+            nextAction = snapshot.readInt();
+            performedAction = snapshot.readInt();
+            for (int i = 0; i < ACTIONS.length; i++) {
+                actionScores[i] = snapshot.readFloat();
+                actionRollouts[i] = snapshot.readInt();
+            }
+            selfCopy.restoreState(snapshot);
+            targetCopy.restoreState(snapshot);
+            fighterState.rewind();
+            selfCopy.saveState(fighterState);
+            targetCopy.saveState(fighterState);
+        }
+    }
+}
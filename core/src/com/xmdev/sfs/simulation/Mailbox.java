@@ -0,0 +1,50 @@
+package com.xmdev.sfs.simulation;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+public class Mailbox<T> {
+    // three slots: one being written by the producer, one being read by the consumer and one in the mailbox
+    // between them, so neither side ever waits for the other; the index of the slot in the mailbox is kept along
+    // with a flag saying if it's been published since the consumer last took it
+    private static final int INDEX_MASK = 3;
+    private static final int FRESH = 4;
+
+    private final Object[] slots;
+    private final AtomicInteger middle = new AtomicInteger(1);
+    private int back = 0; // only touched by the producer
+    private int front = 2; // only touched by the consumer
+
+    public Mailbox(T first, T second, T third) {
+        slots = new Object[]{first, second, third};
+    }
+
+    @SuppressWarnings("unchecked")
+    public T getWriteSlot() {
+        // the slot the producer fills in before publishing it
+        return (T) slots[back];
+    }
+
+    public boolean publish() {
+        // swap the filled slot into the mailbox and carry on with whichever slot was there; returns true if that
+        // slot had been published but never taken, i.e. the consumer missed it
+        int previous = middle.getAndSet(back | FRESH);
+        back = previous & INDEX_MASK;
+        return (previous & FRESH) != 0;
+    }
+
+    @SuppressWarnings("unchecked")
+    public T take() {
+        // swap the latest published slot out of the mailbox, or return null if nothing new has been published
+        if ((middle.get() & FRESH) == 0) {
+            return null;
+        }
+        front = middle.getAndSet(front) & INDEX_MASK;
+        return (T) slots[front];
+    }
+
+    @SuppressWarnings("unchecked")
+    public T getReadSlot() {
+        // the slot the consumer last took
+        return (T) slots[front];
+    }
+}
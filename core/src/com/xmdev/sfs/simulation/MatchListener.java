@@ -0,0 +1,14 @@
+package com.xmdev.sfs.simulation;
+
+import com.xmdev.sfs.objects.Fighter;
+
+public interface MatchListener {
+    // called when a fighter has been hit, blocked or not
+    void onFighterHit(Fighter fighter, boolean blocked);
+
+    // called when the player has won a round
+    void onRoundWon();
+
+    // called when the player has lost a round
+    void onRoundLost();
+}
@@ -0,0 +1,558 @@
+package com.xmdev.sfs.simulation;
+
+import com.badlogic.gdx.math.RandomXS128;
+import com.badlogic.gdx.math.Vector2;
+import com.xmdev.sfs.objects.Fighter;
+
+public class MatchSimulation {
+    // fighters
+    private final Fighter player;
+    private final Fighter opponent;
+    private static final float PLAYER_START_POSITION_X = 16f;
+    private static final float OPPONENT_START_POSITION_X = 51f;
+    private static final float FIGHTER_START_POSITION_Y = 15f;
+    public static final float FIGHTER_CONTACT_DISTANCE_X = 7.5f;
+    public static final float FIGHTER_CONTACT_DISTANCE_Y = 1.5f;
+
+    // random
+    private final RandomXS128 random;
+    private long seed;
+
+    // game
+    private int difficulty = DifficultyProfiles.EASY; // index into the difficulty profiles
+    private boolean matchOver;
+    private MatchListener listener;
+    private DifficultyProfiles profiles = DifficultyProfiles.createDefault();
+
+    // rounds
+    public enum RoundState {
+        STARTING, IN_PROGRESS, ENDING
+    }
+    private static final RoundState[] ROUND_STATES = RoundState.values();
+    private RoundState roundState;
+    private float roundStateTime;
+    public static final float START_ROUND_DELAY = 2f;
+    public static final float END_ROUND_DELAY = 2f;
+    private int currentRound;
+    public static final int MAX_ROUNDS = 3;
+    private int roundsWon = 0, roundsLost = 0;
+    public static final float MAX_ROUND_TIME = 99.99f;
+    private float roundTimer = MAX_ROUND_TIME;
+
+    // ring
+    private static final float RING_MIN_X = 7f;
+    private static final float RING_MAX_X = 60f;
+    private static final float RING_MIN_Y = 4f;
+    private static final float RING_MAX_Y = 22f;
+    private static final float RING_SLOPE = 3.16f;
+
+    // player input, and the opponent's when a remote player controls it instead of the AI
+    private int playerInput, previousPlayerInput;
+    private int opponentInput, previousOpponentInput;
+
+    // damage
+    private float playerDamageDealt, opponentDamageDealt;
+
+    // AI
+    private OpponentAi opponentAi;
+    private OpponentAi playerAi;
+
+    // learns the player's habits from their input, if set
+    private PlayerModel playerModel;
+
+    public MatchSimulation(Fighter player, Fighter opponent) {
+        this(player, opponent, new RandomXS128());
+    }
+
+    public MatchSimulation(Fighter player, Fighter opponent, RandomXS128 random) {
+        this.player = player;
+        this.opponent = opponent;
+        this.random = random;
+
+        // the opponent is controlled by the default AI unless it's replaced or disabled
+        opponentAi = new DefaultOpponentAi(random, profiles);
+    }
+
+    public void setProfiles(DifficultyProfiles profiles) {
+        // the hit strengths (and the chances and delays of AIs created from here on) for each difficulty
+        this.profiles = profiles;
+    }
+
+    public DifficultyProfiles getProfiles() {
+        return profiles;
+    }
+
+    public RandomXS128 getRandom() {
+        // the match's random stream, for creating AIs that stay reproducible from the match seed
+        return random;
+    }
+
+    public void setPlayerAiEnabled(boolean enabled) {
+        // let the default AI control the player as well, for AI-vs-AI matches
+        setPlayerAi(enabled ? new DefaultOpponentAi(random, profiles) : null);
+    }
+
+    public void setPlayerAi(OpponentAi ai) {
+        playerAi = ai;
+    }
+
+    public void setOpponentAiEnabled(boolean enabled) {
+        // when disabled, the opponent is controlled by its input instead, e.g. by a remote player
+        setOpponentAi(enabled ? new DefaultOpponentAi(random, profiles) : null);
+    }
+
+    public void setOpponentAi(OpponentAi ai) {
+        opponentAi = ai;
+    }
+
+    public void setPlayerModel(PlayerModel model) {
+        // the model carries over from match to match, so it isn't part of the match state and matches that are
+        // rolled back shouldn't use one
+        playerModel = model;
+    }
+
+    public PlayerModel getPlayerModel() {
+        return playerModel;
+    }
+
+    public Fighter getPlayer() {
+        return player;
+    }
+
+    public Fighter getOpponent() {
+        return opponent;
+    }
+
+    public MatchListener getListener() {
+        return listener;
+    }
+
+    public void setListener(MatchListener listener) {
+        this.listener = listener;
+    }
+
+    public int getDifficulty() {
+        return difficulty;
+    }
+
+    public void setDifficulty(int difficulty) {
+        this.difficulty = profiles.clamp(difficulty);
+    }
+
+    private void changeDifficulty() {
+        // change to the next difficulty setting, going back to the first after the last
+        difficulty = (difficulty + 1) % profiles.getDifficultyCount();
+    }
+
+    public void setPlayerInput(int input) {
+        // set the keys the player is holding for the next update
+        playerInput = input;
+    }
+
+    public void setOpponentInput(int input) {
+        // set the keys the opponent is holding for the next update (only used when the opponent AI is disabled)
+        opponentInput = input;
+    }
+
+    public RoundState getRoundState() {
+        return roundState;
+    }
+
+    public float getRoundStateTime() {
+        return roundStateTime;
+    }
+
+    public int getCurrentRound() {
+        return currentRound;
+    }
+
+    public int getRoundsWon() {
+        return roundsWon;
+    }
+
+    public int getRoundsLost() {
+        return roundsLost;
+    }
+
+    public float getRoundTimer() {
+        return roundTimer;
+    }
+
+    public boolean isMatchOver() {
+        return matchOver;
+    }
+
+    public float getPlayerDamageDealt() {
+        return playerDamageDealt;
+    }
+
+    public float getOpponentDamageDealt() {
+        return opponentDamageDealt;
+    }
+
+    public long getSeed() {
+        return seed;
+    }
+
+    public void startMatch(long seed) {
+        // seed the match's random stream, so the match can be reproduced from the seed and the inputs
+        this.seed = seed;
+        random.setSeed(seed);
+
+        matchOver = false;
+        roundsWon = roundsLost = 0;
+        playerDamageDealt = opponentDamageDealt = 0f;
+        playerInput = previousPlayerInput = PlayerInput.NONE;
+        opponentInput = previousOpponentInput = PlayerInput.NONE;
+        if (playerAi != null) {
+            playerAi.reset();
+        }
+        if (opponentAi != null) {
+            opponentAi.reset();
+        }
+
+        // start the first round
+        currentRound = 1;
+        startRound();
+    }
+
+    private void startRound() {
+        // get the fighters ready
+        player.getReady(PLAYER_START_POSITION_X, FIGHTER_START_POSITION_Y);
+        opponent.getReady(OPPONENT_START_POSITION_X, FIGHTER_START_POSITION_Y);
+
+        // start the round
+        roundState = RoundState.STARTING;
+        roundStateTime = 0f;
+        roundTimer = MAX_ROUND_TIME;
+    }
+
+    private void endRound() {
+        // end the round
+        roundState = RoundState.ENDING;
+        roundStateTime = 0f;
+    }
+
+    private void winRound() {
+        // players wins the round and opponent loses
+        player.win();
+        opponent.lose();
+        roundsWon++;
+
+        // let the listener know the player won
+        if (listener != null) {
+            listener.onRoundWon();
+        }
+
+        // end the round
+        endRound();
+    }
+
+    private void loseRound() {
+        // player loses the round and opponent wins
+        player.lose();
+        opponent.win();
+        roundsLost++;
+
+        // let the listener know the player lost
+        if (listener != null) {
+            listener.onRoundLost();
+        }
+
+        // end the round
+        endRound();
+    }
+
+    public void skipRoundDelay() {
+        // if the round is starting or ending, skip the delay
+        if (roundState == RoundState.STARTING) {
+            roundStateTime = START_ROUND_DELAY;
+        } else if (roundState == RoundState.ENDING) {
+            roundStateTime = END_ROUND_DELAY;
+        }
+    }
+
+    private void applyInput(Fighter fighter, int input, int previousInput) {
+        // find which keys have been pressed or released since the last update
+        int pressed = input & ~previousInput;
+        int released = previousInput & ~input;
+
+        // skip any round delays or change the difficulty setting
+        if ((pressed & PlayerInput.SKIP_DELAY) != 0) {
+            skipRoundDelay();
+        }
+        if ((pressed & PlayerInput.CHANGE_DIFFICULTY) != 0) {
+            changeDifficulty();
+        }
+
+        if (roundState == RoundState.IN_PROGRESS) {
+            // check if the fighter has pressed a movement key
+            if ((pressed & PlayerInput.LEFT) != 0) {
+                fighter.moveLeft();
+            } else if ((pressed & PlayerInput.RIGHT) != 0) {
+                fighter.moveRight();
+            }
+
+            if ((pressed & PlayerInput.UP) != 0) {
+                fighter.moveUp();
+            } else if ((pressed & PlayerInput.DOWN) != 0) {
+                fighter.moveDown();
+            }
+        }
+
+        // check if the fighter has pressed a block or attack key
+        if ((pressed & PlayerInput.BLOCK) != 0) {
+            fighter.block();
+        }
+        if ((pressed & PlayerInput.PUNCH) != 0) {
+            fighter.punch();
+        }
+        if ((pressed & PlayerInput.KICK) != 0) {
+            fighter.kick();
+        }
+
+        // if the fighter has released a movement key, stop moving in that direction
+        if ((released & PlayerInput.LEFT) != 0) {
+            fighter.stopMovingLeft();
+        }
+        if ((released & PlayerInput.RIGHT) != 0) {
+            fighter.stopMovingRight();
+        }
+        if ((released & PlayerInput.UP) != 0) {
+            fighter.stopMovingUp();
+        }
+        if ((released & PlayerInput.DOWN) != 0) {
+            fighter.stopMovingDown();
+        }
+
+        // if the fighter has released a block key, stop blocking
+        if ((released & PlayerInput.BLOCK) != 0) {
+            fighter.stopBlocking();
+        }
+    }
+
+    public void saveState(MatchSnapshot snapshot) {
+        // write the match, the random stream, the fighters and the AIs into the snapshot
+        snapshot.writeInt(difficulty);
+        snapshot.writeBoolean(matchOver);
+        snapshot.writeInt(roundState == null ? -1 : roundState.ordinal());
+        snapshot.writeFloat(roundStateTime);
+        snapshot.writeInt(currentRound);
+        snapshot.writeInt(roundsWon);
+        snapshot.writeInt(roundsLost);
+        snapshot.writeFloat(roundTimer);
+        snapshot.writeInt(playerInput);
+        snapshot.writeInt(previousPlayerInput);
+        snapshot.writeInt(opponentInput);
+        snapshot.writeInt(previousOpponentInput);
+        snapshot.writeFloat(playerDamageDealt);
+        snapshot.writeFloat(opponentDamageDealt);
+        snapshot.writeLong(seed);
+        snapshot.writeLong(random.getState(0));
+        snapshot.writeLong(random.getState(1));
+        player.saveState(snapshot);
+        opponent.saveState(snapshot);
+        if (opponentAi != null) {
+            opponentAi.saveState(snapshot);
+        }
+        if (playerAi != null) {
+            playerAi.saveState(snapshot);
+        }
+    }
+
+    public void restoreState(MatchSnapshot snapshot) {
+        // read everything back in the same order it was written
+        difficulty = snapshot.readInt();
+        matchOver = snapshot.readBoolean();
+        int roundStateIndex = snapshot.readInt();
+        roundState = roundStateIndex < 0 ? null : ROUND_STATES[roundStateIndex];
+        roundStateTime = snapshot.readFloat();
+        currentRound = snapshot.readInt();
+        roundsWon = snapshot.readInt();
+        roundsLost = snapshot.readInt();
+        roundTimer = snapshot.readFloat();
+        playerInput = snapshot.readInt();
+        previousPlayerInput = snapshot.readInt();
+        opponentInput = snapshot.readInt();
+        previousOpponentInput = snapshot.readInt();
+        playerDamageDealt = snapshot.readFloat();
+        opponentDamageDealt = snapshot.readFloat();
+        seed = snapshot.readLong();
+        long seed0 = snapshot.readLong();
+        long seed1 = snapshot.readLong();
+        random.setState(seed0, seed1);
+        player.restoreState(snapshot);
+        opponent.restoreState(snapshot);
+        if (opponentAi != null) {
+            opponentAi.restoreState(snapshot);
+        }
+        if (playerAi != null) {
+            playerAi.restoreState(snapshot);
+        }
+    }
+
+    public int checksum() {
+        // hash the fighters, the round and the random stream, so two runs of the same match can be compared tick
+        // by tick to find where they went apart
+        int hash = StateChecksum.mix(StateChecksum.SEED, roundState == null ? -1 : roundState.ordinal());
+        hash = StateChecksum.mix(hash, roundTimer);
+        hash = StateChecksum.mix(hash, currentRound);
+        hash = StateChecksum.mix(hash, (int) random.getState(0));
+        hash = player.checksum(hash);
+        return opponent.checksum(hash);
+    }
+
+    public void update(float deltaTime) {
+        // apply the keys the player (and a remotely controlled opponent) has pressed or released
+        applyInput(player, playerInput, previousPlayerInput);
+        if (playerModel != null && roundState == RoundState.IN_PROGRESS) {
+            // show the player model the keys that have just been pressed
+            playerModel.observeInput(playerInput & ~previousPlayerInput,
+                    player.getPositionX(), opponent.getPositionX());
+        }
+        previousPlayerInput = playerInput;
+        if (opponentAi == null) {
+            applyInput(opponent, opponentInput, previousOpponentInput);
+            previousOpponentInput = opponentInput;
+        }
+
+        // update the round state
+        if (roundState == RoundState.STARTING && roundStateTime >= START_ROUND_DELAY) {
+            // if the start of the round delay has been reached, start the fight
+            roundState = RoundState.IN_PROGRESS;
+            roundStateTime = 0f;
+        } else if (roundState == RoundState.ENDING && roundStateTime >= END_ROUND_DELAY) {
+            // if the end round delay has been reached and player has won or lost more than half of the max rounds,
+            // end the match, otherwise, start the next round
+            if (roundsWon > MAX_ROUNDS / 2 || roundsLost > MAX_ROUNDS / 2) {
+                matchOver = true;
+            } else {
+                currentRound++;
+                startRound();
+            }
+        } else {
+            // increment the round state time by delta time
+            roundStateTime += deltaTime;
+        }
+
+        player.update(deltaTime);
+        opponent.update(deltaTime);
+
+        // make sure fighters are facing each other
+        if (player.getPosition().x <= opponent.getPosition().x) {
+            player.faceRight();
+            opponent.faceLeft();
+        } else {
+            player.faceLeft();
+            opponent.faceRight();
+        }
+
+        // keep the fighters within the bounds of the ring
+        keepWithinRingBounds(player.getPosition());
+        keepWithinRingBounds(opponent.getPosition());
+
+        // check if round state is in progress, if so decrease round timer by delta time
+        if (roundState == RoundState.IN_PROGRESS) {
+            // if round is in progress, decrease the round timer by delta time
+            roundTimer -= deltaTime;
+
+            // check if round timer is finished, if so, neither of the fighters has won yet
+            // fighter with most life wins and other loses
+            // if both fighters have the same life, the player wins
+            if (roundTimer <= 0) {
+                if (player.getLife() >= opponent.getLife()) {
+                    winRound();
+                } else {
+                    loseRound();
+                }
+            }
+
+            // perform the AI for the player and the opponent (if enabled)
+            if (playerAi != null) {
+                playerAi.update(deltaTime, player, opponent, player, difficulty);
+            }
+            if (opponentAi != null) {
+                opponentAi.update(deltaTime, opponent, player, opponent, difficulty);
+            }
+
+            // check if the fighters are within contact distance
+            if (areWithinContactDistance(player.getPosition(), opponent.getPosition())) {
+                // check if the fighters are attacking
+                if (player.isAttackActive()) {
+                    // if the fighters are within contact distance and player is actively attacking, opponent hit
+                    // hit damage based of difficulty setting
+                    float life = opponent.getLife();
+                    opponent.getHit(getPlayerHitStrength());
+                    playerDamageDealt += life - opponent.getLife();
+
+                    // let the listener know the opponent has been hit
+                    if (listener != null) {
+                        listener.onFighterHit(opponent, opponent.isBlocking());
+                    }
+
+                    // deactivate player's attack
+                    player.makeContact();
+
+                    // check if opponent has lost
+                    if (opponent.hasLost()) {
+                        // if opponent has lost, player wins the round
+                        winRound();
+                    }
+                } else if (opponent.isAttackActive()) {
+                    // if the fighters are within contact distance and opponent is actively attacking, player hit
+                    // hit damage based of difficulty setting
+                    float life = player.getLife();
+                    player.getHit(getOpponentHitStrength());
+                    opponentDamageDealt += life - player.getLife();
+
+                    // let the listener know the player has been hit
+                    if (listener != null) {
+                        listener.onFighterHit(player, player.isBlocking());
+                    }
+
+                    // deactivate opponent's attack
+                    opponent.makeContact();
+
+                    // check if player has lost
+                    if (player.hasLost()) {
+                        // if player has lost, player loses the round
+                        loseRound();
+                    }
+                }
+            }
+        }
+    }
+
+    private float getPlayerHitStrength() {
+        return profiles.getPlayerHitStrength(difficulty);
+    }
+
+    private float getOpponentHitStrength() {
+        return profiles.getOpponentHitStrength(difficulty);
+    }
+
+    private void keepWithinRingBounds(Vector2 position) {
+        if (position.y < RING_MIN_Y) {
+            position.y = RING_MIN_Y;
+        } else if (position.y > RING_MAX_Y) {
+            position.y = RING_MAX_Y;
+        }
+
+        if (position.x < position.y / RING_SLOPE + RING_MIN_X) {
+            position.x = position.y / RING_SLOPE + RING_MIN_X;
+        } else if (position.x > position.y / -RING_SLOPE + RING_MAX_X) {
+            position.x = position.y / -RING_SLOPE + RING_MAX_X;
+        }
+    }
+
+    static boolean areWithinContactDistance(Vector2 position1, Vector2 position2) {
+        // determine if the positions are within the distance in which contact is possible
+        return Math.abs(position1.x - position2.x) <= FIGHTER_CONTACT_DISTANCE_X
+                && Math.abs(position1.y - position2.y) <= FIGHTER_CONTACT_DISTANCE_Y;
+    }
+
+    public static boolean areWithinContactDistance(FighterView fighter1, FighterView fighter2) {
+        return Math.abs(fighter1.getPositionX() - fighter2.getPositionX()) <= FIGHTER_CONTACT_DISTANCE_X
+                && Math.abs(fighter1.getPositionY() - fighter2.getPositionY()) <= FIGHTER_CONTACT_DISTANCE_Y;
+    }
+}
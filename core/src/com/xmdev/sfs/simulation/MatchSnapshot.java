@@ -0,0 +1,71 @@
+package com.xmdev.sfs.simulation;
+
+public class MatchSnapshot {
+    // room for the state of the match, both fighters and both AIs, including the searches lookahead AIs carry on
+    // over ticks
+    private static final int FLOAT_CAPACITY = 96;
+    private static final int INT_CAPACITY = 96;
+    private static final int LONG_CAPACITY = 8;
+
+    // the snapshot is written and read in the same order, so only positions need to be kept
+    private final float[] floats;
+    private final int[] ints;
+    private final long[] longs;
+    private int floatPosition, intPosition, longPosition;
+
+    public MatchSnapshot() {
+        this(0, 0, 0);
+    }
+
+    public MatchSnapshot(int extraFloats, int extraInts, int extraLongs) {
+        // room for the match and for whatever else is written along with it, e.g. the game screen's effects
+        floats = new float[FLOAT_CAPACITY + extraFloats];
+        ints = new int[INT_CAPACITY + extraInts];
+        longs = new long[LONG_CAPACITY + extraLongs];
+    }
+
+    public void rewind() {
+        // go back to the start of the snapshot, ready for writing or reading it
+        floatPosition = intPosition = longPosition = 0;
+    }
+
+    public void copyFrom(MatchSnapshot other) {
+        // from a snapshot with the same room
+        System.arraycopy(other.floats, 0, floats, 0, floats.length);
+        System.arraycopy(other.ints, 0, ints, 0, ints.length);
+        System.arraycopy(other.longs, 0, longs, 0, longs.length);
+        rewind();
+    }
+
+    public void writeFloat(float value) {
+        floats[floatPosition++] = value;
+    }
+
+    public void writeInt(int value) {
+        ints[intPosition++] = value;
+    }
+
+    public void writeBoolean(boolean value) {
+        ints[intPosition++] = value ? 1 : 0;
+    }
+
+    public void writeLong(long value) {
+        longs[longPosition++] = value;
+    }
+
+    public float readFloat() {
+        return floats[floatPosition++];
+    }
+
+    public int readInt() {
+        return ints[intPosition++];
+    }
+
+    public boolean readBoolean() {
+        return ints[intPosition++] != 0;
+    }
+
+    public long readLong() {
+        return longs[longPosition++];
+    }
+}
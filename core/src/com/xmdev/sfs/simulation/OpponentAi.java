@@ -0,0 +1,16 @@
+package com.xmdev.sfs.simulation;
+
+
+public interface OpponentAi {
+    // called at the start of every match, to forget anything left over from the last one
+    void reset();
+
+    // called every tick while a round is in progress, to look at both fighters and command its own
+    void update(float deltaTime, FighterView self, FighterView target, FighterCommands commands,
+                int difficulty);
+
+    // write and read back any state the AI keeps between ticks, for match snapshots
+    void saveState(MatchSnapshot snapshot);
+
+    void restoreState(MatchSnapshot snapshot);
+}
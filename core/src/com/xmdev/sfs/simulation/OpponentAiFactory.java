@@ -0,0 +1,9 @@
+package com.xmdev.sfs.simulation;
+
+import com.badlogic.gdx.math.RandomXS128;
+
+public interface OpponentAiFactory {
+    // create an AI for a match; it should make its random decisions with the match's random stream, so the match
+    // can be reproduced from its seed
+    OpponentAi create(RandomXS128 random);
+}
@@ -0,0 +1,17 @@
+package com.xmdev.sfs.simulation;
+
+public class PlayerInput {
+    // input bits for the keys the player can hold or tap during a match
+    public static final int LEFT = 1;
+    public static final int RIGHT = 1 << 1;
+    public static final int UP = 1 << 2;
+    public static final int DOWN = 1 << 3;
+    public static final int BLOCK = 1 << 4;
+    public static final int PUNCH = 1 << 5;
+    public static final int KICK = 1 << 6;
+    public static final int SKIP_DELAY = 1 << 7;
+    public static final int CHANGE_DIFFICULTY = 1 << 8;
+
+    // no keys held or tapped
+    public static final int NONE = 0;
+}
@@ -0,0 +1,157 @@
+package com.xmdev.sfs.simulation;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.util.Arrays;
+
+public class PlayerModel {
+    // the player's actions, as the model sees them: moves are relative to the opponent, so walking in is the same
+    // habit from either side of the ring
+    public static final int APPROACH = 0;
+    public static final int RETREAT = 1;
+    public static final int SIDESTEP = 2;
+    public static final int BLOCK = 3;
+    public static final int PUNCH = 4;
+    public static final int KICK = 5;
+    public static final int ACTION_COUNT = 6;
+
+    // how much every older action counts for compared to the next one, so the model follows changing habits
+    private static final float DECAY = 0.98f;
+
+    // weights grow instead of every count shrinking, and everything is scaled back down once they get this big
+    private static final float MAX_WEIGHT = 1e6f;
+
+    // how much weight a context needs before its prediction is trusted over the shorter context's, in actions
+    // as recent as the last one
+    private static final float MIN_CONTEXT_WEIGHT = 2f;
+
+    // decayed counts of every action after each single action and each pair of actions, with their totals
+    private final float[] pairCounts = new float[ACTION_COUNT * ACTION_COUNT];
+    private final float[] pairTotals = new float[ACTION_COUNT];
+    private final float[] tripleCounts = new float[ACTION_COUNT * ACTION_COUNT * ACTION_COUNT];
+    private final float[] tripleTotals = new float[ACTION_COUNT * ACTION_COUNT];
+
+    // the last two actions (-1 until there have been that many), and the weight of the next one
+    private int lastAction = -1, secondLastAction = -1;
+    private float weight = 1f;
+
+    public void reset() {
+        // forget everything, e.g. for a new player
+        Arrays.fill(pairCounts, 0f);
+        Arrays.fill(pairTotals, 0f);
+        Arrays.fill(tripleCounts, 0f);
+        Arrays.fill(tripleTotals, 0f);
+        lastAction = secondLastAction = -1;
+        weight = 1f;
+    }
+
+    public void copyFrom(PlayerModel other) {
+        System.arraycopy(other.pairCounts, 0, pairCounts, 0, pairCounts.length);
+        System.arraycopy(other.pairTotals, 0, pairTotals, 0, pairTotals.length);
+        System.arraycopy(other.tripleCounts, 0, tripleCounts, 0, tripleCounts.length);
+        System.arraycopy(other.tripleTotals, 0, tripleTotals, 0, tripleTotals.length);
+        lastAction = other.lastAction;
+        secondLastAction = other.secondLastAction;
+        weight = other.weight;
+    }
+
+    public void write(DataOutputStream output) throws IOException {
+        // write the counts (the totals are summed back up when read) and the last actions
+        for (float count : pairCounts) output.writeFloat(count);
+        for (float count : tripleCounts) output.writeFloat(count);
+        output.writeByte(lastAction);
+        output.writeByte(secondLastAction);
+        output.writeFloat(weight);
+    }
+
+    public void read(DataInputStream input) throws IOException {
+        reset();
+        for (int i = 0; i < pairCounts.length; i++) {
+            pairCounts[i] = input.readFloat();
+            pairTotals[i / ACTION_COUNT] += pairCounts[i];
+        }
+        for (int i = 0; i < tripleCounts.length; i++) {
+            tripleCounts[i] = input.readFloat();
+            tripleTotals[i / ACTION_COUNT] += tripleCounts[i];
+        }
+        lastAction = input.readByte();
+        secondLastAction = input.readByte();
+        weight = input.readFloat();
+    }
+
+    public void observeInput(int pressed, float playerX, float opponentX) {
+        // record the keys the player has just pressed, moves first, then blocks and attacks
+        if ((pressed & (PlayerInput.LEFT | PlayerInput.RIGHT)) != 0) {
+            boolean towardOpponent = ((pressed & PlayerInput.RIGHT) != 0) == (opponentX > playerX);
+            observe(towardOpponent ? APPROACH : RETREAT);
+        }
+        if ((pressed & (PlayerInput.UP | PlayerInput.DOWN)) != 0) {
+            observe(SIDESTEP);
+        }
+        if ((pressed & PlayerInput.BLOCK) != 0) {
+            observe(BLOCK);
+        }
+        if ((pressed & PlayerInput.PUNCH) != 0) {
+            observe(PUNCH);
+        }
+        if ((pressed & PlayerInput.KICK) != 0) {
+            observe(KICK);
+        }
+    }
+
+    public void observe(int action) {
+        // count the action after the last action and after the last two
+        if (lastAction >= 0) {
+            pairCounts[lastAction * ACTION_COUNT + action] += weight;
+            pairTotals[lastAction] += weight;
+            if (secondLastAction >= 0) {
+                int context = secondLastAction * ACTION_COUNT + lastAction;
+                tripleCounts[context * ACTION_COUNT + action] += weight;
+                tripleTotals[context] += weight;
+            }
+        }
+        secondLastAction = lastAction;
+        lastAction = action;
+
+        // decay by making the next action count for more; rescaling every so often keeps it amortized O(1)
+        weight /= DECAY;
+        if (weight > MAX_WEIGHT) {
+            rescale();
+        }
+    }
+
+    private void rescale() {
+        float scale = 1f / weight;
+        for (int i = 0; i < pairCounts.length; i++) pairCounts[i] *= scale;
+        for (int i = 0; i < pairTotals.length; i++) pairTotals[i] *= scale;
+        for (int i = 0; i < tripleCounts.length; i++) tripleCounts[i] *= scale;
+        for (int i = 0; i < tripleTotals.length; i++) tripleTotals[i] *= scale;
+        weight = 1f;
+    }
+
+    public float getProbability(int action) {
+        // the chance of the action coming next, from the last two actions if they've been seen together often
+        // enough, otherwise from the last action alone (0 if there's nothing to go on yet)
+        if (lastAction < 0) {
+            return 0f;
+        }
+        if (secondLastAction >= 0) {
+            int context = secondLastAction * ACTION_COUNT + lastAction;
+            if (tripleTotals[context] >= MIN_CONTEXT_WEIGHT * weight * DECAY) {
+                return tripleCounts[context * ACTION_COUNT + action] / tripleTotals[context];
+            }
+        }
+        float total = pairTotals[lastAction];
+        return total > 0f ? pairCounts[lastAction * ACTION_COUNT + action] / total : 0f;
+    }
+
+    public float getAttackProbability() {
+        // the chance of the player punching or kicking next
+        return getProbability(PUNCH) + getProbability(KICK);
+    }
+
+    public int getLastAction() {
+        return lastAction;
+    }
+}
@@ -0,0 +1,134 @@
+package com.xmdev.sfs.simulation;
+
+import com.badlogic.gdx.files.FileHandle;
+import com.badlogic.gdx.utils.GdxRuntimeException;
+import com.badlogic.gdx.utils.StreamUtils;
+import com.xmdev.sfs.objects.Fighter;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+
+public class PolicyTable {
+    // where the game looks for the table (written by the policy table builder)
+    public static final String FILE = "data/opponent_policy.bin";
+
+    // file format
+    private static final int MAGIC = 0x53465350; // "SFSP"
+    private static final int VERSION = 1;
+
+    // how the state of both fighters is cut into cells: the target's position relative to the fighter, both
+    // fighters' states and both fighters' life; positions past the outer buckets fall into them
+    public static final int DX_BUCKETS = 16;
+    public static final float DX_BUCKET_SIZE = 2.5f;
+    public static final int DY_BUCKETS = 8;
+    public static final float DY_BUCKET_SIZE = 1f;
+    public static final int STATE_BUCKETS = Fighter.State.values().length;
+    public static final int LIFE_BUCKETS = 4;
+    public static final int CELL_COUNT =
+            DX_BUCKETS * DY_BUCKETS * STATE_BUCKETS * STATE_BUCKETS * LIFE_BUCKETS * LIFE_BUCKETS;
+
+    // the action for every cell, as an index into the lookahead AI's actions, two cells to a byte
+    private final byte[] actions = new byte[CELL_COUNT / 2];
+
+    public static int getCell(FighterView self, FighterView target) {
+        int dx = bucket(target.getPositionX() - self.getPositionX(), DX_BUCKET_SIZE, DX_BUCKETS);
+        int dy = bucket(target.getPositionY() - self.getPositionY(), DY_BUCKET_SIZE, DY_BUCKETS);
+        int cell = dx;
+        cell = cell * DY_BUCKETS + dy;
+        cell = cell * STATE_BUCKETS + stateBucket(self);
+        cell = cell * STATE_BUCKETS + stateBucket(target);
+        cell = cell * LIFE_BUCKETS + lifeBucket(self);
+        cell = cell * LIFE_BUCKETS + lifeBucket(target);
+        return cell;
+    }
+
+    public static float getCellDistanceX(int cell) {
+        // the target's relative x position at the middle of the cell's bucket
+        int dx = cell / (CELL_COUNT / DX_BUCKETS);
+        return (dx - DX_BUCKETS / 2 + 0.5f) * DX_BUCKET_SIZE;
+    }
+
+    public static float getCellDistanceY(int cell) {
+        int dy = cell / (CELL_COUNT / DX_BUCKETS / DY_BUCKETS) % DY_BUCKETS;
+        return (dy - DY_BUCKETS / 2 + 0.5f) * DY_BUCKET_SIZE;
+    }
+
+    private static int bucket(float distance, float bucketSize, int buckets) {
+        int bucket = (int) Math.floor(distance / bucketSize) + buckets / 2;
+        return Math.min(Math.max(bucket, 0), buckets - 1);
+    }
+
+    private static int stateBucket(FighterView fighter) {
+        Fighter.State state = fighter.getState();
+        return state == null ? Fighter.State.IDLE.ordinal() : state.ordinal();
+    }
+
+    private static int lifeBucket(FighterView fighter) {
+        int bucket = (int) (fighter.getLife() / Fighter.MAX_LIFE * LIFE_BUCKETS);
+        return Math.min(Math.max(bucket, 0), LIFE_BUCKETS - 1);
+    }
+
+    public int getAction(int cell) {
+        return (actions[cell >> 1] >> ((cell & 1) << 2)) & 0xF;
+    }
+
+    public int getAction(FighterView self, FighterView target) {
+        return getAction(getCell(self, target));
+    }
+
+    public void setAction(int cell, int action) {
+        int shift = (cell & 1) << 2;
+        actions[cell >> 1] = (byte) ((actions[cell >> 1] & ~(0xF << shift)) | ((action & 0xF) << shift));
+    }
+
+    public void save(FileHandle file) {
+        DataOutputStream output = new DataOutputStream(file.write(false, 4096));
+        try {
+            // write the header, including the buckets, so a table built for other buckets isn't misread
+            output.writeInt(MAGIC);
+            output.writeByte(VERSION);
+            output.writeByte(DX_BUCKETS);
+            output.writeByte(DY_BUCKETS);
+            output.writeByte(STATE_BUCKETS);
+            output.writeByte(LIFE_BUCKETS);
+            output.writeFloat(DX_BUCKET_SIZE);
+            output.writeFloat(DY_BUCKET_SIZE);
+
+            // write the actions
+            output.write(actions);
+        } catch (IOException e) {
+            throw new GdxRuntimeException("Error writing policy table: " + file, e);
+        } finally {
+            StreamUtils.closeQuietly(output);
+        }
+    }
+
+    public static PolicyTable load(FileHandle file) {
+        DataInputStream input = new DataInputStream(file.read(4096));
+        try {
+            // read and check the header
+            if (input.readInt() != MAGIC) {
+                throw new GdxRuntimeException("Not a policy table file: " + file);
+            }
+            int version = input.readUnsignedByte();
+            if (version != VERSION) {
+                throw new GdxRuntimeException("Unsupported policy table version " + version + ": " + file);
+            }
+            if (input.readUnsignedByte() != DX_BUCKETS || input.readUnsignedByte() != DY_BUCKETS
+                    || input.readUnsignedByte() != STATE_BUCKETS || input.readUnsignedByte() != LIFE_BUCKETS
+                    || input.readFloat() != DX_BUCKET_SIZE || input.readFloat() != DY_BUCKET_SIZE) {
+                throw new GdxRuntimeException("Policy table was built for other buckets: " + file);
+            }
+
+            // read the actions
+            PolicyTable table = new PolicyTable();
+            input.readFully(table.actions);
+            return table;
+        } catch (IOException e) {
+            throw new GdxRuntimeException("Error reading policy table: " + file, e);
+        } finally {
+            StreamUtils.closeQuietly(input);
+        }
+    }
+}
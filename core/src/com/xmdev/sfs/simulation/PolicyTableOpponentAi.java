@@ -0,0 +1,78 @@
+package com.xmdev.sfs.simulation;
+
+import com.badlogic.gdx.math.RandomXS128;
+
+public class PolicyTableOpponentAi implements OpponentAi {
+    // the actions for every state of the fighters, worked out ahead of time by the lookahead AI
+    private final PolicyTable table;
+
+    // in the game, the table only stands in for the search on difficulties that search ahead, and the others are
+    // played by the default AI as they are with the lookahead AI (null to use the table on every difficulty)
+    private final DifficultyProfiles profiles;
+    private final DefaultOpponentAi fallback;
+
+    // decisions are made as often as the lookahead AI makes them, which is what the table was built from
+    private float timer;
+
+    public PolicyTableOpponentAi(PolicyTable table) {
+        this.table = table;
+        profiles = null;
+        fallback = null;
+    }
+
+    public PolicyTableOpponentAi(PolicyTable table, RandomXS128 random, DifficultyProfiles profiles) {
+        this.table = table;
+        this.profiles = profiles;
+        fallback = new DefaultOpponentAi(random, profiles);
+    }
+
+    public void setPlayerModel(PlayerModel playerModel) {
+        // only the default AI it falls back to plays on the player's habits
+        if (fallback != null) {
+            fallback.setPlayerModel(playerModel);
+        }
+    }
+
+    @Override
+    public void reset() {
+        if (fallback != null) {
+            fallback.reset();
+        }
+        timer = 0f;
+    }
+
+    @Override
+    public void update(float deltaTime, FighterView self, FighterView target, FighterCommands commands,
+                       int difficulty) {
+        if (fallback != null && profiles.getLookaheadRollouts(difficulty) <= 0) {
+            fallback.update(deltaTime, self, target, commands, difficulty);
+            return;
+        }
+
+        // wait for the next decision
+        if (timer > 0f) {
+            timer -= deltaTime;
+            return;
+        }
+        timer = LookaheadOpponentAi.DECISION_DELAY;
+
+        // look up the action for the fighters' current state
+        LookaheadOpponentAi.perform(LookaheadOpponentAi.ACTIONS[table.getAction(self, target)], self, commands);
+    }
+
+    @Override
+    public void saveState(MatchSnapshot snapshot) {
+        if (fallback != null) {
+            fallback.saveState(snapshot);
+        }
+        snapshot.writeFloat(timer);
+    }
+
+    @Override
+    public void restoreState(MatchSnapshot snapshot) {
+        if (fallback != null) {
+            fallback.restoreState(snapshot);
+        }
+        timer = snapshot.readFloat();
+    }
+}
@@ -0,0 +1,270 @@
+package com.xmdev.sfs.simulation;
+
+import com.badlogic.gdx.files.FileHandle;
+import com.badlogic.gdx.utils.GdxRuntimeException;
+import com.badlogic.gdx.utils.IntArray;
+import com.badlogic.gdx.utils.StreamUtils;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+
+public class Replay {
+    // file format
+    private static final int MAGIC = 0x53465352; // "SFSR"
+    private static final int VERSION = 5;
+    private static final LookaheadOpponentAi.BudgetMode[] BUDGET_MODES = LookaheadOpponentAi.BudgetMode.values();
+
+    // match setup
+    private long seed;
+    private int difficulty = DifficultyProfiles.EASY;
+    private int tickRate = FixedTimestep.DEFAULT_TICK_RATE;
+    private int playerChoiceIndex;
+    private int opponentChoiceIndex;
+
+    // whether the opponent looked its actions up in the policy table instead of searching ahead
+    private boolean opponentPolicy;
+
+    // how the lookahead AI's searches were limited, which decides what it did
+    private LookaheadOpponentAi.BudgetMode aiBudgetMode = LookaheadOpponentAi.BudgetMode.WORK;
+    private int aiWorkBudget = LookaheadOpponentAi.DEFAULT_WORK_BUDGET;
+
+    // what the opponent knew of the player's habits when the match started (null if it wasn't learning them)
+    private PlayerModel playerModel;
+
+    // player inputs, stored as runs of ticks with the same input
+    private final IntArray runInputs = new IntArray();
+    private final IntArray runLengths = new IntArray();
+    private int tickCount;
+
+    // the match's checksum once it was over, for playback to check it against (only if it has one)
+    private boolean hasFinalChecksum;
+    private int finalChecksum;
+
+    public void begin(long seed, int difficulty, int tickRate,
+                      int playerChoiceIndex, int opponentChoiceIndex, PlayerModel playerModel,
+                      boolean opponentPolicy) {
+        // clear any previous recording and store the match setup
+        this.seed = seed;
+        this.difficulty = difficulty;
+        this.tickRate = tickRate;
+        this.playerChoiceIndex = playerChoiceIndex;
+        this.opponentChoiceIndex = opponentChoiceIndex;
+        this.opponentPolicy = opponentPolicy;
+        aiBudgetMode = LookaheadOpponentAi.BudgetMode.WORK;
+        aiWorkBudget = LookaheadOpponentAi.DEFAULT_WORK_BUDGET;
+        if (playerModel == null) {
+            this.playerModel = null;
+        } else {
+            if (this.playerModel == null) {
+                this.playerModel = new PlayerModel();
+            }
+            this.playerModel.copyFrom(playerModel);
+        }
+        runInputs.clear();
+        runLengths.clear();
+        tickCount = 0;
+        hasFinalChecksum = false;
+    }
+
+    public void recordTick(int input) {
+        // extend the last run if the input hasn't changed, otherwise start a new run
+        if (runInputs.size > 0 && runInputs.peek() == input) {
+            runLengths.incr(runLengths.size - 1, 1);
+        } else {
+            runInputs.add(input);
+            runLengths.add(1);
+        }
+        tickCount++;
+    }
+
+    public void setFinalChecksum(int checksum) {
+        // the match's checksum after the last recorded tick
+        finalChecksum = checksum;
+        hasFinalChecksum = true;
+    }
+
+    public boolean hasFinalChecksum() {
+        return hasFinalChecksum;
+    }
+
+    public int getFinalChecksum() {
+        return finalChecksum;
+    }
+
+    public long getSeed() {
+        return seed;
+    }
+
+    public int getDifficulty() {
+        return difficulty;
+    }
+
+    public int getTickRate() {
+        return tickRate;
+    }
+
+    public int getPlayerChoiceIndex() {
+        return playerChoiceIndex;
+    }
+
+    public int getOpponentChoiceIndex() {
+        return opponentChoiceIndex;
+    }
+
+    public void setAiBudget(LookaheadOpponentAi.BudgetMode budgetMode, int workBudget) {
+        // how the lookahead AI's searches are limited, if it isn't the default work budget
+        aiBudgetMode = budgetMode;
+        aiWorkBudget = workBudget;
+    }
+
+    public LookaheadOpponentAi.BudgetMode getAiBudgetMode() {
+        return aiBudgetMode;
+    }
+
+    public int getAiWorkBudget() {
+        return aiWorkBudget;
+    }
+
+    public boolean isOpponentPolicy() {
+        return opponentPolicy;
+    }
+
+    public PlayerModel getPlayerModel() {
+        return playerModel;
+    }
+
+    public int getTickCount() {
+        return tickCount;
+    }
+
+    public int getRunCount() {
+        return runInputs.size;
+    }
+
+    public int getRunInput(int run) {
+        return runInputs.get(run);
+    }
+
+    public int getRunLength(int run) {
+        return runLengths.get(run);
+    }
+
+    public void save(FileHandle file) {
+        DataOutputStream output = new DataOutputStream(file.write(false, 4096));
+        try {
+            // write the header
+            output.writeInt(MAGIC);
+            output.writeByte(VERSION);
+            output.writeLong(seed);
+            output.writeByte(difficulty);
+            writeVarInt(output, tickRate);
+            writeVarInt(output, playerChoiceIndex);
+            writeVarInt(output, opponentChoiceIndex);
+            output.writeBoolean(opponentPolicy);
+            output.writeByte(aiBudgetMode.ordinal());
+            writeVarInt(output, aiWorkBudget);
+            output.writeBoolean(playerModel != null);
+            if (playerModel != null) {
+                playerModel.write(output);
+            }
+            output.writeBoolean(hasFinalChecksum);
+            if (hasFinalChecksum) {
+                output.writeInt(finalChecksum);
+            }
+
+            // write the input runs
+            writeVarInt(output, runInputs.size);
+            for (int i = 0; i < runInputs.size; i++) {
+                writeVarInt(output, runInputs.get(i));
+                writeVarInt(output, runLengths.get(i));
+            }
+        } catch (IOException e) {
+            throw new GdxRuntimeException("Error writing replay: " + file, e);
+        } finally {
+            StreamUtils.closeQuietly(output);
+        }
+    }
+
+    public static Replay load(FileHandle file) {
+        DataInputStream input = new DataInputStream(file.read(4096));
+        try {
+            // read and check the header
+            if (input.readInt() != MAGIC) {
+                throw new GdxRuntimeException("Not a replay file: " + file);
+            }
+            int version = input.readUnsignedByte();
+            if (version < 1 || version > VERSION) {
+                throw new GdxRuntimeException("Unsupported replay version " + version + ": " + file);
+            }
+
+            Replay replay = new Replay();
+            replay.seed = input.readLong();
+            replay.difficulty = input.readUnsignedByte();
+            replay.tickRate = readVarInt(input);
+            replay.playerChoiceIndex = readVarInt(input);
+            replay.opponentChoiceIndex = readVarInt(input);
+
+            // the opponent always searched ahead in replays from before the policy table could be played against
+            replay.opponentPolicy = version >= 4 && input.readBoolean();
+
+            // and before the work budget, the lookahead AI searched up to its rollout limit for every decision
+            if (version >= 5) {
+                int budgetMode = input.readUnsignedByte();
+                if (budgetMode >= BUDGET_MODES.length) {
+                    throw new GdxRuntimeException("Unknown AI budget mode " + budgetMode + ": " + file);
+                }
+                replay.aiBudgetMode = BUDGET_MODES[budgetMode];
+                replay.aiWorkBudget = readVarInt(input);
+            } else {
+                replay.aiBudgetMode = LookaheadOpponentAi.BudgetMode.ROLLOUT_LIMIT;
+            }
+
+            // replays from before the player model was added were played without one
+            if (version >= 2 && input.readBoolean()) {
+                replay.playerModel = new PlayerModel();
+                replay.playerModel.read(input);
+            }
+
+            // nor did replays from before the final checksum was added have one to check
+            if (version >= 3 && input.readBoolean()) {
+                replay.setFinalChecksum(input.readInt());
+            }
+
+            // read the input runs
+            int runCount = readVarInt(input);
+            for (int i = 0; i < runCount; i++) {
+                int runInput = readVarInt(input);
+                int runLength = readVarInt(input);
+                replay.runInputs.add(runInput);
+                replay.runLengths.add(runLength);
+                replay.tickCount += runLength;
+            }
+
+            return replay;
+        } catch (IOException e) {
+            throw new GdxRuntimeException("Error reading replay: " + file, e);
+        } finally {
+            StreamUtils.closeQuietly(input);
+        }
+    }
+
+    private static void writeVarInt(DataOutputStream output, int value) throws IOException {
+        // write 7 bits at a time, with the high bit set on every byte but the last
+        while ((value & ~0x7F) != 0) {
+            output.writeByte((value & 0x7F) | 0x80);
+            value >>>= 7;
+        }
+        output.writeByte(value);
+    }
+
+    private static int readVarInt(DataInputStream input) throws IOException {
+        int value = 0;
+        for (int shift = 0; shift < 32; shift += 7) {
+            int b = input.readUnsignedByte();
+            value |= (b & 0x7F) << shift;
+            if ((b & 0x80) == 0) return value;
+        }
+        throw new GdxRuntimeException("Malformed variable-length integer in replay");
+    }
+}
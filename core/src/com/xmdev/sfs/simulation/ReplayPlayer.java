@@ -0,0 +1,44 @@
+package com.xmdev.sfs.simulation;
+
+public class ReplayPlayer {
+    private final Replay replay;
+    private int run;
+    private int tickInRun;
+    private int tick;
+
+    public ReplayPlayer(Replay replay) {
+        this.replay = replay;
+    }
+
+    public Replay getReplay() {
+        return replay;
+    }
+
+    public int getTick() {
+        return tick;
+    }
+
+    public boolean isFinished() {
+        return tick >= replay.getTickCount();
+    }
+
+    public boolean hasDiverged(int checksum) {
+        // whether the match played back has ended up somewhere else than the recorded one, given its checksum
+        // once it's over (replays without a final checksum can't tell, and are taken to match)
+        return replay.hasFinalChecksum() && checksum != replay.getFinalChecksum();
+    }
+
+    public int nextInput() {
+        // once the recording has run out, no keys are held
+        if (isFinished()) return PlayerInput.NONE;
+
+        // get the input of the current run, then move on to the next run if this one is used up
+        int input = replay.getRunInput(run);
+        tick++;
+        if (++tickInRun >= replay.getRunLength(run)) {
+            run++;
+            tickInRun = 0;
+        }
+        return input;
+    }
+}
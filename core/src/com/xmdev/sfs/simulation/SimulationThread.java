@@ -0,0 +1,95 @@
+package com.xmdev.sfs.simulation;
+
+import com.badlogic.gdx.utils.GdxRuntimeException;
+import com.badlogic.gdx.utils.TimeUtils;
+
+import java.util.concurrent.locks.LockSupport;
+
+public class SimulationThread {
+    // steps a simulation with the real time that has passed, on a thread of its own, so it keeps its own pace while
+    // the frames are drawn instead of waiting for each one
+    public interface Steppable {
+        // run whatever the given time (in seconds) calls for, and return false once there's nothing left to run
+        boolean step(float elapsedTime);
+    }
+
+    // how long the thread sleeps between steps (nanoseconds)
+    private static final long IDLE_TIME = 1000000L;
+
+    private final Steppable steppable;
+    private final String name;
+    private Thread thread;
+    private volatile boolean running;
+    private volatile RuntimeException failure;
+
+    public SimulationThread(Steppable steppable, String name) {
+        this.steppable = steppable;
+        this.name = name;
+    }
+
+    public void start() {
+        if (thread != null) return;
+        running = true;
+        thread = new Thread(new Runnable() {
+            @Override
+            public void run() {
+                runSteps();
+            }
+        }, name);
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    private void runSteps() {
+        long lastTime = TimeUtils.nanoTime();
+        try {
+            while (running) {
+                long time = TimeUtils.nanoTime();
+                float elapsedTime = (time - lastTime) / 1e9f;
+                lastTime = time;
+                if (!steppable.step(elapsedTime)) {
+                    break;
+                }
+                LockSupport.parkNanos(this, IDLE_TIME);
+            }
+        } catch (RuntimeException e) {
+            // kept for the thread that stops this one to rethrow, rather than the simulation silently freezing
+            failure = e;
+        }
+        running = false;
+    }
+
+    public void stop() {
+        // stop stepping and wait for the step that's running, if any, so everything it changed can be read safely
+        // by the thread calling this
+        if (thread == null) return;
+        running = false;
+        LockSupport.unpark(thread);
+        boolean interrupted = false;
+        while (thread.isAlive()) {
+            try {
+                thread.join();
+            } catch (InterruptedException e) {
+                interrupted = true;
+            }
+        }
+        thread = null;
+        if (interrupted) {
+            Thread.currentThread().interrupt();
+        }
+        checkFailure();
+    }
+
+    public boolean isRunning() {
+        // false once the thread has been stopped, or the simulation has stopped itself (it still needs stopping)
+        return running;
+    }
+
+    public void checkFailure() {
+        RuntimeException e = failure;
+        if (e != null) {
+            failure = null;
+            throw new GdxRuntimeException("The " + name + " thread failed", e);
+        }
+    }
+}
@@ -0,0 +1,66 @@
+package com.xmdev.sfs.simulation;
+
+public class StateChecksum {
+    // FNV-1a over whole ints instead of bytes, cheap enough to run every tick
+    public static final int SEED = 0x811C9DC5;
+    private static final int PRIME = 0x01000193;
+
+    // how many ticks of checksums a ring keeps by default (a power of two, so ticks can be masked into it)
+    public static final int DEFAULT_CAPACITY = 1024;
+
+    // the tick each slot was recorded for (-1 if empty) and its checksum
+    private final int[] ticks;
+    private final int[] checksums;
+
+    public StateChecksum() {
+        this(DEFAULT_CAPACITY);
+    }
+
+    public StateChecksum(int capacity) {
+        if (capacity <= 0 || (capacity & (capacity - 1)) != 0) {
+            throw new IllegalArgumentException("Capacity must be a positive power of two: " + capacity);
+        }
+        ticks = new int[capacity];
+        checksums = new int[capacity];
+        clear();
+    }
+
+    public static int mix(int hash, int value) {
+        return (hash ^ value) * PRIME;
+    }
+
+    public static int mix(int hash, float value) {
+        return mix(hash, Float.floatToIntBits(value));
+    }
+
+    public void clear() {
+        for (int i = 0; i < ticks.length; i++) {
+            ticks[i] = -1;
+        }
+    }
+
+    public void record(int tick, int checksum) {
+        // recording a tick again (e.g. after a rollback) replaces the old checksum
+        int index = tick & (ticks.length - 1);
+        ticks[index] = tick;
+        checksums[index] = checksum;
+    }
+
+    public boolean contains(int tick) {
+        return tick >= 0 && ticks[tick & (ticks.length - 1)] == tick;
+    }
+
+    public int get(int tick) {
+        return checksums[tick & (ticks.length - 1)];
+    }
+
+    public static int findFirstDivergence(StateChecksum first, StateChecksum second, int fromTick, int toTick) {
+        // find the first tick in the range both rings still hold and disagree on, or -1 if there's none
+        for (int tick = fromTick; tick <= toTick; tick++) {
+            if (first.contains(tick) && second.contains(tick) && first.get(tick) != second.get(tick)) {
+                return tick;
+            }
+        }
+        return -1;
+    }
+}
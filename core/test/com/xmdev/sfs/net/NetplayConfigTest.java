@@ -0,0 +1,45 @@
+package com.xmdev.sfs.net;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+public class NetplayConfigTest {
+    @Test
+    public void readsTheNetplayArgumentsUpToTheNextOption() {
+        NetplayConfig config = NetplayConfig.fromArgs(new String[] {
+                "--render-stats", "--netplay", "2", "7000", "example.com:7001", "--sim-thread", "--tick-rate", "120"
+        });
+
+        assertEquals(NetplayConfig.Slot.OPPONENT, config.localSlot);
+        assertEquals(7000, config.localPort);
+        assertEquals("example.com", config.remoteHost);
+        assertEquals(7001, config.remotePort);
+        assertEquals(0, config.simulatedLatencyMillis);
+    }
+
+    @Test
+    public void readsTheSimulatedLatencyAndLoss() {
+        NetplayConfig config = NetplayConfig.fromArgs(new String[] {"--netplay", "1", "7000", "7001", "80", "5"});
+
+        assertEquals("127.0.0.1", config.remoteHost);
+        assertEquals(80, config.simulatedLatencyMillis);
+        assertEquals(0.05f, config.simulatedLossChance, 1e-6f);
+    }
+
+    @Test
+    public void returnsNullWithoutNetplay() {
+        assertNull(NetplayConfig.fromArgs(new String[] {"--sim-thread"}));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void rejectsMissingArguments() {
+        NetplayConfig.fromArgs(new String[] {"--netplay", "1", "7000", "--sim-thread"});
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void rejectsAPortThatIsntANumber() {
+        NetplayConfig.fromArgs(new String[] {"--netplay", "1", "port", "7001"});
+    }
+}
@@ -0,0 +1,102 @@
+package com.xmdev.sfs.objects;
+
+import com.badlogic.gdx.graphics.g2d.TextureRegion;
+import com.badlogic.gdx.utils.FloatArray;
+import com.xmdev.sfs.rendering.CountingBatch;
+import com.xmdev.sfs.simulation.MatchSnapshot;
+import org.junit.Test;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+
+public class DecalEngineTest {
+    private static final float FADE_TIME = 1f;
+
+    private final TextureRegion[] regions = {new TextureRegion(), new TextureRegion()};
+
+    @Test
+    public void replacesTheOldestWhenFull() {
+        // the newest decal goes on top and the oldest one makes room for it
+        DecalEngine decals = new DecalEngine(regions, 3, 0f, FADE_TIME);
+        spawn(decals, 1, 2, 3, 4, 5);
+
+        assertEquals(3, decals.getCount());
+        assertDrawn(decals, 3, 4, 5);
+    }
+
+    @Test
+    public void removesFinishedDecalsInSpawnOrder() {
+        DecalEngine decals = new DecalEngine(regions, 4, 0f, FADE_TIME);
+        spawn(decals, 1, 2);
+        decals.update(0.5f);
+        spawn(decals, 3);
+        decals.update(0.6f);
+
+        assertDrawn(decals, 3);
+        decals.update(0.4f);
+        assertEquals(0, decals.getCount());
+    }
+
+    @Test
+    public void keepsTheNewestWhenTheLimitIsLowered() {
+        // with the decals wrapped around the end of the ring
+        DecalEngine decals = new DecalEngine(regions, 4, 0f, FADE_TIME);
+        spawn(decals, 1, 2, 3, 4, 5, 6);
+        decals.setLimit(2);
+
+        assertEquals(2, decals.getLimit());
+        assertDrawn(decals, 5, 6);
+        spawn(decals, 7);
+        assertDrawn(decals, 6, 7);
+    }
+
+    @Test
+    public void copiesTheDecalsInOrder() {
+        DecalEngine decals = new DecalEngine(regions, 4, 0f, FADE_TIME);
+        spawn(decals, 1, 2, 3, 4, 5, 6);
+        DecalEngine copy = new DecalEngine(decals);
+        copy.copyFrom(decals);
+
+        assertDrawn(copy, 3, 4, 5, 6);
+        spawn(copy, 7);
+        assertDrawn(copy, 4, 5, 6, 7);
+    }
+
+    @Test
+    public void restoresTheDecalsFromASnapshot() {
+        // saved with the decals wrapped around the end of the ring, then changed
+        DecalEngine decals = new DecalEngine(regions, 4, 0f, FADE_TIME);
+        spawn(decals, 1, 2, 3, 4, 5);
+        decals.update(0.25f);
+        MatchSnapshot snapshot = new MatchSnapshot(decals.getStateFloats(), decals.getStateInts(), 0);
+        decals.saveState(snapshot);
+        spawn(decals, 6, 7);
+        decals.update(0.5f);
+
+        snapshot.rewind();
+        decals.restoreState(snapshot);
+        assertDrawn(decals, 2, 3, 4, 5);
+
+        // the restored decals carry on aging from where they were
+        decals.update(0.75f);
+        assertEquals(0, decals.getCount());
+    }
+
+    private void spawn(DecalEngine decals, float... positions) {
+        for (float position : positions) {
+            decals.spawn(position, 0f, 1);
+        }
+    }
+
+    private void assertDrawn(DecalEngine decals, float... positions) {
+        // the decals' positions in the order they're drawn
+        final FloatArray drawn = new FloatArray();
+        decals.render(new CountingBatch() {
+            @Override
+            public void draw(TextureRegion region, float x, float y, float width, float height) {
+                drawn.add(x);
+            }
+        }, 1f);
+        assertArrayEquals(positions, drawn.toArray(), 0f);
+    }
+}
@@ -0,0 +1,103 @@
+package com.xmdev.sfs.rendering;
+
+import com.badlogic.gdx.graphics.Texture;
+import com.badlogic.gdx.graphics.g2d.TextureRegion;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+
+public class CountingBatchTest {
+    // 6 vertices (two triangles) per sprite, the way the profiler counts them
+    private static final int VERTICES_PER_SPRITE = 6;
+
+    private static Texture atlas;
+    private static Texture font;
+
+    @BeforeClass
+    public static void createTextures() {
+        atlas = StubTextures.create(256, 256);
+        font = StubTextures.create(128, 128);
+    }
+
+    @Test
+    public void countsAFrameLikeASpriteBatch() {
+        // a game screen frame in miniature: atlas sprites, then text, then another atlas sprite
+        CountingBatch batch = new CountingBatch();
+        TextureRegion fighter = new TextureRegion(atlas, 0, 0, 32, 64);
+        TextureRegion glyph = new TextureRegion(font, 0, 0, 8, 8);
+
+        batch.begin();
+        batch.draw(fighter, 0f, 0f);
+        batch.draw(fighter, 10f, 0f, 32f, 64f);
+        batch.draw(atlas, 0f, 0f);
+        for (int i = 0; i < 5; i++) {
+            batch.draw(glyph, i * 8f, 100f);
+        }
+        batch.draw(fighter, 20f, 0f);
+        batch.end();
+
+        // one draw call per run of the same texture, and every sprite's vertices
+        assertEquals(3, batch.getRenderCalls());
+        assertEquals(3, batch.getTextureSwitches());
+        assertEquals(1, batch.getShaderSwitches());
+        assertEquals(9 * VERTICES_PER_SPRITE, batch.getVertices());
+    }
+
+    @Test
+    public void flushesWhenFull() {
+        // 5 sprites through a batch with room for 2 take 3 draw calls
+        CountingBatch batch = new CountingBatch(2);
+        batch.begin();
+        for (int i = 0; i < 5; i++) {
+            batch.draw(atlas, i, 0f);
+        }
+        batch.end();
+
+        assertEquals(3, batch.getRenderCalls());
+        assertEquals(1, batch.getTextureSwitches());
+        assertEquals(5 * VERTICES_PER_SPRITE, batch.getVertices());
+    }
+
+    @Test
+    public void flushesOnStateChanges() {
+        // blending, blend function and matrix changes each end the draw call, but only when something changed
+        CountingBatch batch = new CountingBatch();
+        batch.begin();
+        batch.draw(atlas, 0f, 0f);
+        batch.disableBlending();
+        batch.disableBlending();
+        batch.draw(atlas, 0f, 0f);
+        batch.enableBlending();
+        batch.draw(atlas, 0f, 0f);
+        batch.setProjectionMatrix(batch.getProjectionMatrix());
+        batch.draw(atlas, 0f, 0f);
+        batch.end();
+
+        assertEquals(4, batch.getRenderCalls());
+        assertEquals(1, batch.getTextureSwitches());
+        assertEquals(4 * VERTICES_PER_SPRITE, batch.getVertices());
+    }
+
+    @Test
+    public void countsAcrossFramesWithRenderStats() {
+        // the stats take each frame's counts as the difference from the running totals
+        CountingBatch batch = new CountingBatch();
+        RenderStats stats = new RenderStats(batch, 4);
+        for (int frame = 1; frame <= 3; frame++) {
+            stats.beginFrame();
+            batch.begin();
+            for (int i = 0; i < frame; i++) {
+                batch.draw(i % 2 == 0 ? atlas : font, 0f, 0f);
+            }
+            batch.end();
+            stats.endFrame();
+        }
+
+        assertEquals(3, stats.getFrameCount());
+        assertEquals(3, stats.getLast(RenderStats.RENDER_CALLS));
+        assertEquals(1, stats.getMin(RenderStats.RENDER_CALLS));
+        assertEquals(3 * VERTICES_PER_SPRITE, stats.getMax(RenderStats.VERTICES));
+        assertEquals(1, stats.getLast(RenderStats.SHADER_SWITCHES));
+    }
+}
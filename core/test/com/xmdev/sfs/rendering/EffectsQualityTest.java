@@ -0,0 +1,27 @@
+package com.xmdev.sfs.rendering;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+
+public class EffectsQualityTest {
+    @Test
+    public void budgetsFramesByTheFrameRate() {
+        assertEquals(1f / 144f, new EffectsQuality(144).getFrameBudget(), 0f);
+        assertEquals(1f / EffectsQuality.DEFAULT_FRAME_RATE, new EffectsQuality(0).getFrameBudget(), 0f);
+    }
+
+    @Test
+    public void cutsEffectsWhenFramesMissTheDisplaysRate() {
+        // a second of 60 fps frames keeps full effects at 60 Hz, but is too slow for a 144 Hz display
+        assertEquals(EffectsQuality.HIGH, runFrames(new EffectsQuality(60), 60, 1f / 60f));
+        assertEquals(EffectsQuality.MEDIUM, runFrames(new EffectsQuality(144), 144, 1f / 60f));
+    }
+
+    private int runFrames(EffectsQuality quality, int frames, float frameTime) {
+        for (int i = 0; i < frames; i++) {
+            quality.update(frameTime);
+        }
+        return quality.getLevel();
+    }
+}
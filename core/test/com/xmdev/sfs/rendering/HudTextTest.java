@@ -0,0 +1,122 @@
+package com.xmdev.sfs.rendering;
+
+import com.badlogic.gdx.Files;
+import com.badlogic.gdx.files.FileHandle;
+import com.badlogic.gdx.graphics.Color;
+import com.badlogic.gdx.graphics.g2d.BitmapFont;
+import com.badlogic.gdx.graphics.g2d.TextureRegion;
+import com.badlogic.gdx.utils.Align;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import java.lang.management.ManagementFactory;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class HudTextTest {
+    // enough frames for every value the HUD cycles through below to have been laid out, then the frames measured
+    private static final int WARM_UP_FRAMES = 2000;
+    private static final int MEASURED_FRAMES = 1000;
+    private static final int MEASURED_WINDOWS = 10;
+
+    private static final float CRITICAL_ROUND_TIME = 10f;
+    private static final String[] STATUSES = {"ONLINE", "WAITING FOR OPPONENT", "OUT OF SYNC"};
+
+    private static BitmapFont font;
+
+    // the lines the game screen's HUD and round start draw
+    private final HudText winsText = new HudText(font, Align.left);
+    private final HudText difficultyText = new HudText(font, Align.right);
+    private final HudText playerNameText = new HudText(font, Align.left);
+    private final HudText opponentNameText = new HudText(font, Align.right);
+    private final HudText roundTimerText = new HudText(font, Align.left);
+    private final HudText statusText = new HudText(font, Align.left);
+    private final HudText startRoundText = new HudText(font, Align.center);
+    private final CountingBatch batch = new CountingBatch();
+
+    @BeforeClass
+    public static void createFont() {
+        // libGDX's built-in font, on a stub texture
+        FileHandle fontFile = new FileHandle("com/badlogic/gdx/utils/lsans-15.fnt", Files.FileType.Classpath) {
+        };
+        BitmapFont.BitmapFontData data = new BitmapFont.BitmapFontData(fontFile, false);
+        font = new BitmapFont(data, new TextureRegion(StubTextures.create(256, 128)), false);
+    }
+
+    @Test
+    public void drawsTheTextAsItChanges() {
+        // the same text draws the same glyphs every frame, and longer text more of them
+        int oneDigit = drawWins(1);
+        assertTrue(oneDigit > 0);
+        assertEquals(oneDigit, drawWins(1));
+        assertTrue(drawWins(10) > oneDigit);
+    }
+
+    private int drawWins(int wins) {
+        // the vertices of a frame drawing the rounds won
+        int vertices = batch.getVertices();
+        batch.begin();
+        winsText.clear().append("WINS: ").append(wins);
+        winsText.draw(batch, 0f, 0f);
+        batch.end();
+        return batch.getVertices() - vertices;
+    }
+
+    @Test
+    public void steadyStateFramesAllocateNothing() {
+        com.sun.management.ThreadMXBean threads =
+                (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        long threadId = Thread.currentThread().getId();
+        for (int frame = 0; frame < WARM_UP_FRAMES; frame++) {
+            drawFrame(frame);
+        }
+
+        // the JIT can allocate a few bytes on this thread now and then while it's still compiling, so the frames
+        // are measured in a few windows and the quietest one counts: anything the HUD allocates itself shows up
+        // in every window
+        long allocated = Long.MAX_VALUE;
+        int frame = WARM_UP_FRAMES;
+        for (int window = 0; window < MEASURED_WINDOWS && allocated > 0L; window++) {
+            long allocatedBefore = threads.getThreadAllocatedBytes(threadId);
+            for (int i = 0; i < MEASURED_FRAMES; i++) {
+                drawFrame(frame++);
+            }
+            allocated = Math.min(allocated, threads.getThreadAllocatedBytes(threadId) - allocatedBefore);
+        }
+
+        assertEquals("bytes allocated over " + MEASURED_FRAMES + " frames", 0L, allocated);
+    }
+
+    private void drawFrame(int frame) {
+        // the HUD built the way the game screen builds it, with its values changing the way they do in a match
+        batch.begin();
+        winsText.clear().append("WINS: ").append(frame / 300 % 3).append(" - ").append(frame / 500 % 3);
+        winsText.draw(batch, 0f, 0f);
+        difficultyText.clear().append("DIFFICULTY: ").append("MEDIUM");
+        difficultyText.draw(batch, 0f, 0f);
+        playerNameText.set("Stickman").draw(batch, 0f, 0f);
+        opponentNameText.set("Stickwoman").draw(batch, 0f, 0f);
+
+        float time = 99.99f - frame % 1000 * 0.1f;
+        int roundTimer = (int) time;
+        StringBuilder roundTimerDigits = roundTimerText.clear();
+        if (roundTimer < 10) {
+            roundTimerDigits.append('0');
+        }
+        roundTimerDigits.append(roundTimer);
+        roundTimerText.setColor(time < CRITICAL_ROUND_TIME ? Color.RED : Color.WHITE);
+        roundTimerText.draw(batch, 0f, 0f);
+
+        statusText.set(STATUSES[frame / 100 % STATUSES.length]).draw(batch, 0f, 0f);
+
+        if (frame % 240 < 60) {
+            startRoundText.clear().append("ROUND ").append(frame / 240 % 3 + 1);
+            startRoundText.setColor(Color.WHITE);
+        } else {
+            startRoundText.set("FIGHT!").setColor(Color.RED);
+        }
+        startRoundText.draw(batch, 0f, 0f);
+        batch.end();
+    }
+}
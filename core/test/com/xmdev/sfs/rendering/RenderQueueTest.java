@@ -0,0 +1,95 @@
+package com.xmdev.sfs.rendering;
+
+import com.badlogic.gdx.graphics.g2d.Batch;
+import com.badlogic.gdx.math.RandomXS128;
+import com.badlogic.gdx.utils.IntArray;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+
+public class RenderQueueTest {
+    // the ids of the items in the order they're drawn
+    private final IntArray drawn = new IntArray();
+
+    @Test
+    public void drawsAFewItemsBackToFront() {
+        // few enough for the insertion sort, with items at the same depth kept in the order they were submitted
+        RenderQueue queue = new RenderQueue();
+        float[] depths = {2f, 5f, 2f, -1f, 5f, 0f, -0f, 3.5f};
+        submit(queue, depths);
+        queue.render(null, 1f);
+
+        assertArrayEquals(expectedOrder(depths), drawn.toArray());
+        assertEquals(0, queue.size());
+    }
+
+    @Test
+    public void drawsManyItemsBackToFront() {
+        // enough for the radix sort, over negative and positive depths with plenty of them repeated
+        RandomXS128 random = new RandomXS128(1L);
+        float[] depths = new float[300];
+        for (int i = 0; i < depths.length; i++) {
+            depths[i] = (random.nextInt(41) - 20) * 0.5f;
+        }
+        RenderQueue queue = new RenderQueue();
+        submit(queue, depths);
+        queue.render(null, 1f);
+
+        assertArrayEquals(expectedOrder(depths), drawn.toArray());
+    }
+
+    @Test
+    public void sortsTheSameOnTheNextFrame() {
+        // after growing for one frame and clearing, the next frame sorts on its own items only
+        RenderQueue queue = new RenderQueue(4);
+        float[] first = new float[100];
+        for (int i = 0; i < first.length; i++) {
+            first[i] = i % 7;
+        }
+        submit(queue, first);
+        queue.render(null, 1f);
+
+        drawn.clear();
+        float[] second = {1f, 3f, 1f};
+        submit(queue, second);
+        queue.render(null, 1f);
+        assertArrayEquals(expectedOrder(second), drawn.toArray());
+    }
+
+    private void submit(RenderQueue queue, float[] depths) {
+        for (int i = 0; i < depths.length; i++) {
+            final int id = i;
+            queue.submit(new Renderable() {
+                @Override
+                public void render(Batch batch, float alpha) {
+                    drawn.add(id);
+                }
+            }, depths[i]);
+        }
+    }
+
+    private static int[] expectedOrder(final float[] depths) {
+        // the deepest first, and a stable sort keeps submission order among equal depths
+        List<Integer> ids = new ArrayList<>();
+        for (int i = 0; i < depths.length; i++) {
+            ids.add(i);
+        }
+        Collections.sort(ids, new Comparator<Integer>() {
+            @Override
+            public int compare(Integer a, Integer b) {
+                return Float.compare(depths[b] + 0f, depths[a] + 0f);
+            }
+        });
+        int[] order = new int[ids.size()];
+        for (int i = 0; i < order.length; i++) {
+            order[i] = ids.get(i);
+        }
+        return order;
+    }
+}
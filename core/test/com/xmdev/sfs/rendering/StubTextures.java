@@ -0,0 +1,114 @@
+package com.xmdev.sfs.rendering;
+
+import com.badlogic.gdx.Gdx;
+import com.badlogic.gdx.Graphics;
+import com.badlogic.gdx.graphics.GL20;
+import com.badlogic.gdx.graphics.Pixmap;
+import com.badlogic.gdx.graphics.Texture;
+import com.badlogic.gdx.graphics.TextureData;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+
+final class StubTextures {
+    // textures for drawing through a CountingBatch in tests, without a GL context: the GL calls go to stubs that do
+    // nothing, and the texture's data is never uploaded
+
+    private StubTextures() {
+    }
+
+    static Texture create(int width, int height) {
+        installStubGl();
+        return new Texture(new StubTextureData(width, height));
+    }
+
+    private static void installStubGl() {
+        if (Gdx.gl != null) return;
+        GL20 gl = stub(GL20.class);
+        Gdx.gl = gl;
+        Gdx.gl20 = gl;
+        if (Gdx.graphics == null) {
+            Gdx.graphics = stub(Graphics.class);
+        }
+    }
+
+    private static <T> T stub(Class<T> type) {
+        // 0 (or false, or null) from every method
+        return type.cast(Proxy.newProxyInstance(type.getClassLoader(), new Class<?>[]{type},
+                new InvocationHandler() {
+                    @Override
+                    public Object invoke(Object proxy, Method method, Object[] args) {
+                        Class<?> returnType = method.getReturnType();
+                        if (returnType == int.class) return 0;
+                        if (returnType == long.class) return 0L;
+                        if (returnType == float.class) return 0f;
+                        if (returnType == boolean.class) return false;
+                        return null;
+                    }
+                }));
+    }
+
+    private static class StubTextureData implements TextureData {
+        private final int width;
+        private final int height;
+
+        StubTextureData(int width, int height) {
+            this.width = width;
+            this.height = height;
+        }
+
+        @Override
+        public TextureDataType getType() {
+            return TextureDataType.Custom;
+        }
+
+        @Override
+        public boolean isPrepared() {
+            return true;
+        }
+
+        @Override
+        public void prepare() {
+        }
+
+        @Override
+        public Pixmap consumePixmap() {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public boolean disposePixmap() {
+            return false;
+        }
+
+        @Override
+        public void consumeCustomData(int target) {
+        }
+
+        @Override
+        public int getWidth() {
+            return width;
+        }
+
+        @Override
+        public int getHeight() {
+            return height;
+        }
+
+        @Override
+        public Pixmap.Format getFormat() {
+            return Pixmap.Format.RGBA8888;
+        }
+
+        @Override
+        public boolean useMipMaps() {
+            return false;
+        }
+
+        @Override
+        public boolean isManaged() {
+            return false;
+        }
+    }
+}
@@ -0,0 +1,50 @@
+package com.xmdev.sfs.simulation;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+
+public class FixedTimestepTest {
+    private static final float EPSILON = 1e-4f;
+
+    @Test
+    public void carriesTheLeftoverTimeIntoTheAlpha() {
+        FixedTimestep timestep = new FixedTimestep(10, 5);
+
+        assertEquals(2, timestep.advance(0.25f));
+        assertEquals(0.5f, timestep.getAlpha(), EPSILON);
+
+        // the leftover half tick counts toward the next frame
+        assertEquals(1, timestep.advance(0.07f));
+        assertEquals(0.2f, timestep.getAlpha(), EPSILON);
+    }
+
+    @Test
+    public void catchesUpOnNoMoreThanTheMaxTicksPerFrame() {
+        // a frame that fits within the cap keeps its leftover time
+        FixedTimestep timestep = new FixedTimestep(10, 3);
+        assertEquals(3, timestep.advance(0.35f));
+        assertEquals(0.5f, timestep.getAlpha(), EPSILON);
+
+        // a longer one drops the ticks past the cap instead of carrying them over
+        assertEquals(3, timestep.advance(1f));
+        assertEquals(0f, timestep.getAlpha(), 0f);
+        assertEquals(0, timestep.advance(0.05f));
+        assertEquals(0.5f, timestep.getAlpha(), EPSILON);
+    }
+
+    @Test
+    public void startsOverAfterAReset() {
+        FixedTimestep timestep = new FixedTimestep(10, 5);
+        timestep.advance(0.05f);
+        timestep.reset();
+
+        assertEquals(0f, timestep.getAlpha(), 0f);
+        assertEquals(0, timestep.advance(0.05f));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void rejectsATickRateOfZero() {
+        new FixedTimestep(0, 5);
+    }
+}
@@ -0,0 +1,100 @@
+package com.xmdev.sfs.simulation;
+
+import com.badlogic.gdx.graphics.Color;
+import com.xmdev.sfs.objects.Fighter;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertTrue;
+
+public class MatchSimulationTest {
+    private static final float TICK_TIME = 1f / FixedTimestep.DEFAULT_TICK_RATE;
+    private static final int MAX_TICKS = 60 * FixedTimestep.DEFAULT_TICK_RATE * MatchSimulation.MAX_ROUNDS;
+
+    @Test
+    public void playsAMatchToTheEndWithoutTheGame() {
+        MatchSimulation match = createMatch();
+        match.startMatch(1L);
+        for (int tick = 0; tick < MAX_TICKS && !match.isMatchOver(); tick++) {
+            match.skipRoundDelay();
+            match.setPlayerInput(inputAt(tick));
+            match.update(TICK_TIME);
+        }
+
+        assertTrue(match.isMatchOver());
+    }
+
+    @Test
+    public void carriesOnTheSameFromASnapshot() {
+        // a match restored partway through ends up where the one it was saved from does
+        MatchSimulation match = createMatch();
+        match.startMatch(2L);
+        play(match, 0, 300);
+        MatchSnapshot snapshot = new MatchSnapshot();
+        match.saveState(snapshot);
+        play(match, 300, 600);
+        int checksum = match.checksum();
+
+        MatchSimulation restored = createMatch();
+        snapshot.rewind();
+        restored.restoreState(snapshot);
+        play(restored, 300, 600);
+        assertEquals(checksum, restored.checksum());
+    }
+
+    @Test
+    public void repeatsTheSameMatchFromTheSameSeedAndInputs() {
+        // checked every tick, so a difference shows up where it starts rather than only at the end
+        MatchSimulation first = createMatch();
+        MatchSimulation second = createMatch();
+        first.startMatch(3L);
+        second.startMatch(3L);
+        for (int tick = 0; tick < 1200; tick++) {
+            play(first, tick, tick + 1);
+            play(second, tick, tick + 1);
+            assertEquals("tick " + tick, first.checksum(), second.checksum());
+        }
+    }
+
+    @Test
+    public void playsADifferentMatchFromAnotherSeed() {
+        MatchSimulation first = createMatch();
+        MatchSimulation second = createMatch();
+        first.startMatch(3L);
+        second.startMatch(4L);
+        play(first, 0, 1200);
+        play(second, 0, 1200);
+
+        assertNotEquals(first.checksum(), second.checksum());
+    }
+
+    private static MatchSimulation createMatch() {
+        MatchSimulation match = new MatchSimulation(new Fighter("Player", Color.WHITE), new Fighter("Opponent", Color.WHITE));
+        match.setDifficulty(DifficultyProfiles.HARD);
+        return match;
+    }
+
+    private static void play(MatchSimulation match, int fromTick, int toTick) {
+        for (int tick = fromTick; tick < toTick; tick++) {
+            match.skipRoundDelay();
+            match.setPlayerInput(inputAt(tick));
+            match.update(TICK_TIME);
+        }
+    }
+
+    private static int inputAt(int tick) {
+        // walk toward the opponent, then punch, kick and block in turn
+        switch ((tick / 20) % 5) {
+            case 0:
+            case 1:
+                return PlayerInput.RIGHT;
+            case 2:
+                return (tick & 1) == 0 ? PlayerInput.PUNCH : PlayerInput.NONE;
+            case 3:
+                return (tick & 1) == 0 ? PlayerInput.KICK : PlayerInput.NONE;
+            default:
+                return PlayerInput.BLOCK;
+        }
+    }
+}
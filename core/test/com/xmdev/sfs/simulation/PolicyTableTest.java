@@ -0,0 +1,65 @@
+package com.xmdev.sfs.simulation;
+
+import com.badlogic.gdx.files.FileHandle;
+import com.badlogic.gdx.utils.GdxRuntimeException;
+import org.junit.Test;
+
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.IOException;
+
+import static org.junit.Assert.assertEquals;
+
+public class PolicyTableTest {
+    @Test
+    public void readsBackWhatItWrote() throws IOException {
+        // every cell gets an action, so both halves of every byte are checked
+        PolicyTable table = new PolicyTable();
+        for (int cell = 0; cell < PolicyTable.CELL_COUNT; cell++) {
+            table.setAction(cell, (cell * 7 + cell / 3) % LookaheadOpponentAi.ACTION_COUNT);
+        }
+        FileHandle file = createTempFile();
+        table.save(file);
+
+        PolicyTable loaded = PolicyTable.load(file);
+        for (int cell = 0; cell < PolicyTable.CELL_COUNT; cell++) {
+            assertEquals(table.getAction(cell), loaded.getAction(cell));
+        }
+    }
+
+    @Test(expected = GdxRuntimeException.class)
+    public void rejectsAnotherKindOfFile() throws IOException {
+        FileHandle file = createTempFile();
+        DataOutputStream output = new DataOutputStream(file.write(false));
+        output.writeInt(0x53465352); // a replay's magic number
+        output.writeByte(1);
+        output.close();
+
+        PolicyTable.load(file);
+    }
+
+    @Test(expected = GdxRuntimeException.class)
+    public void rejectsATableBuiltForOtherBuckets() throws IOException {
+        // the header of a table with twice as many dx buckets
+        FileHandle file = createTempFile();
+        DataOutputStream output = new DataOutputStream(file.write(false));
+        output.writeInt(0x53465350);
+        output.writeByte(1);
+        output.writeByte(PolicyTable.DX_BUCKETS * 2);
+        output.writeByte(PolicyTable.DY_BUCKETS);
+        output.writeByte(PolicyTable.STATE_BUCKETS);
+        output.writeByte(PolicyTable.LIFE_BUCKETS);
+        output.writeFloat(PolicyTable.DX_BUCKET_SIZE);
+        output.writeFloat(PolicyTable.DY_BUCKET_SIZE);
+        output.write(new byte[PolicyTable.CELL_COUNT]);
+        output.close();
+
+        PolicyTable.load(file);
+    }
+
+    private static FileHandle createTempFile() throws IOException {
+        File file = File.createTempFile("policy", ".bin");
+        file.deleteOnExit();
+        return new FileHandle(file);
+    }
+}
@@ -0,0 +1,132 @@
+package com.xmdev.sfs.simulation;
+
+import com.badlogic.gdx.files.FileHandle;
+import com.badlogic.gdx.graphics.Color;
+import com.xmdev.sfs.objects.Fighter;
+import org.junit.Test;
+
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.IOException;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+public class ReplayTest {
+    private static final float TICK_TIME = 1f / FixedTimestep.DEFAULT_TICK_RATE;
+    private static final int TICKS = 900;
+
+    @Test
+    public void readsBackWhatItWrote() throws IOException {
+        Replay replay = new Replay();
+        replay.begin(42L, DifficultyProfiles.HARD, 120, 1, 2, null, true);
+        replay.setAiBudget(LookaheadOpponentAi.BudgetMode.WORK, 3);
+        int[] inputs = {PlayerInput.NONE, PlayerInput.RIGHT, PlayerInput.RIGHT, PlayerInput.RIGHT | PlayerInput.PUNCH,
+                PlayerInput.NONE, PlayerInput.NONE};
+        for (int input : inputs) {
+            replay.recordTick(input);
+        }
+        replay.setFinalChecksum(0xCAFEBABE);
+        FileHandle file = createTempFile();
+        replay.save(file);
+
+        Replay loaded = Replay.load(file);
+        assertEquals(42L, loaded.getSeed());
+        assertEquals(DifficultyProfiles.HARD, loaded.getDifficulty());
+        assertEquals(120, loaded.getTickRate());
+        assertEquals(1, loaded.getPlayerChoiceIndex());
+        assertEquals(2, loaded.getOpponentChoiceIndex());
+        assertTrue(loaded.isOpponentPolicy());
+        assertEquals(LookaheadOpponentAi.BudgetMode.WORK, loaded.getAiBudgetMode());
+        assertEquals(3, loaded.getAiWorkBudget());
+        assertNull(loaded.getPlayerModel());
+        assertEquals(0xCAFEBABE, loaded.getFinalChecksum());
+
+        // the same inputs come back out, tick by tick, from the runs they were stored as
+        assertEquals(inputs.length, loaded.getTickCount());
+        assertEquals(4, loaded.getRunCount());
+        ReplayPlayer player = new ReplayPlayer(loaded);
+        for (int input : inputs) {
+            assertEquals(input, player.nextInput());
+        }
+        assertTrue(player.isFinished());
+        assertEquals(PlayerInput.NONE, player.nextInput());
+    }
+
+    @Test
+    public void playsBackToTheRecordedFinalChecksum() throws IOException {
+        // record a match, then play it back from the file into another one
+        MatchSimulation match = createMatch();
+        Replay replay = new Replay();
+        match.startMatch(7L);
+        replay.begin(match.getSeed(), match.getDifficulty(), FixedTimestep.DEFAULT_TICK_RATE, 0, 0, null, false);
+        for (int tick = 0; tick < TICKS; tick++) {
+            int input = (tick / 30) % 3 == 0 ? PlayerInput.RIGHT : (tick & 1) == 0 ? PlayerInput.PUNCH : PlayerInput.NONE;
+            replay.recordTick(input);
+            match.skipRoundDelay();
+            match.setPlayerInput(input);
+            match.update(TICK_TIME);
+        }
+        replay.setFinalChecksum(match.checksum());
+        FileHandle file = createTempFile();
+        replay.save(file);
+
+        Replay loaded = Replay.load(file);
+        ReplayPlayer player = new ReplayPlayer(loaded);
+        MatchSimulation playback = createMatch();
+        playback.startMatch(loaded.getSeed());
+        while (!player.isFinished()) {
+            playback.skipRoundDelay();
+            playback.setPlayerInput(player.nextInput());
+            playback.update(TICK_TIME);
+        }
+        assertTrue(loaded.hasFinalChecksum());
+        assertFalse(player.hasDiverged(playback.checksum()));
+
+        // a match that went anywhere else doesn't match it
+        playback.skipRoundDelay();
+        playback.update(TICK_TIME);
+        assertTrue(player.hasDiverged(playback.checksum()));
+    }
+
+    @Test
+    public void takesOlderReplaysWithoutAFinalChecksumToMatch() throws IOException {
+        // a version 2 replay: no policy flag, AI budget or final checksum
+        FileHandle file = createTempFile();
+        DataOutputStream output = new DataOutputStream(file.write(false));
+        output.writeInt(0x53465352);
+        output.writeByte(2);
+        output.writeLong(5L);
+        output.writeByte(DifficultyProfiles.EASY);
+        output.writeByte(FixedTimestep.DEFAULT_TICK_RATE);
+        output.writeByte(0);
+        output.writeByte(1);
+        output.writeBoolean(false);
+        output.writeByte(1);
+        output.writeByte(PlayerInput.LEFT);
+        output.writeByte(10);
+        output.close();
+
+        Replay loaded = Replay.load(file);
+        assertEquals(5L, loaded.getSeed());
+        assertEquals(10, loaded.getTickCount());
+        assertFalse(loaded.isOpponentPolicy());
+        assertEquals(LookaheadOpponentAi.BudgetMode.ROLLOUT_LIMIT, loaded.getAiBudgetMode());
+        assertFalse(loaded.hasFinalChecksum());
+        assertFalse(new ReplayPlayer(loaded).hasDiverged(12345));
+    }
+
+    private static MatchSimulation createMatch() {
+        MatchSimulation match = new MatchSimulation(new Fighter("Player", Color.WHITE), new Fighter("Opponent", Color.WHITE));
+        match.setDifficulty(DifficultyProfiles.MEDIUM);
+        return match;
+    }
+
+    private static FileHandle createTempFile() throws IOException {
+        File file = File.createTempFile("replay", ".sfsr");
+        file.deleteOnExit();
+        return new FileHandle(file);
+    }
+}
@@ -0,0 +1,66 @@
+package com.xmdev.sfs.simulation;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class StateChecksumTest {
+    @Test
+    public void findsTheFirstTickTheyDisagreeOn() {
+        StateChecksum first = new StateChecksum(16);
+        StateChecksum second = new StateChecksum(16);
+        for (int tick = 0; tick < 10; tick++) {
+            first.record(tick, tick * 31);
+            second.record(tick, tick < 6 ? tick * 31 : -tick);
+        }
+
+        assertEquals(6, StateChecksum.findFirstDivergence(first, second, 0, 9));
+        assertEquals(-1, StateChecksum.findFirstDivergence(first, second, 0, 5));
+    }
+
+    @Test
+    public void skipsTicksEitherOneHasntGot() {
+        // the second ring hasn't got ticks 3 and 4 yet, so only tick 5 can be compared
+        StateChecksum first = new StateChecksum(16);
+        StateChecksum second = new StateChecksum(16);
+        for (int tick = 3; tick <= 5; tick++) {
+            first.record(tick, 1);
+        }
+        second.record(5, 2);
+
+        assertEquals(5, StateChecksum.findFirstDivergence(first, second, 0, 9));
+    }
+
+    @Test
+    public void forgetsTicksTheRingHasWrappedPast() {
+        StateChecksum first = new StateChecksum(4);
+        StateChecksum second = new StateChecksum(4);
+        first.record(1, 1);
+        second.record(1, 2);
+        first.record(5, 1);
+        second.record(5, 1);
+
+        assertFalse(first.contains(1));
+        assertTrue(first.contains(5));
+        assertEquals(-1, StateChecksum.findFirstDivergence(first, second, 0, 5));
+    }
+
+    @Test
+    public void replacesATickRecordedAgain() {
+        // as after a rollback resimulates it
+        StateChecksum first = new StateChecksum(4);
+        StateChecksum second = new StateChecksum(4);
+        first.record(2, 1);
+        second.record(2, 2);
+        second.record(2, 1);
+
+        assertEquals(-1, StateChecksum.findFirstDivergence(first, second, 0, 3));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void rejectsACapacityThatIsntAPowerOfTwo() {
+        new StateChecksum(12);
+    }
+}
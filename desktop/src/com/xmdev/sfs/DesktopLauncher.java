@@ -3,15 +3,60 @@ package com.xmdev.sfs;
 import com.badlogic.gdx.backends.lwjgl3.Lwjgl3Application;
 import com.badlogic.gdx.backends.lwjgl3.Lwjgl3ApplicationConfiguration;
 import com.xmdev.sfs.SFS;
+import com.xmdev.sfs.net.NetplayConfig;
 import com.xmdev.sfs.resources.GlobalVariables;
+import com.xmdev.sfs.simulation.FixedTimestep;
+import com.xmdev.sfs.simulation.LookaheadOpponentAi;
+
+import java.util.Arrays;
 
 // Please note that on macOS your application needs to be started with the -XstartOnFirstThread JVM argument
 public class DesktopLauncher {
+	private static final int FOREGROUND_FPS = 60;
+
 	public static void main (String[] arg) {
 		Lwjgl3ApplicationConfiguration config = new Lwjgl3ApplicationConfiguration();
-		config.setForegroundFPS(60);
+		config.setForegroundFPS(FOREGROUND_FPS);
 		config.setTitle("Stick Figure Showdown");
 		config.setWindowedMode(GlobalVariables.WINDOW_WIDTH, GlobalVariables.WINDOW_HEIGHT);
-		new Lwjgl3Application(new SFS(), config);
+		// pass --netplay <1|2> <local port> <remote host>:<remote port> [latency ms] [loss percent] to play online,
+		// --render-stats to log draw calls and render times every few seconds, --sim-thread to run the match on a
+		// thread of its own instead of before each frame, and --tick-rate <ticks per second> and
+		// --max-ticks-per-frame <ticks> to change how the match keeps time; --ai-work-budget <rollouts> limits how
+		// many rollouts the opponent searches every tick, --ai-thread runs the opponent's decisions on a worker
+		// thread instead, which --ai-time-budget <microseconds> limits each search of, and --policy-ai has the
+		// opponent look its actions up in the shipped policy table instead of searching
+		SFS game;
+		try {
+			game = new SFS(NetplayConfig.fromArgs(arg));
+			game.setTickRate(getIntOption(arg, "--tick-rate", FixedTimestep.DEFAULT_TICK_RATE));
+			game.setMaxTicksPerFrame(getIntOption(arg, "--max-ticks-per-frame", FixedTimestep.DEFAULT_MAX_TICKS_PER_FRAME));
+			game.setAiWorkBudget(getIntOption(arg, "--ai-work-budget", LookaheadOpponentAi.DEFAULT_WORK_BUDGET));
+			game.setAiTimeBudget(getIntOption(arg, "--ai-time-budget", LookaheadOpponentAi.DEFAULT_TIME_BUDGET));
+		} catch (IllegalArgumentException e) {
+			// bad arguments are reported rather than thrown, and the game doesn't start
+			System.err.println(e.getMessage());
+			System.exit(1);
+			return;
+		}
+		game.setFrameRate(FOREGROUND_FPS);
+		game.setRenderStatsEnabled(Arrays.asList(arg).contains("--render-stats"));
+		game.setSimulationThreadEnabled(Arrays.asList(arg).contains("--sim-thread"));
+		game.setAiThreadEnabled(Arrays.asList(arg).contains("--ai-thread"));
+		game.setPolicyAiEnabled(Arrays.asList(arg).contains("--policy-ai"));
+		new Lwjgl3Application(game, config);
+	}
+
+	private static int getIntOption(String[] args, String name, int defaultValue) {
+		// the number after the given option, or the default if the option isn't there
+		int index = Arrays.asList(args).indexOf(name);
+		if (index < 0) {
+			return defaultValue;
+		}
+		try {
+			return Integer.parseInt(args[index + 1]);
+		} catch (IndexOutOfBoundsException | NumberFormatException e) {
+			throw new IllegalArgumentException("Usage: " + name + " <number>", e);
+		}
 	}
 }
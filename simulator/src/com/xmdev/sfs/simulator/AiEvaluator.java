@@ -0,0 +1,78 @@
+package com.xmdev.sfs.simulator;
+
+import com.badlogic.gdx.files.FileHandle;
+import com.badlogic.gdx.math.RandomXS128;
+import com.xmdev.sfs.objects.FighterChoice;
+import com.xmdev.sfs.simulation.DefaultOpponentAi;
+import com.xmdev.sfs.simulation.DifficultyProfiles;
+import com.xmdev.sfs.simulation.OpponentAi;
+import com.xmdev.sfs.simulation.OpponentAiFactory;
+
+import java.lang.reflect.Constructor;
+import java.util.ArrayList;
+import java.util.Locale;
+import java.util.concurrent.ForkJoinPool;
+
+// Scores an opponent AI against the default AI over many seeded matches for every difficulty. Run from the
+// assets directory:
+// gradlew simulator:run -PmainClass=com.xmdev.sfs.simulator.AiEvaluator \
+//         -PappArgs="<AI class> <matches> <seed> [profiles file]"
+// The AI class must implement OpponentAiFactory, or implement OpponentAi with a constructor taking a RandomXS128.
+public class AiEvaluator {
+    private static final int DEFAULT_MATCHES = 5000;
+    private static final long DEFAULT_SEED = 0L;
+
+    public static void main(String[] args) throws ReflectiveOperationException {
+        OpponentAiFactory factory = args.length > 0 ? loadFactory(args[0]) : DefaultOpponentAi.FACTORY;
+        int matches = args.length > 1 ? Integer.parseInt(args[1]) : DEFAULT_MATCHES;
+        long seed = args.length > 2 ? Long.parseLong(args[2]) : DEFAULT_SEED;
+        ArrayList<FighterChoice> fighterChoiceList =
+                BatchMatchRunner.loadFighterChoiceList(new FileHandle("data/fighter_choices.json"));
+        // the game's profiles, unless others are given (e.g. the tuner's, to check them before they're shipped)
+        String profilesPath = args.length > 3 ? args[3] : DifficultyProfiles.FILE;
+        DifficultyProfiles profiles = DifficultyProfiles.loadOrDefault(new FileHandle(profilesPath));
+        ForkJoinPool pool = new ForkJoinPool(Runtime.getRuntime().availableProcessors());
+
+        System.out.printf(Locale.ROOT, "%s against the default AI, %d matches per difficulty, seed %d%n",
+                args.length > 0 ? args[0] : DefaultOpponentAi.class.getName(), matches, seed);
+        System.out.printf(Locale.ROOT, "%-8s %12s %14s %8s %10s %10s%n",
+                "LEVEL", "MATCHES/SEC", "DECISIONS/SEC", "AI WIN", "AI DAMAGE", "DAMAGE IN");
+
+        // the AI being scored plays the opponent, the default AI plays the player
+        for (int difficulty = 0; difficulty < profiles.getDifficultyCount(); difficulty++) {
+            long startTime = System.nanoTime();
+            MatchResults results = pool.invoke(new MatchBatchTask(
+                    difficulty, fighterChoiceList.get(0), fighterChoiceList.get(1),
+                    DefaultOpponentAi.FACTORY, factory, profiles, seed, matches
+            ));
+            float seconds = (System.nanoTime() - startTime) / 1e9f;
+
+            System.out.printf(Locale.ROOT, "%-8s %12.0f %14.0f %7.1f%% %10.1f %10.1f%n",
+                    profiles.getName(difficulty), results.matches / seconds, results.getOpponentDecisionsPerSecond(),
+                    results.getOpponentWinRate() * 100f,
+                    results.getAverageOpponentDamageDealt(), results.getAveragePlayerDamageDealt());
+        }
+        pool.shutdown();
+    }
+
+    private static OpponentAiFactory loadFactory(String className) throws ReflectiveOperationException {
+        // accept either a factory or an AI that can be created from the match's random stream
+        Class<?> type = Class.forName(className);
+        if (OpponentAiFactory.class.isAssignableFrom(type)) {
+            return (OpponentAiFactory) type.getConstructor().newInstance();
+        }
+
+        final Constructor<? extends OpponentAi> constructor =
+                type.asSubclass(OpponentAi.class).getConstructor(RandomXS128.class);
+        return new OpponentAiFactory() {
+            @Override
+            public OpponentAi create(RandomXS128 random) {
+                try {
+                    return constructor.newInstance(random);
+                } catch (ReflectiveOperationException e) {
+                    throw new IllegalStateException("Couldn't create " + className, e);
+                }
+            }
+        };
+    }
+}
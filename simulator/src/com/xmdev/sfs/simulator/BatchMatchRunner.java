@@ -0,0 +1,76 @@
+package com.xmdev.sfs.simulator;
+
+import com.badlogic.gdx.files.FileHandle;
+import com.badlogic.gdx.utils.Json;
+import com.badlogic.gdx.utils.JsonReader;
+import com.badlogic.gdx.utils.JsonValue;
+import com.xmdev.sfs.objects.FighterChoice;
+import com.xmdev.sfs.simulation.DefaultOpponentAi;
+import com.xmdev.sfs.simulation.DifficultyProfiles;
+
+import java.util.ArrayList;
+import java.util.Locale;
+import java.util.concurrent.ForkJoinPool;
+
+// Plays AI-vs-AI matches for every difficulty and fighter pairing. Run from the assets directory:
+// gradlew simulator:run -PappArgs="<matches per configuration> <seed>"
+public class BatchMatchRunner {
+    private static final int DEFAULT_MATCHES_PER_CONFIGURATION = 1000;
+    private static final long DEFAULT_SEED = 0L;
+
+    public static void main(String[] args) {
+        int matchesPerConfiguration = args.length > 0 ? Integer.parseInt(args[0]) : DEFAULT_MATCHES_PER_CONFIGURATION;
+        long seed = args.length > 1 ? Long.parseLong(args[1]) : DEFAULT_SEED;
+        ArrayList<FighterChoice> fighterChoiceList = loadFighterChoiceList(new FileHandle("data/fighter_choices.json"));
+        DifficultyProfiles profiles = DifficultyProfiles.loadOrDefault(new FileHandle(DifficultyProfiles.FILE));
+        ForkJoinPool pool = new ForkJoinPool(Runtime.getRuntime().availableProcessors());
+
+        System.out.printf(Locale.ROOT, "%d matches per configuration on %d threads, seed %d%n",
+                matchesPerConfiguration, pool.getParallelism(), seed);
+        System.out.printf(Locale.ROOT, "%-8s %-15s %-15s %12s %8s %8s %10s %10s %10s%n",
+                "LEVEL", "PLAYER", "OPPONENT", "MATCHES/SEC", "P WIN", "O WIN", "ROUND SEC", "P DAMAGE", "O DAMAGE");
+
+        MatchResults totalResults = new MatchResults();
+        long totalStartTime = System.nanoTime();
+
+        // sweep every difficulty and every pairing of two different fighters
+        for (int difficulty = 0; difficulty < profiles.getDifficultyCount(); difficulty++) {
+            for (FighterChoice playerChoice : fighterChoiceList) {
+                for (FighterChoice opponentChoice : fighterChoiceList) {
+                    if (playerChoice == opponentChoice) continue;
+
+                    long startTime = System.nanoTime();
+                    MatchResults results = pool.invoke(new MatchBatchTask(
+                            difficulty, playerChoice, opponentChoice, DefaultOpponentAi.FACTORY,
+                            DefaultOpponentAi.FACTORY, profiles, seed, matchesPerConfiguration
+                    ));
+                    float seconds = (System.nanoTime() - startTime) / 1e9f;
+                    totalResults.add(results);
+
+                    System.out.printf(Locale.ROOT, "%-8s %-15s %-15s %12.0f %7.1f%% %7.1f%% %10.2f %10.1f %10.1f%n",
+                            profiles.getName(difficulty), playerChoice.getName(), opponentChoice.getName(),
+                            results.matches / seconds,
+                            results.getPlayerWinRate() * 100f, results.getOpponentWinRate() * 100f,
+                            results.getAverageRoundTime(),
+                            results.getAveragePlayerDamageDealt(), results.getAverageOpponentDamageDealt());
+                }
+            }
+        }
+
+        float totalSeconds = (System.nanoTime() - totalStartTime) / 1e9f;
+        System.out.printf(Locale.ROOT, "%d matches in %.2f s (%.0f matches/sec)%n",
+                totalResults.matches, totalSeconds, totalResults.matches / totalSeconds);
+        pool.shutdown();
+    }
+
+    static ArrayList<FighterChoice> loadFighterChoiceList(FileHandle file) {
+        // load the fighter choice list the same way the game does
+        ArrayList<FighterChoice> fighterChoiceList = new ArrayList<>();
+        Json json = new Json();
+        JsonValue fighterChoices = new JsonReader().parse(file);
+        for (int i = 0; i < fighterChoices.size; i++) {
+            fighterChoiceList.add(json.fromJson(FighterChoice.class, String.valueOf(fighterChoices.get(i))));
+        }
+        return fighterChoiceList;
+    }
+}
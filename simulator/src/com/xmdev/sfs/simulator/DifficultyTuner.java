@@ -0,0 +1,246 @@
+package com.xmdev.sfs.simulator;
+
+import com.badlogic.gdx.files.FileHandle;
+import com.badlogic.gdx.math.RandomXS128;
+import com.xmdev.sfs.objects.FighterChoice;
+import com.xmdev.sfs.simulation.DefaultOpponentAi;
+import com.xmdev.sfs.simulation.DifficultyProfiles;
+import com.xmdev.sfs.simulation.LookaheadOpponentAi;
+import com.xmdev.sfs.simulation.OpponentAi;
+import com.xmdev.sfs.simulation.OpponentAiFactory;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.ForkJoinPool;
+
+// Evolves the AI chances and delays and the hit strengths of every difficulty towards a target win rate for the
+// opponent, starting from the difficulty profiles the game loads, and writes them to a file of their own, so a
+// retune only ships once its profiles are copied over the game's, with the evaluator's numbers to show for it
+// (AiEvaluator takes the tuned file as its last argument). Run from the assets directory:
+// gradlew simulator:run -PmainClass=com.xmdev.sfs.simulator.DifficultyTuner \
+//         -PappArgs="<matches per candidate> <generations> <seed> <easy win rate> <medium win rate> <hard win rate>"
+public class DifficultyTuner {
+    private static final int DEFAULT_MATCHES_PER_CANDIDATE = 200;
+    private static final int DEFAULT_GENERATIONS = 30;
+    private static final long DEFAULT_SEED = 0L;
+    private static final float[] DEFAULT_TARGET_WIN_RATES = {0.3f, 0.5f, 0.7f};
+    private static final String TUNED_FILE = "data/difficulty_profiles_tuned.json";
+
+    // the range each parameter is searched in, for the parameters that are tuned (the ones before the lookahead
+    // rollouts, which are left as they are)
+    private static final float[] MIN_VALUES = {0.005f, 0f, 0f, 0.1f, 0f, 2f, 2f};
+    private static final float[] MAX_VALUES = {0.3f, 1f, 1f, 1.5f, 1f, 30f, 30f};
+
+    // candidates per generation, how many of the best are recombined into the next mean, and the step sizes
+    // (in the parameter ranges scaled to 0..1)
+    private static final int POPULATION_SIZE = 12;
+    private static final int PARENT_COUNT = 4;
+    private static final float INITIAL_STEP_SIZE = 0.15f;
+    private static final float MIN_STEP_SIZE = 0.01f;
+    private static final float STEP_SIZE_LEARNING_RATE = 0.5f;
+
+    // how much moving away from the starting values costs, so parameters that don't matter stay where they were
+    private static final float DRIFT_PENALTY = 0.02f;
+
+    private static final int DIMENSIONS = MIN_VALUES.length;
+
+    public static void main(String[] args) {
+        int matchesPerCandidate = args.length > 0 ? Integer.parseInt(args[0]) : DEFAULT_MATCHES_PER_CANDIDATE;
+        int generations = args.length > 1 ? Integer.parseInt(args[1]) : DEFAULT_GENERATIONS;
+        long seed = args.length > 2 ? Long.parseLong(args[2]) : DEFAULT_SEED;
+
+        ArrayList<FighterChoice> fighterChoiceList =
+                BatchMatchRunner.loadFighterChoiceList(new FileHandle("data/fighter_choices.json"));
+        FileHandle profilesFile = new FileHandle(DifficultyProfiles.FILE);
+        DifficultyProfiles startProfiles = DifficultyProfiles.loadOrDefault(profilesFile);
+        int difficultyCount = startProfiles.getDifficultyCount();
+
+        // one target per difficulty, in the order of the profiles; difficulties past the defaults get the last one
+        float[] targetWinRates = new float[difficultyCount];
+        for (int i = 0; i < difficultyCount; i++) {
+            targetWinRates[i] = args.length > 3 + i ? Float.parseFloat(args[3 + i]) :
+                    DEFAULT_TARGET_WIN_RATES[Math.min(i, DEFAULT_TARGET_WIN_RATES.length - 1)];
+        }
+        ForkJoinPool pool = new ForkJoinPool(Runtime.getRuntime().availableProcessors());
+        RandomXS128 random = new RandomXS128(seed);
+
+        // the player is always the default AI playing at the starting medium settings, standing in for a player
+        // whose skill doesn't change with the difficulty
+        DifficultyProfiles playerProfiles = startProfiles.copy();
+        int medium = startProfiles.clamp(DifficultyProfiles.MEDIUM);
+        for (int difficulty = 0; difficulty < difficultyCount; difficulty++) {
+            for (int parameter = 0; parameter < DifficultyProfiles.PARAMETER_COUNT; parameter++) {
+                playerProfiles.set(difficulty, parameter, startProfiles.get(medium, parameter));
+            }
+        }
+        OpponentAiFactory playerAiFactory = createPlayerAiFactory(playerProfiles);
+
+        // every difficulty is searched separately, starting from its current values
+        float[][] start = new float[difficultyCount][];
+        float[][] mean = new float[difficultyCount][];
+        float[][] stepSize = new float[difficultyCount][DIMENSIONS];
+        float[][] best = new float[difficultyCount][];
+        float[] bestFitness = new float[difficultyCount];
+        float[] bestWinRate = new float[difficultyCount];
+        for (int d = 0; d < difficultyCount; d++) {
+            start[d] = normalize(startProfiles, d);
+            mean[d] = start[d].clone();
+            best[d] = start[d].clone();
+            bestFitness[d] = Float.MAX_VALUE;
+            Arrays.fill(stepSize[d], INITIAL_STEP_SIZE);
+        }
+
+        // common parent weights, favouring the best of the parents
+        float[] weights = new float[PARENT_COUNT];
+        float weightSum = 0f;
+        for (int i = 0; i < PARENT_COUNT; i++) {
+            weights[i] = (float) (Math.log(PARENT_COUNT + 0.5) - Math.log(i + 1));
+            weightSum += weights[i];
+        }
+        for (int i = 0; i < PARENT_COUNT; i++) {
+            weights[i] /= weightSum;
+        }
+
+        System.out.printf(Locale.ROOT, "%d candidates x %d matches per difficulty per generation on %d threads%n",
+                POPULATION_SIZE, matchesPerCandidate, pool.getParallelism());
+        long startTime = System.nanoTime();
+
+        for (int generation = 0; generation < generations; generation++) {
+            // sample the candidates of every difficulty around its mean
+            float[][][] candidates = new float[difficultyCount][POPULATION_SIZE][];
+            List<MatchBatchTask> tasks = new ArrayList<>();
+            for (int d = 0; d < difficultyCount; d++) {
+                for (int c = 0; c < POPULATION_SIZE; c++) {
+                    // the first candidate is always the mean itself
+                    float[] candidate = new float[DIMENSIONS];
+                    for (int i = 0; i < DIMENSIONS; i++) {
+                        float step = c == 0 ? 0f : stepSize[d][i] * (float) random.nextGaussian();
+                        candidate[i] = Math.min(Math.max(mean[d][i] + step, 0f), 1f);
+                    }
+                    candidates[d][c] = candidate;
+
+                    // every candidate of a generation plays the same seeds, so they're compared on the same matches
+                    DifficultyProfiles profiles = startProfiles.copy();
+                    denormalize(candidate, profiles, d);
+                    tasks.add(new MatchBatchTask(
+                            d, fighterChoiceList.get(0), fighterChoiceList.get(1),
+                            playerAiFactory, createOpponentAiFactory(profiles), profiles,
+                            seed + (long) generation * matchesPerCandidate, matchesPerCandidate
+                    ));
+                }
+            }
+
+            // play every candidate of every difficulty at once across all cores
+            for (MatchBatchTask task : tasks) {
+                pool.execute(task);
+            }
+
+            // wait for each difficulty's candidates, rank them, recombine the best into the next mean and adapt the steps
+            StringBuilder progress = new StringBuilder(String.format(Locale.ROOT, "generation %3d", generation + 1));
+            for (int d = 0; d < difficultyCount; d++) {
+                final float[] fitness = new float[POPULATION_SIZE];
+                final float[] winRates = new float[POPULATION_SIZE];
+                Integer[] order = new Integer[POPULATION_SIZE];
+                for (int c = 0; c < POPULATION_SIZE; c++) {
+                    MatchResults results = tasks.get(d * POPULATION_SIZE + c).join();
+                    winRates[c] = results.getOpponentWinRate();
+                    fitness[c] = Math.abs(winRates[c] - targetWinRates[d])
+                            + DRIFT_PENALTY * distanceSquared(candidates[d][c], start[d]) / DIMENSIONS;
+                    order[c] = c;
+                }
+                Arrays.sort(order, new Comparator<Integer>() {
+                    @Override
+                    public int compare(Integer a, Integer b) {
+                        return Float.compare(fitness[a], fitness[b]);
+                    }
+                });
+
+                if (fitness[order[0]] < bestFitness[d]) {
+                    bestFitness[d] = fitness[order[0]];
+                    bestWinRate[d] = winRates[order[0]];
+                    best[d] = candidates[d][order[0]];
+                }
+
+                float[] newMean = new float[DIMENSIONS];
+                for (int p = 0; p < PARENT_COUNT; p++) {
+                    float[] parent = candidates[d][order[p]];
+                    for (int i = 0; i < DIMENSIONS; i++) {
+                        newMean[i] += weights[p] * parent[i];
+                    }
+                }
+                for (int i = 0; i < DIMENSIONS; i++) {
+                    float spread = 0f;
+                    for (int p = 0; p < PARENT_COUNT; p++) {
+                        float difference = candidates[d][order[p]][i] - mean[d][i];
+                        spread += weights[p] * difference * difference;
+                    }
+                    stepSize[d][i] = Math.max(MIN_STEP_SIZE, (1f - STEP_SIZE_LEARNING_RATE) * stepSize[d][i]
+                            + STEP_SIZE_LEARNING_RATE * (float) Math.sqrt(spread));
+                }
+                mean[d] = newMean;
+
+                progress.append(String.format(Locale.ROOT, "   %s %.1f%% (best %.1f%%)",
+                        startProfiles.getName(d), winRates[order[0]] * 100f, bestWinRate[d] * 100f));
+            }
+            System.out.println(progress);
+        }
+
+        // write the best candidate of every difficulty
+        DifficultyProfiles tunedProfiles = startProfiles.copy();
+        for (int d = 0; d < difficultyCount; d++) {
+            denormalize(best[d], tunedProfiles, d);
+        }
+        FileHandle tunedFile = new FileHandle(TUNED_FILE);
+        tunedProfiles.save(tunedFile);
+        System.out.printf(Locale.ROOT, "wrote %s in %.1f s%n%s", tunedFile.path(),
+                (System.nanoTime() - startTime) / 1e9f, tunedProfiles.toJson());
+        pool.shutdown();
+    }
+
+    private static OpponentAiFactory createPlayerAiFactory(final DifficultyProfiles profiles) {
+        return new OpponentAiFactory() {
+            @Override
+            public OpponentAi create(RandomXS128 random) {
+                return new DefaultOpponentAi(random, profiles);
+            }
+        };
+    }
+
+    private static OpponentAiFactory createOpponentAiFactory(final DifficultyProfiles profiles) {
+        // the same AI the game's opponent uses
+        return new OpponentAiFactory() {
+            @Override
+            public OpponentAi create(RandomXS128 random) {
+                // searching within the default work budget, as it does in the game, so results repeat
+                return new LookaheadOpponentAi(random, profiles);
+            }
+        };
+    }
+
+    private static float[] normalize(DifficultyProfiles profiles, int difficulty) {
+        // scale every parameter to 0..1 within its range, so one step size fits them all
+        float[] values = new float[DIMENSIONS];
+        for (int i = 0; i < DIMENSIONS; i++) {
+            float value = (profiles.get(difficulty, i) - MIN_VALUES[i]) / (MAX_VALUES[i] - MIN_VALUES[i]);
+            values[i] = Math.min(Math.max(value, 0f), 1f);
+        }
+        return values;
+    }
+
+    private static void denormalize(float[] values, DifficultyProfiles profiles, int difficulty) {
+        for (int i = 0; i < DIMENSIONS; i++) {
+            profiles.set(difficulty, i, MIN_VALUES[i] + values[i] * (MAX_VALUES[i] - MIN_VALUES[i]));
+        }
+    }
+
+    private static float distanceSquared(float[] a, float[] b) {
+        float distance = 0f;
+        for (int i = 0; i < a.length; i++) {
+            distance += (a[i] - b[i]) * (a[i] - b[i]);
+        }
+        return distance;
+    }
+}
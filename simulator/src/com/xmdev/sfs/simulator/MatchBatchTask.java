@@ -0,0 +1,125 @@
+package com.xmdev.sfs.simulator;
+
+import com.xmdev.sfs.objects.Fighter;
+import com.xmdev.sfs.objects.FighterChoice;
+import com.xmdev.sfs.simulation.FixedTimestep;
+import com.xmdev.sfs.simulation.MatchListener;
+import com.xmdev.sfs.simulation.DefaultOpponentAi;
+import com.xmdev.sfs.simulation.DifficultyProfiles;
+import com.xmdev.sfs.simulation.MatchSimulation;
+import com.xmdev.sfs.simulation.OpponentAiFactory;
+
+import java.util.concurrent.RecursiveTask;
+
+public class MatchBatchTask extends RecursiveTask<MatchResults> {
+    private static final long serialVersionUID = 1L;
+
+    // number of matches a single task plays before it stops splitting
+    private static final int MATCHES_PER_LEAF = 16;
+
+    // simulation step, matching the game's default tick rate
+    public static final float TICK_TIME = 1f / FixedTimestep.DEFAULT_TICK_RATE;
+
+    private final int difficulty;
+    private final FighterChoice playerChoice;
+    private final FighterChoice opponentChoice;
+    private final OpponentAiFactory playerAiFactory;
+    private final OpponentAiFactory opponentAiFactory;
+    private final DifficultyProfiles profiles;
+    private final long firstSeed;
+    private final int matchCount;
+
+
+    public MatchBatchTask(int difficulty, FighterChoice playerChoice,
+                          FighterChoice opponentChoice, OpponentAiFactory playerAiFactory,
+                          OpponentAiFactory opponentAiFactory, DifficultyProfiles profiles,
+                          long firstSeed, int matchCount) {
+        // match i of the batch is seeded with firstSeed + i, so the whole batch is reproducible
+        this.difficulty = difficulty;
+        this.playerChoice = playerChoice;
+        this.opponentChoice = opponentChoice;
+        this.playerAiFactory = playerAiFactory;
+        this.opponentAiFactory = opponentAiFactory;
+        this.profiles = profiles;
+        this.firstSeed = firstSeed;
+        this.matchCount = matchCount;
+    }
+
+    @Override
+    protected MatchResults compute() {
+        // if there are only a few matches left, play them, otherwise split the batch in half
+        if (matchCount <= MATCHES_PER_LEAF) {
+            return playMatches();
+        }
+
+        int half = matchCount / 2;
+        MatchBatchTask first = new MatchBatchTask(difficulty, playerChoice, opponentChoice,
+                playerAiFactory, opponentAiFactory, profiles, firstSeed, half);
+        MatchBatchTask second = new MatchBatchTask(difficulty, playerChoice, opponentChoice,
+                playerAiFactory, opponentAiFactory, profiles, firstSeed + half, matchCount - half);
+        first.fork();
+        MatchResults results = second.compute();
+        results.add(first.join());
+        return results;
+    }
+
+    private MatchResults playMatches() {
+        final MatchResults results = new MatchResults();
+
+        // each task gets its own fighters and simulation, so nothing is shared between threads
+        Fighter player = new Fighter(playerChoice.getName(), playerChoice.getColor());
+        Fighter opponent = new Fighter(opponentChoice.getName(), opponentChoice.getColor());
+        final MatchSimulation match = new MatchSimulation(player, opponent);
+        match.setProfiles(profiles);
+        match.setDifficulty(difficulty);
+
+        // time the opponent's AI, so different AIs can be compared on speed as well as strength
+        TimedOpponentAi opponentAi = new TimedOpponentAi(opponentAiFactory.create(match.getRandom()));
+        match.setPlayerAi(playerAiFactory.create(match.getRandom()));
+        match.setOpponentAi(opponentAi);
+        match.setListener(new MatchListener() {
+            @Override
+            public void onFighterHit(Fighter fighter, boolean blocked) {
+
+            }
+
+            @Override
+            public void onRoundWon() {
+                recordRound();
+            }
+
+            @Override
+            public void onRoundLost() {
+                recordRound();
+            }
+
+            private void recordRound() {
+                results.rounds++;
+                results.totalRoundTime += MatchSimulation.MAX_ROUND_TIME - Math.max(match.getRoundTimer(), 0f);
+            }
+        });
+
+        for (int i = 0; i < matchCount; i++) {
+            // play the match until it's over, skipping the round delays like a player pressing space
+            match.startMatch(firstSeed + i);
+            while (!match.isMatchOver()) {
+                match.skipRoundDelay();
+                match.update(TICK_TIME);
+            }
+
+            // record the results
+            results.matches++;
+            if (match.getRoundsWon() > match.getRoundsLost()) {
+                results.playerWins++;
+            } else {
+                results.opponentWins++;
+            }
+            results.playerDamageDealt += match.getPlayerDamageDealt();
+            results.opponentDamageDealt += match.getOpponentDamageDealt();
+        }
+        results.opponentDecisions += opponentAi.getDecisions();
+        results.opponentDecisionTime += opponentAi.getDecisionTime();
+
+        return results;
+    }
+}
@@ -0,0 +1,51 @@
+package com.xmdev.sfs.simulator;
+
+public class MatchResults {
+    public int matches;
+    public int playerWins;
+    public int opponentWins;
+    public int rounds;
+    public float totalRoundTime;
+    public float playerDamageDealt;
+    public float opponentDamageDealt;
+    public long opponentDecisions;
+    public long opponentDecisionTime; // nanoseconds
+
+    public void add(MatchResults other) {
+        // combine the results of another batch of matches with these results
+        matches += other.matches;
+        playerWins += other.playerWins;
+        opponentWins += other.opponentWins;
+        rounds += other.rounds;
+        totalRoundTime += other.totalRoundTime;
+        playerDamageDealt += other.playerDamageDealt;
+        opponentDamageDealt += other.opponentDamageDealt;
+        opponentDecisions += other.opponentDecisions;
+        opponentDecisionTime += other.opponentDecisionTime;
+    }
+
+    public float getPlayerWinRate() {
+        return matches > 0 ? (float) playerWins / matches : 0f;
+    }
+
+    public float getOpponentWinRate() {
+        return matches > 0 ? (float) opponentWins / matches : 0f;
+    }
+
+    public float getAverageRoundTime() {
+        return rounds > 0 ? totalRoundTime / rounds : 0f;
+    }
+
+    public float getAveragePlayerDamageDealt() {
+        return matches > 0 ? playerDamageDealt / matches : 0f;
+    }
+
+    public float getAverageOpponentDamageDealt() {
+        return matches > 0 ? opponentDamageDealt / matches : 0f;
+    }
+
+    public double getOpponentDecisionsPerSecond() {
+        // how many decisions the opponent's AI could make per second of its own time, on a single thread
+        return opponentDecisionTime > 0 ? opponentDecisions * 1e9 / opponentDecisionTime : 0.0;
+    }
+}
@@ -0,0 +1,138 @@
+package com.xmdev.sfs.simulator;
+
+import com.xmdev.sfs.objects.Fighter;
+import com.xmdev.sfs.objects.FighterChoice;
+import com.xmdev.sfs.simulation.DefaultOpponentAi;
+import com.xmdev.sfs.simulation.DifficultyProfiles;
+import com.xmdev.sfs.simulation.FighterCommands;
+import com.xmdev.sfs.simulation.FighterView;
+import com.xmdev.sfs.simulation.LookaheadOpponentAi;
+import com.xmdev.sfs.simulation.MatchSimulation;
+import com.xmdev.sfs.simulation.MatchSnapshot;
+import com.xmdev.sfs.simulation.OpponentAi;
+import com.xmdev.sfs.simulation.PolicyTable;
+
+import java.util.concurrent.RecursiveTask;
+
+public class PolicySampleTask extends RecursiveTask<PolicySamples> {
+    private static final long serialVersionUID = 1L;
+
+    // number of matches a single task plays before it stops splitting (each task keeps a full set of samples,
+    // so leaves are bigger than the match batches')
+    private static final int MATCHES_PER_LEAF = 32;
+
+    private final int difficulty;
+    private final FighterChoice playerChoice;
+    private final FighterChoice opponentChoice;
+    private final DifficultyProfiles profiles;
+    private final long firstSeed;
+    private final int matchCount;
+
+    public PolicySampleTask(int difficulty, FighterChoice playerChoice, FighterChoice opponentChoice,
+                            DifficultyProfiles profiles, long firstSeed, int matchCount) {
+        // match i of the batch is seeded with firstSeed + i, so the whole batch is reproducible
+        this.difficulty = difficulty;
+        this.playerChoice = playerChoice;
+        this.opponentChoice = opponentChoice;
+        this.profiles = profiles;
+        this.firstSeed = firstSeed;
+        this.matchCount = matchCount;
+    }
+
+    @Override
+    protected PolicySamples compute() {
+        // if there are only a few matches left, play them, otherwise split the batch in half
+        if (matchCount <= MATCHES_PER_LEAF) {
+            return playMatches();
+        }
+
+        int half = matchCount / 2;
+        PolicySampleTask first = new PolicySampleTask(difficulty, playerChoice, opponentChoice,
+                profiles, firstSeed, half);
+        PolicySampleTask second = new PolicySampleTask(difficulty, playerChoice, opponentChoice,
+                profiles, firstSeed + half, matchCount - half);
+        first.fork();
+        PolicySamples samples = second.compute();
+        samples.add(first.join());
+        return samples;
+    }
+
+    private PolicySamples playMatches() {
+        PolicySamples samples = new PolicySamples();
+
+        // the default AI plays the player at the task's difficulty, and the lookahead AI plays the opponent,
+        // recording the scores of every search it makes
+        Fighter player = new Fighter(playerChoice.getName(), playerChoice.getColor());
+        Fighter opponent = new Fighter(opponentChoice.getName(), opponentChoice.getColor());
+        MatchSimulation match = new MatchSimulation(player, opponent);
+        match.setProfiles(profiles);
+        match.setDifficulty(difficulty);
+
+        // only the lookahead AI's rollout limit ends a search, and each search is finished in the tick it's made
+        // from, so the samples repeat and every one has a complete set of scores
+        LookaheadOpponentAi opponentAi = new LookaheadOpponentAi(match.getRandom(), profiles);
+        opponentAi.setBudgetMode(LookaheadOpponentAi.BudgetMode.ROLLOUT_LIMIT);
+        match.setPlayerAi(new DefaultOpponentAi(match.getRandom(), profiles));
+        match.setOpponentAi(new SamplingOpponentAi(opponentAi, samples));
+
+        for (int i = 0; i < matchCount; i++) {
+            // play the match until it's over, skipping the round delays like a player pressing space
+            match.startMatch(firstSeed + i);
+            while (!match.isMatchOver()) {
+                match.skipRoundDelay();
+                match.update(MatchBatchTask.TICK_TIME);
+            }
+            samples.matches++;
+        }
+
+        return samples;
+    }
+
+    private static class SamplingOpponentAi implements OpponentAi {
+        private final LookaheadOpponentAi ai;
+        private final PolicySamples samples;
+
+        SamplingOpponentAi(LookaheadOpponentAi ai, PolicySamples samples) {
+            this.ai = ai;
+            this.samples = samples;
+        }
+
+        @Override
+        public void reset() {
+            ai.reset();
+        }
+
+        @Override
+        public void update(float deltaTime, FighterView self, FighterView target, FighterCommands commands,
+                           int difficulty) {
+            // the cell has to be taken before the update, since the decision is made from that state
+            int cell = PolicyTable.getCell(self, target);
+            int searches = ai.getSearches();
+            ai.update(deltaTime, self, target, commands, difficulty);
+            if (ai.getSearches() == searches) {
+                return;
+            }
+
+            // add the scores of the search to the cell
+            samples.cellVisits[cell]++;
+            for (int action = 0; action < LookaheadOpponentAi.ACTION_COUNT; action++) {
+                float score = ai.getLastActionScore(action);
+                if (!Float.isNaN(score)) {
+                    int index = cell * LookaheadOpponentAi.ACTION_COUNT + action;
+                    samples.scoreSums[index] += score;
+                    samples.scoreCounts[index]++;
+                }
+            }
+        }
+
+        @Override
+        public void saveState(MatchSnapshot snapshot) {
+            ai.saveState(snapshot);
+        }
+
+        @Override
+        public void restoreState(MatchSnapshot snapshot) {
+            ai.restoreState(snapshot);
+        }
+    }
+}
@@ -0,0 +1,42 @@
+package com.xmdev.sfs.simulator;
+
+import com.xmdev.sfs.simulation.LookaheadOpponentAi;
+import com.xmdev.sfs.simulation.PolicyTable;
+
+public class PolicySamples {
+    // the summed scores the lookahead AI gave every action in every cell, how many searches they're summed over,
+    // and how often each cell was decided in
+    public final float[] scoreSums = new float[PolicyTable.CELL_COUNT * LookaheadOpponentAi.ACTION_COUNT];
+    public final int[] scoreCounts = new int[PolicyTable.CELL_COUNT * LookaheadOpponentAi.ACTION_COUNT];
+    public final int[] cellVisits = new int[PolicyTable.CELL_COUNT];
+    public int matches;
+
+    public void add(PolicySamples other) {
+        // combine the samples of another batch of matches with these samples
+        for (int i = 0; i < scoreSums.length; i++) {
+            scoreSums[i] += other.scoreSums[i];
+            scoreCounts[i] += other.scoreCounts[i];
+        }
+        for (int i = 0; i < cellVisits.length; i++) {
+            cellVisits[i] += other.cellVisits[i];
+        }
+        matches += other.matches;
+    }
+
+    public int getBestAction(int cell) {
+        // the action with the best average score in the cell, or -1 if the cell was never decided in
+        int bestAction = -1;
+        float bestScore = 0f;
+        for (int action = 0; action < LookaheadOpponentAi.ACTION_COUNT; action++) {
+            int index = cell * LookaheadOpponentAi.ACTION_COUNT + action;
+            if (scoreCounts[index] > 0) {
+                float score = scoreSums[index] / scoreCounts[index];
+                if (bestAction < 0 || score > bestScore) {
+                    bestAction = action;
+                    bestScore = score;
+                }
+            }
+        }
+        return bestAction;
+    }
+}
@@ -0,0 +1,20 @@
+package com.xmdev.sfs.simulator;
+
+import com.badlogic.gdx.files.FileHandle;
+import com.badlogic.gdx.math.RandomXS128;
+import com.xmdev.sfs.simulation.OpponentAi;
+import com.xmdev.sfs.simulation.OpponentAiFactory;
+import com.xmdev.sfs.simulation.PolicyTable;
+import com.xmdev.sfs.simulation.PolicyTableOpponentAi;
+
+// Creates policy table AIs from the built table, so the evaluator can score them:
+// gradlew simulator:run -PmainClass=com.xmdev.sfs.simulator.AiEvaluator \
+//         -PappArgs="com.xmdev.sfs.simulator.PolicyTableAiFactory <matches> <seed>"
+public class PolicyTableAiFactory implements OpponentAiFactory {
+    private final PolicyTable table = PolicyTable.load(new FileHandle(PolicyTable.FILE));
+
+    @Override
+    public OpponentAi create(RandomXS128 random) {
+        return new PolicyTableOpponentAi(table);
+    }
+}
@@ -0,0 +1,95 @@
+package com.xmdev.sfs.simulator;
+
+import com.badlogic.gdx.files.FileHandle;
+import com.xmdev.sfs.objects.FighterChoice;
+import com.xmdev.sfs.simulation.DifficultyProfiles;
+import com.xmdev.sfs.simulation.LookaheadOpponentAi;
+import com.xmdev.sfs.simulation.MatchSimulation;
+import com.xmdev.sfs.simulation.PlayerInput;
+import com.xmdev.sfs.simulation.PolicyTable;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.ForkJoinPool;
+
+// Builds the opponent policy table by letting the lookahead AI play the default AI on every difficulty and keeping
+// the best scoring action for every cell of the fighters' state. Run from the assets directory:
+// gradlew simulator:run -PmainClass=com.xmdev.sfs.simulator.PolicyTableBuilder \
+//         -PappArgs="<matches per difficulty> <seed>"
+public class PolicyTableBuilder {
+    private static final int DEFAULT_MATCHES_PER_DIFFICULTY = 500;
+    private static final long DEFAULT_SEED = 0L;
+
+    public static void main(String[] args) {
+        int matchesPerDifficulty = args.length > 0 ? Integer.parseInt(args[0]) : DEFAULT_MATCHES_PER_DIFFICULTY;
+        long seed = args.length > 1 ? Long.parseLong(args[1]) : DEFAULT_SEED;
+        ArrayList<FighterChoice> fighterChoiceList =
+                BatchMatchRunner.loadFighterChoiceList(new FileHandle("data/fighter_choices.json"));
+        ForkJoinPool pool = new ForkJoinPool(Runtime.getRuntime().availableProcessors());
+
+        // the opponent searches at full strength on every difficulty, so the player's skill is the only thing
+        // that changes and the table covers the states each difficulty leads to
+        DifficultyProfiles profiles = DifficultyProfiles.loadOrDefault(new FileHandle(DifficultyProfiles.FILE));
+        for (int difficulty = 0; difficulty < profiles.getDifficultyCount(); difficulty++) {
+            profiles.set(difficulty, DifficultyProfiles.LOOKAHEAD_ROLLOUTS, LookaheadOpponentAi.DEFAULT_MAX_ROLLOUTS);
+        }
+
+        System.out.printf(Locale.ROOT, "%d matches per difficulty on %d threads, seed %d%n",
+                matchesPerDifficulty, pool.getParallelism(), seed);
+        long startTime = System.nanoTime();
+
+        // play every difficulty at once across all cores
+        List<PolicySampleTask> tasks = new ArrayList<>();
+        for (int difficulty = 0; difficulty < profiles.getDifficultyCount(); difficulty++) {
+            PolicySampleTask task = new PolicySampleTask(difficulty, fighterChoiceList.get(0),
+                    fighterChoiceList.get(1), profiles, seed + (long) difficulty * matchesPerDifficulty,
+                    matchesPerDifficulty);
+            pool.execute(task);
+            tasks.add(task);
+        }
+        PolicySamples samples = new PolicySamples();
+        for (PolicySampleTask task : tasks) {
+            samples.add(task.join());
+        }
+
+        // keep the best action of every cell that was decided in, and fill the rest with a plain approach
+        PolicyTable table = new PolicyTable();
+        int visitedCells = 0;
+        long decisions = 0;
+        for (int cell = 0; cell < PolicyTable.CELL_COUNT; cell++) {
+            int action = samples.getBestAction(cell);
+            if (action >= 0) {
+                visitedCells++;
+                decisions += samples.cellVisits[cell];
+            } else {
+                action = getApproachAction(cell);
+            }
+            table.setAction(cell, action);
+        }
+
+        FileHandle file = new FileHandle(PolicyTable.FILE);
+        table.save(file);
+        System.out.printf(Locale.ROOT, "%d matches, %d decisions in %d of %d cells (%.1f%%)%n",
+                samples.matches, decisions, visitedCells, PolicyTable.CELL_COUNT,
+                visitedCells * 100f / PolicyTable.CELL_COUNT);
+        System.out.printf(Locale.ROOT, "wrote %s (%d bytes) in %.1f s%n", file.path(), file.length(),
+                (System.nanoTime() - startTime) / 1e9f);
+        pool.shutdown();
+    }
+
+    private static int getApproachAction(int cell) {
+        // walk toward the target until it's within reach, then punch
+        float distanceX = PolicyTable.getCellDistanceX(cell);
+        float distanceY = PolicyTable.getCellDistanceY(cell);
+        int input;
+        if (Math.abs(distanceX) > MatchSimulation.FIGHTER_CONTACT_DISTANCE_X) {
+            input = distanceX > 0f ? PlayerInput.RIGHT : PlayerInput.LEFT;
+        } else if (Math.abs(distanceY) > MatchSimulation.FIGHTER_CONTACT_DISTANCE_Y) {
+            input = distanceY > 0f ? PlayerInput.UP : PlayerInput.DOWN;
+        } else {
+            input = PlayerInput.PUNCH;
+        }
+        return LookaheadOpponentAi.indexOfAction(input);
+    }
+}
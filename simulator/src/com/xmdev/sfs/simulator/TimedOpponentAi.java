@@ -0,0 +1,51 @@
+package com.xmdev.sfs.simulator;
+
+import com.xmdev.sfs.simulation.FighterCommands;
+import com.xmdev.sfs.simulation.FighterView;
+import com.xmdev.sfs.simulation.MatchSnapshot;
+import com.xmdev.sfs.simulation.OpponentAi;
+
+public class TimedOpponentAi implements OpponentAi {
+    private final OpponentAi ai;
+
+    // how many decisions the AI has made and how long they took, in nanoseconds
+    private long decisions;
+    private long decisionTime;
+
+    public TimedOpponentAi(OpponentAi ai) {
+        this.ai = ai;
+    }
+
+    public long getDecisions() {
+        return decisions;
+    }
+
+    public long getDecisionTime() {
+        return decisionTime;
+    }
+
+    @Override
+    public void reset() {
+        ai.reset();
+    }
+
+    @Override
+    public void update(float deltaTime, FighterView self, FighterView target, FighterCommands commands,
+                       int difficulty) {
+        // every update is one decision, even if the AI decides to keep doing what it's doing
+        long startTime = System.nanoTime();
+        ai.update(deltaTime, self, target, commands, difficulty);
+        decisionTime += System.nanoTime() - startTime;
+        decisions++;
+    }
+
+    @Override
+    public void saveState(MatchSnapshot snapshot) {
+        ai.saveState(snapshot);
+    }
+
+    @Override
+    public void restoreState(MatchSnapshot snapshot) {
+        ai.restoreState(snapshot);
+    }
+}